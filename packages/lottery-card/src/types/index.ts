@@ -29,12 +29,21 @@ export interface LotteryData {
   state: LotteryState;
   participantCount?: number;
   prizes?: Prize[];
+  /** 首屏只带前 50 条中奖名单，其余通过 /lotteries/{name}/winners 分页获取 */
   winners?: Winner[];
+  winnerCount?: number;
   theme?: 'default' | 'slot-machine';
   /** 谢谢参与格子数量（大转盘/刮刮乐使用） */
   thankYouSlots?: number;
 }
 
+export interface WinnerPage {
+  page: number;
+  size: number;
+  total: number;
+  items: Winner[];
+}
+
 export interface ParticipateResult {
   success: boolean;
   message: string;
@@ -1,23 +1,37 @@
 package com.xhhao.lottery;
 
 import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryDrawJob;
+import com.xhhao.lottery.entity.LotteryDrawRound;
 import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryWinner;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
 import run.halo.app.extension.SchemeManager;
 import run.halo.app.extension.index.IndexSpecs;
 import run.halo.app.plugin.BasePlugin;
 import run.halo.app.plugin.PluginContext;
 
+import java.time.Instant;
 import java.util.Optional;
 
+@Slf4j
 @Component
 public class LotteryPlugin extends BasePlugin {
 
     private final SchemeManager schemeManager;
+    private final LotteryWinnerService winnerService;
 
-    public LotteryPlugin(PluginContext pluginContext, SchemeManager schemeManager) {
+    private volatile Disposable winnerMigration;
+
+    public LotteryPlugin(PluginContext pluginContext, SchemeManager schemeManager,
+                         LotteryWinnerService winnerService) {
         super(pluginContext);
         this.schemeManager = schemeManager;
+        this.winnerService = winnerService;
     }
 
     @Override
@@ -38,6 +52,17 @@ public class LotteryPlugin extends BasePlugin {
                 .indexFunc(item -> Optional.ofNullable(item.getSpec())
                     .map(LotteryActivity.LotteryActivitySpec::getTitle)
                     .orElse(null)));
+            // 自动开奖时间（开奖时间，未设置时取结束时间），已开奖的活动不再索引
+            indexSpecs.add(
+                IndexSpecs.<LotteryActivity, Instant>single("spec.effectiveDrawTime", Instant.class)
+                    .indexFunc(item -> {
+                        var spec = item.getSpec();
+                        if (spec == null || (item.getStatus() != null
+                            && item.getStatus().getState() == LotteryActivity.State.DRAWN)) {
+                            return null;
+                        }
+                        return spec.getDrawTime() != null ? spec.getDrawTime() : spec.getEndTime();
+                    }));
         });
         schemeManager.register(LotteryParticipant.class, indexSpecs -> {
             indexSpecs.add(IndexSpecs.<LotteryParticipant, String>single("spec.token", String.class)
@@ -55,12 +80,64 @@ public class LotteryPlugin extends BasePlugin {
                         .map(LotteryParticipant.LotteryParticipantSpec::getIsWinner)
                         .map(String::valueOf)
                         .orElse(null)));
+            // 参与者标识（用户名优先，其次邮箱）的小写形式，用于按标识查找指定中奖人
+            indexSpecs.add(
+                IndexSpecs.<LotteryParticipant, String>single("spec.identifier", String.class)
+                    .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                        .map(spec -> StringUtils.firstNonBlank(spec.getUsername(), spec.getEmail()))
+                        .map(String::toLowerCase)
+                        .orElse(null)));
+            indexSpecs.add(IndexSpecs.<LotteryParticipant, String>single("spec.leaseId", String.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryParticipant.LotteryParticipantSpec::getLeaseId)
+                    .orElse(null)));
+        });
+        schemeManager.register(LotteryWinner.class, indexSpecs -> {
+            indexSpecs.add(IndexSpecs.<LotteryWinner, String>single("spec.activityName", String.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryWinner.LotteryWinnerSpec::getActivityName)
+                    .orElse(null)));
+            indexSpecs.add(IndexSpecs.<LotteryWinner, String>single("spec.sourceToken", String.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryWinner.LotteryWinnerSpec::getSourceToken)
+                    .orElse(null)));
+            indexSpecs.add(IndexSpecs.<LotteryWinner, Integer>single("spec.round", Integer.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryWinner.LotteryWinnerSpec::getRound)
+                    .orElse(null)));
+            indexSpecs.add(IndexSpecs.<LotteryWinner, Integer>single("spec.position", Integer.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryWinner.LotteryWinnerSpec::getPosition)
+                    .orElse(null)));
+        });
+        schemeManager.register(LotteryDrawRound.class, indexSpecs -> {
+            indexSpecs.add(IndexSpecs.<LotteryDrawRound, String>single("spec.activityName", String.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryDrawRound.DrawRoundSpec::getActivityName)
+                    .orElse(null)));
+        });
+        schemeManager.register(LotteryDrawJob.class, indexSpecs -> {
+            indexSpecs.add(IndexSpecs.<LotteryDrawJob, String>single("spec.activityName", String.class)
+                .indexFunc(item -> Optional.ofNullable(item.getSpec())
+                    .map(LotteryDrawJob.DrawJobSpec::getActivityName)
+                    .orElse(null)));
         });
+        // 迁移依赖上面注册的模型与索引
+        winnerMigration = winnerService.migrateLegacyWinners()
+            .subscribe(null, e -> log.error("Failed to migrate legacy lottery winners", e));
     }
 
     @Override
     public void stop() {
+        var migration = winnerMigration;
+        if (migration != null) {
+            migration.dispose();
+            winnerMigration = null;
+        }
         schemeManager.unregister(schemeManager.get(LotteryActivity.class));
         schemeManager.unregister(schemeManager.get(LotteryParticipant.class));
+        schemeManager.unregister(schemeManager.get(LotteryWinner.class));
+        schemeManager.unregister(schemeManager.get(LotteryDrawRound.class));
+        schemeManager.unregister(schemeManager.get(LotteryDrawJob.class));
     }
 }
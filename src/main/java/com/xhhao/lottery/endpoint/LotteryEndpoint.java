@@ -1,11 +1,23 @@
 package com.xhhao.lottery.endpoint;
 
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryDrawJob;
 import com.xhhao.lottery.entity.LotteryParticipant;
 import com.xhhao.lottery.query.LotteryActivityQuery;
+import com.xhhao.lottery.service.DrawAuditService;
+import com.xhhao.lottery.service.DrawAuditService.DrawVerification;
+import com.xhhao.lottery.service.LotteryDrawJobService;
 import com.xhhao.lottery.service.LotteryService;
+import com.xhhao.lottery.service.LotterySimulationService;
+import com.xhhao.lottery.service.LotterySimulationService.SimulationOptions;
+import com.xhhao.lottery.service.LotterySimulationService.SimulationResult;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import com.xhhao.lottery.service.impl.DrawStrategyResolver;
+import com.xhhao.lottery.service.impl.DrawStrategyResolver.StrategyInfo;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
@@ -18,8 +30,11 @@ import run.halo.app.extension.ListResult;
 import run.halo.app.extension.PageRequestImpl;
 import run.halo.app.extension.ReactiveExtensionClient;
 
+import java.util.Optional;
+
 import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
 import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+import static org.springdoc.core.fn.builders.requestbody.Builder.requestBodyBuilder;
 import static run.halo.app.extension.index.query.Queries.equal;
 
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -29,7 +44,12 @@ import io.swagger.v3.oas.annotations.enums.ParameterIn;
 public class LotteryEndpoint implements CustomEndpoint {
 
     private final LotteryService lotteryService;
+    private final LotteryDrawJobService drawJobService;
     private final ReactiveExtensionClient client;
+    private final LotteryWinnerService winnerService;
+    private final DrawAuditService drawAuditService;
+    private final LotterySimulationService simulationService;
+    private final DrawStrategyResolver drawStrategyResolver;
 
     @Override
     public RouterFunction<ServerResponse> endpoint() {
@@ -51,12 +71,51 @@ public class LotteryEndpoint implements CustomEndpoint {
                     .parameter(parameterBuilder().name("page").description("页码").required(false))
                     .parameter(parameterBuilder().name("size").description("每页数量").required(false))
                     .response(responseBuilder().implementation(ListResult.class)))
+            .GET("/lotteries/{name}/winners", this::listWinners,
+                builder -> builder.operationId("ListWinners")
+                    .tag(tag)
+                    .description("分页查询活动中奖名单")
+                    .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .parameter(parameterBuilder().name("page").description("页码").required(false))
+                    .parameter(parameterBuilder().name("size").description("每页数量").required(false))
+                    .response(responseBuilder().implementation(ListResult.class)))
             .POST("/draw", this::draw,
                 builder -> builder.operationId("DrawLottery")
                     .tag(tag)
-                    .description("手动开奖")
+                    .description("手动开奖，提交后台开奖任务")
                     .parameter(parameterBuilder().name("name").description("活动名称").required(true))
                     .response(responseBuilder().implementation(DrawResponse.class)))
+            .GET("/draw-jobs/{name}", this::getDrawJob,
+                builder -> builder.operationId("GetDrawJob")
+                    .tag(tag)
+                    .description("查询开奖任务进度")
+                    .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .response(responseBuilder().implementation(LotteryDrawJob.class)))
+            .GET("/lotteries/{name}/draw-job", this::getLatestDrawJob,
+                builder -> builder.operationId("GetLatestDrawJob")
+                    .tag(tag)
+                    .description("查询活动最近一次开奖任务")
+                    .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .response(responseBuilder().implementation(LotteryDrawJob.class)))
+            .GET("/lotteries/{name}/draw-audit", this::verifyDrawAudit,
+                builder -> builder.operationId("VerifyDrawAudit")
+                    .tag(tag)
+                    .description("读取开奖审计快照并重放校验")
+                    .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .parameter(parameterBuilder().name("round").description("开奖轮次，默认最近一轮").required(false))
+                    .response(responseBuilder().implementation(DrawVerification.class)))
+            .POST("/lotteries/{name}/simulation", this::simulate,
+                builder -> builder.operationId("SimulateLottery")
+                    .tag(tag)
+                    .description("按即时开奖的扣库存规则离线模拟奖品配置，统计中奖率与奖品抽完时间的分布")
+                    .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .requestBody(requestBodyBuilder().required(false).implementation(SimulationOptions.class))
+                    .response(responseBuilder().implementation(SimulationResult.class)))
+            .GET("/draw-strategies", this::listDrawStrategies,
+                builder -> builder.operationId("ListDrawStrategies")
+                    .tag(tag)
+                    .description("列出可用的开奖策略及其支持的开奖方式")
+                    .response(responseBuilder().implementationArray(StrategyInfo.class)))
             .build();
     }
 
@@ -84,6 +143,21 @@ public class LotteryEndpoint implements CustomEndpoint {
             .flatMap(result -> ServerResponse.ok().bodyValue(result));
     }
 
+    private Mono<ServerResponse> listWinners(ServerRequest request) {
+        String activityName = request.pathVariable("name");
+        int page;
+        int size;
+        try {
+            page = request.queryParam("page").map(Integer::parseInt).orElse(1);
+            size = request.queryParam("size").map(Integer::parseInt).orElse(20);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("分页参数格式不正确");
+        }
+
+        return winnerService.listWinners(activityName, page, size)
+            .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
     private Mono<ServerResponse> draw(ServerRequest request) {
         String activityName = request.queryParam("name").orElse(null);
         if (activityName == null || activityName.isBlank()) {
@@ -93,13 +167,12 @@ public class LotteryEndpoint implements CustomEndpoint {
             return ServerResponse.badRequest().bodyValue(response);
         }
         
-        return lotteryService.draw(activityName)
-            .flatMap(activity -> {
+        return drawJobService.submit(activityName)
+            .flatMap(job -> {
                 var response = new DrawResponse();
                 response.setSuccess(true);
-                response.setMessage("开奖成功");
-                response.setWinnerCount(activity.getStatus().getWinners() != null 
-                    ? activity.getStatus().getWinners().size() : 0);
+                response.setMessage("开奖任务已提交");
+                response.setJobName(job.getMetadata().getName());
                 return ServerResponse.ok().bodyValue(response);
             })
             .onErrorResume(e -> {
@@ -110,10 +183,51 @@ public class LotteryEndpoint implements CustomEndpoint {
             });
     }
 
+    private Mono<ServerResponse> getDrawJob(ServerRequest request) {
+        return drawJobService.getJob(request.pathVariable("name"))
+            .flatMap(job -> ServerResponse.ok().bodyValue(job))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private Mono<ServerResponse> getLatestDrawJob(ServerRequest request) {
+        return drawJobService.getLatestJob(request.pathVariable("name"))
+            .flatMap(job -> ServerResponse.ok().bodyValue(job))
+            .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private Mono<ServerResponse> verifyDrawAudit(ServerRequest request) {
+        String activityName = request.pathVariable("name");
+        return Mono.justOrEmpty(request.queryParam("round").map(Integer::parseInt))
+            .switchIfEmpty(client.get(LotteryActivity.class, activityName)
+                .map(activity -> Optional.ofNullable(activity.getStatus())
+                    .map(LotteryActivity.LotteryActivityStatus::getDrawRound)
+                    .orElse(1)))
+            .flatMap(round -> drawAuditService.verify(activityName, round))
+            .flatMap(result -> ServerResponse.ok().bodyValue(result))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> simulate(ServerRequest request) {
+        String activityName = request.pathVariable("name");
+        return request.bodyToMono(SimulationOptions.class)
+            .defaultIfEmpty(new SimulationOptions())
+            .flatMap(options -> simulationService.simulate(activityName, options))
+            .flatMap(result -> ServerResponse.ok().bodyValue(result))
+            .onErrorResume(IllegalArgumentException.class,
+                e -> ServerResponse.badRequest().bodyValue(e.getMessage()));
+    }
+
+    private Mono<ServerResponse> listDrawStrategies(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(drawStrategyResolver.describe());
+    }
+
     @Data
     public static class DrawResponse {
         private Boolean success;
         private String message;
         private Integer winnerCount;
+        /** 后台开奖任务名称，可用于查询进度 */
+        private String jobName;
     }
 }
@@ -1,12 +1,18 @@
 package com.xhhao.lottery.endpoint;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.xhhao.lottery.entity.LotteryActivity;
 import com.xhhao.lottery.service.EmailVerificationService;
 import com.xhhao.lottery.service.LotteryService;
+import com.xhhao.lottery.service.LotteryWinnerService;
 import com.xhhao.lottery.service.SettingConfigGetter;
+import com.xhhao.lottery.util.SingleFlight;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
@@ -14,9 +20,14 @@ import org.springframework.web.reactive.function.server.ServerResponse;
 import reactor.core.publisher.Mono;
 import run.halo.app.core.extension.endpoint.CustomEndpoint;
 import run.halo.app.extension.GroupVersion;
+import run.halo.app.extension.ListResult;
+import run.halo.app.infra.utils.JsonUtils;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
 import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
@@ -34,6 +45,26 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
     private final LotteryService lotteryService;
     private final EmailVerificationService emailVerificationService;
     private final SettingConfigGetter settingConfigGetter;
+    private final LotteryWinnerService winnerService;
+
+    /** 活动详情中附带的中奖名单条数，完整名单通过分页接口查询 */
+    private static final int WINNER_PREVIEW_SIZE = 50;
+    /** 活动详情随参与实时变化，允许浏览器与中间缓存保存，但每次使用前都需用 ETag 重新验证 */
+    private static final CacheControl ACTIVITY_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    /** 缓存序列化结果的活动数量上限，超出时淘汰最久未访问的活动 */
+    private static final int SERIALIZED_ACTIVITY_LIMIT = 256;
+
+    /** 同一活动详情、同一参与状态的并发读取只计算一次，结果由所有等待的请求共享 */
+    private final SingleFlight<String, ByteBuffer> activityReads = new SingleFlight<>();
+    private final SingleFlight<StatusKey, StatusResponse> statusReads = new SingleFlight<>();
+    /** 活动名称到最近一次序列化的详情，只保留最新修订 */
+    private final Map<String, SerializedActivity> serializedActivities = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SerializedActivity> eldest) {
+            return size() > SERIALIZED_ACTIVITY_LIMIT;
+        }
+    };
 
     @Override
     public RouterFunction<ServerResponse> endpoint() {
@@ -49,10 +80,19 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
                 builder -> builder.operationId("GetLotteryActivity")
                     .tag(tag).description("获取活动详情")
                     .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true)))
+            .GET("/lotteries/{name}/winners", this::listWinners,
+                builder -> builder.operationId("ListLotteryWinners")
+                    .tag(tag).description("分页查询中奖名单")
+                    .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .parameter(parameterBuilder().name("page").description("页码").required(false))
+                    .parameter(parameterBuilder().name("size").description("每页数量").required(false))
+                    .response(responseBuilder().implementation(ListResult.class)))
             .POST("/lotteries/{name}/participate", this::participate,
                 builder -> builder.operationId("ParticipateLottery")
-                    .tag(tag).description("匿名参与抽奖")
+                    .tag(tag).description("匿名参与抽奖，count 大于 1 时为连抽")
                     .parameter(parameterBuilder().name("name").in(ParameterIn.PATH).required(true))
+                    .parameter(parameterBuilder().name("count").in(ParameterIn.QUERY).required(false)
+                        .implementation(Integer.class))
                     .requestBody(requestBodyBuilder().implementation(ParticipateRequest.class)))
             .POST("/lotteries/{name}/participate-login", this::participateWithLogin,
                 builder -> builder.operationId("ParticipateLotteryWithLogin")
@@ -96,36 +136,129 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
         return GroupVersion.parseAPIVersion("api.lottery.xhhao.com/v1alpha1");
     }
 
+    /**
+     * 以活动修订标识作为强 ETag，{@code If-None-Match} 命中时直接返回 304，不再计算奖品剩余与中奖名单。
+     * 合并读取按修订标识区分，保证返回的内容不早于 ETag 对应的版本。
+     * <p>
+     * 响应体按修订标识缓存序列化后的 JSON，修订不变时直接把缓存的字节包装为 {@link DataBuffer} 写出，
+     * 不再映射 DTO 和序列化。
+     */
     private Mono<ServerResponse> getActivity(ServerRequest request) {
         String name = request.pathVariable("name");
-        return lotteryService.getActivity(name)
-            .flatMap(activity -> {
-                var resp = new ActivityResponse();
-                resp.setName(activity.getMetadata().getName());
-                resp.setTitle(activity.getSpec().getTitle());
-                resp.setDescription(activity.getSpec().getDescription());
-                resp.setLotteryType(activity.getSpec().getLotteryType());
-                resp.setParticipationType(activity.getSpec().getParticipationType());
-                resp.setStartTime(activity.getSpec().getStartTime());
-                resp.setEndTime(activity.getSpec().getEndTime());
-                resp.setMaxParticipants(activity.getSpec().getMaxParticipants());
-                resp.setPrizes(activity.getSpec().getPrizes());
-                resp.setThankYouSlots(activity.getSpec().getThankYouSlots());
-                if (activity.getStatus() != null) {
-                    resp.setState(activity.getStatus().getState());
-                    resp.setParticipantCount(activity.getStatus().getParticipantCount());
-                    if (activity.getStatus().getState() == LotteryActivity.State.DRAWN) {
-                        resp.setWinners(activity.getStatus().getWinners());
-                    }
-                }
-                return ServerResponse.ok().bodyValue(resp);
+        return lotteryService.getActivityRevision(name)
+            .flatMap(revision -> {
+                var etag = "\"" + revision + "\"";
+                return request.checkNotModified(etag)
+                    .flatMap(notModified -> ServerResponse.from(notModified)
+                        .cacheControl(ACTIVITY_CACHE_CONTROL)
+                        .build())
+                    .switchIfEmpty(Mono.defer(() -> serializedActivity(name, revision)
+                        .flatMap(body -> ServerResponse.ok()
+                            .eTag(etag)
+                            .cacheControl(ACTIVITY_CACHE_CONTROL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body((message, context) -> message.writeWith(
+                                Mono.fromSupplier(() -> message.bufferFactory().wrap(body.duplicate())))))));
             })
             .switchIfEmpty(ServerResponse.notFound().build());
     }
 
+    /**
+     * 返回活动详情 JSON 的只读视图，每次写出使用独立的 {@link ByteBuffer#duplicate() 副本}。
+     */
+    private Mono<ByteBuffer> serializedActivity(String name, String revision) {
+        return Mono.defer(() -> {
+            SerializedActivity cached;
+            synchronized (serializedActivities) {
+                cached = serializedActivities.get(name);
+            }
+            if (cached != null && cached.revision().equals(revision)) {
+                return Mono.just(cached.body());
+            }
+            return activityReads.execute(name + "@" + revision, () -> loadActivityResponse(name)
+                .map(resp -> {
+                    var body = serialize(resp);
+                    synchronized (serializedActivities) {
+                        serializedActivities.put(name, new SerializedActivity(revision, body));
+                    }
+                    return body;
+                }));
+        });
+    }
+
+    private ByteBuffer serialize(ActivityResponse resp) {
+        try {
+            return ByteBuffer.wrap(JsonUtils.mapper().writeValueAsBytes(resp)).asReadOnlyBuffer();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("活动详情序列化失败", e);
+        }
+    }
+
+    /**
+     * @param body 只读，读取时需使用 {@link ByteBuffer#duplicate()}
+     */
+    private record SerializedActivity(String revision, ByteBuffer body) {
+    }
+
+    private Mono<ActivityResponse> loadActivityResponse(String name) {
+        return lotteryService.getActivity(name)
+            .flatMap(activity -> {
+                var drawn = activity.getStatus() != null
+                    && activity.getStatus().getState() == LotteryActivity.State.DRAWN;
+                return drawn
+                    ? winnerService.listWinners(name, 1, WINNER_PREVIEW_SIZE)
+                        .map(winners -> toActivityResponse(activity, winners.getItems()))
+                    : Mono.just(toActivityResponse(activity, null));
+            });
+    }
+
+    private ActivityResponse toActivityResponse(LotteryActivity activity, List<LotteryActivity.Winner> winners) {
+        var resp = new ActivityResponse();
+        resp.setName(activity.getMetadata().getName());
+        resp.setTitle(activity.getSpec().getTitle());
+        resp.setDescription(activity.getSpec().getDescription());
+        resp.setLotteryType(activity.getSpec().getLotteryType());
+        resp.setParticipationType(activity.getSpec().getParticipationType());
+        resp.setStartTime(activity.getSpec().getStartTime());
+        resp.setEndTime(activity.getSpec().getEndTime());
+        resp.setMaxParticipants(activity.getSpec().getMaxParticipants());
+        resp.setPrizes(activity.getSpec().getPrizes());
+        resp.setThankYouSlots(activity.getSpec().getThankYouSlots());
+        if (activity.getStatus() != null) {
+            resp.setState(activity.getStatus().getState());
+            resp.setParticipantCount(activity.getStatus().getParticipantCount());
+            resp.setWinnerCount(activity.getStatus().getWinnerCount());
+        }
+        resp.setWinners(winners);
+        return resp;
+    }
+
+    private Mono<ServerResponse> listWinners(ServerRequest request) {
+        String name = request.pathVariable("name");
+        int page;
+        int size;
+        try {
+            page = request.queryParam("page").map(Integer::parseInt).orElse(1);
+            size = request.queryParam("size").map(Integer::parseInt).orElse(20);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().bodyValue("分页参数格式不正确");
+        }
+        return winnerService.listWinners(name, page, size)
+            .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
     private Mono<ServerResponse> participate(ServerRequest request) {
         String name = request.pathVariable("name");
         String ip = getClientIp(request);
+        int count;
+        try {
+            count = request.queryParam("count").map(Integer::parseInt).orElse(1);
+        } catch (NumberFormatException e) {
+            var resp = new ParticipateResponse();
+            resp.setSuccess(false);
+            resp.setMessage("抽奖次数格式不正确");
+            return ServerResponse.ok().bodyValue(resp);
+        }
         return request.bodyToMono(ParticipateRequest.class)
             .flatMap(body -> {
                 // 检查是否需要验证码
@@ -150,15 +283,18 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
                                         resp.setNeedVerification(true);
                                         return ServerResponse.ok().bodyValue(resp);
                                     }
-                                    return doParticipate(name, body, ip);
+                                    return doParticipate(name, body, ip, count);
                                 });
                         }
-                        return doParticipate(name, body, ip);
+                        return doParticipate(name, body, ip, count);
                     });
             });
     }
 
-    private Mono<ServerResponse> doParticipate(String name, ParticipateRequest body, String ip) {
+    private Mono<ServerResponse> doParticipate(String name, ParticipateRequest body, String ip, int count) {
+        if (count != 1) {
+            return doParticipateBatch(name, body, ip, count);
+        }
         return lotteryService.participateAnonymous(name, body.getEmail(), body.getDisplayName(), ip)
             .flatMap(p -> {
                 var resp = new ParticipateResponse();
@@ -178,6 +314,41 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
             });
     }
 
+    private Mono<ServerResponse> doParticipateBatch(String name, ParticipateRequest body, String ip, int count) {
+        return lotteryService.participateAnonymous(name, body.getEmail(), body.getDisplayName(), ip, count)
+            .flatMap(participants -> {
+                var results = participants.stream()
+                    .map(p -> {
+                        var result = new SpinResult();
+                        result.setIsWinner(p.getSpec().getIsWinner());
+                        result.setPrizeName(p.getSpec().getPrizeName());
+                        return result;
+                    })
+                    .toList();
+                var resp = new ParticipateResponse();
+                resp.setSuccess(true);
+                resp.setMessage(participants.size() < count
+                    ? "部分抽奖成功（" + participants.size() + "/" + count + "）"
+                    : "参与成功");
+                resp.setToken(participants.get(0).getSpec().getToken());
+                resp.setResults(results);
+                results.stream()
+                    .filter(result -> Boolean.TRUE.equals(result.getIsWinner()))
+                    .findFirst()
+                    .ifPresentOrElse(result -> {
+                        resp.setIsWinner(true);
+                        resp.setPrizeName(result.getPrizeName());
+                    }, () -> resp.setIsWinner(false));
+                return ServerResponse.ok().bodyValue(resp);
+            })
+            .onErrorResume(e -> {
+                var resp = new ParticipateResponse();
+                resp.setSuccess(false);
+                resp.setMessage(e.getMessage());
+                return ServerResponse.ok().bodyValue(resp);
+            });
+    }
+
     private Mono<ServerResponse> participateWithLogin(ServerRequest request) {
         String name = request.pathVariable("name");
         String ip = getClientIp(request);
@@ -289,6 +460,11 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
             resp.setParticipated(false);
             return ServerResponse.ok().bodyValue(resp);
         }
+        return statusReads.execute(new StatusKey(name, token), () -> loadStatus(name, token))
+            .flatMap(resp -> ServerResponse.ok().bodyValue(resp));
+    }
+
+    private Mono<StatusResponse> loadStatus(String name, String token) {
         return lotteryService.findByToken(token)
             .filter(p -> name.equals(p.getSpec().getActivityName()))
             .flatMap(p -> lotteryService.getWinnerByToken(name, token)
@@ -307,14 +483,16 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
                     resp.setIsWinner(false);
                     return resp;
                 })))
-            .flatMap(resp -> ServerResponse.ok().bodyValue(resp))
-            .switchIfEmpty(Mono.defer(() -> {
+            .switchIfEmpty(Mono.fromSupplier(() -> {
                 var resp = new StatusResponse();
                 resp.setParticipated(false);
-                return ServerResponse.ok().bodyValue(resp);
+                return resp;
             }));
     }
 
+    private record StatusKey(String activityName, String token) {
+    }
+
     private Mono<ServerResponse> checkComment(ServerRequest request) {
         String postName = request.queryParam("postName").orElse(null);
         String email = request.queryParam("email").orElse(null);
@@ -455,6 +633,14 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
         private String prizeName;
         // 是否需要验证码
         private Boolean needVerification;
+        /** 连抽时每次抽奖的结果，按抽取顺序排列 */
+        private List<SpinResult> results;
+    }
+
+    @Data
+    public static class SpinResult {
+        private Boolean isWinner;
+        private String prizeName;
     }
 
     @Data
@@ -478,7 +664,9 @@ public class LotteryPublicEndpoint implements CustomEndpoint {
         private LotteryActivity.State state;
         private Integer participantCount;
         private List<LotteryActivity.Prize> prizes;
+        /** 中奖名单的前 50 条，完整名单见 /lotteries/{name}/winners */
         private List<LotteryActivity.Winner> winners;
+        private Integer winnerCount;
         /** 谢谢参与格子数量（大转盘/刮刮乐使用） */
         private Integer thankYouSlots;
     }
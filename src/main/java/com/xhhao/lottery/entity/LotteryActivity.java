@@ -7,6 +7,7 @@ import run.halo.app.extension.GVK;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -31,6 +32,13 @@ public class LotteryActivity extends AbstractExtension {
         LOGIN_AND_COMMENT   // 登录+评论
     }
 
+    public enum WinnerExclusivity {
+        IP_ADDRESS,     // 同一 IP
+        EMAIL,          // 同一邮箱（忽略大小写与 +标签）
+        EMAIL_DOMAIN,   // 同一邮箱域名
+        USERNAME        // 同一用户名
+    }
+
     public enum LotteryType {
         SCHEDULED,  // 定时开奖（到时间统一抽取）
         WHEEL,      // 大转盘（参与即抽，立即出结果）
@@ -62,6 +70,27 @@ public class LotteryActivity extends AbstractExtension {
         private List<ManualAssignment> manualAssignments;
         
         private Integer thankYouSlots;
+
+        /** 单次请求最多连抽次数（仅即时开奖且允许重复参与时生效） */
+        private Integer maxSpinsPerRequest;
+
+        /** 开奖策略名称，为空时按开奖方式使用默认策略 */
+        private String drawStrategy;
+
+        /**
+         * 多轮开奖：开奖时间前手动开奖且奖品未抽完时活动继续进行，
+         * 之后每轮从全部参与者中抽取，已中奖者不再参与。
+         */
+        private Boolean multiRound;
+
+        /** 登录参与额外获得的奖券数，配合 weighted 开奖策略使用 */
+        private Integer loginBonusTickets;
+
+        /** 评论参与额外获得的奖券数，配合 weighted 开奖策略使用 */
+        private Integer commentBonusTickets;
+
+        /** 定时开奖的中奖互斥维度，同一维度取值相同的参与者最多中一个奖 */
+        private List<WinnerExclusivity> winnerExclusivity;
         
         public LotteryType getLotteryType() {
             return lotteryType != null ? lotteryType : LotteryType.SCHEDULED;
@@ -70,6 +99,10 @@ public class LotteryActivity extends AbstractExtension {
         public Integer getThankYouSlots() {
             return thankYouSlots != null ? thankYouSlots : 2;
         }
+
+        public Integer getMaxSpinsPerRequest() {
+            return maxSpinsPerRequest != null ? maxSpinsPerRequest : 10;
+        }
     }
 
     @Data
@@ -80,6 +113,8 @@ public class LotteryActivity extends AbstractExtension {
         private Integer quantity;
         private Integer remaining;
         private Integer probability;
+        /** 每小时最多放出的数量（自活动开始时间起按小时累计），为空或不大于 0 时不限速 */
+        private Integer releasePerHour;
     }
 
     @Data
@@ -95,7 +130,25 @@ public class LotteryActivity extends AbstractExtension {
         private State state;
         private Integer participantCount;
         private Instant drawnTime;
+        /** 中奖总人数，中奖名单见 {@link LotteryWinner} */
+        private Integer winnerCount;
+        /** 各奖项已中奖人数 */
+        private Map<String, Integer> prizeWinnerCounts;
+        /**
+         * 旧版本写入的中奖名单，启动时迁移为 {@link LotteryWinner} 后清空。
+         */
+        @Deprecated
         private List<Winner> winners;
+        /** 开奖使用的随机种子，配合 drawStrategy 可重放开奖过程以核验结果 */
+        private Long drawSeed;
+        /** 开奖使用的策略名称 */
+        private String drawStrategy;
+        /** 已完成的开奖轮次，各轮记录见 {@link LotteryDrawRound} */
+        private Integer drawRound;
+        /** 最近一次持有开奖锁的防护令牌，写入开奖结果时令牌不一致则拒绝 */
+        private Long drawFence;
+        /** 自动开奖多次失败后放弃时的错误信息，开奖成功后清空 */
+        private String drawError;
     }
 
     @Data
@@ -0,0 +1,58 @@
+package com.xhhao.lottery.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "lottery.xhhao.com", version = "v1alpha1", kind = "LotteryDrawJob",
+        plural = "lotterydrawjobs", singular = "lotterydrawjob")
+public class LotteryDrawJob extends AbstractExtension {
+
+    private DrawJobSpec spec;
+    private DrawJobStatus status;
+
+    public enum Phase {
+        PENDING,     // 等待执行
+        LOADING,     // 加载参与者、补齐指定中奖人
+        SAMPLING,    // 抽取中奖者
+        PERSISTING,  // 写入开奖结果
+        NOTIFYING,   // 发送中奖通知
+        SUCCEEDED,   // 已完成
+        FAILED       // 已失败
+    }
+
+    @Data
+    public static class DrawJobSpec {
+        private String activityName;
+    }
+
+    @Data
+    public static class DrawJobStatus {
+        private Phase phase;
+        /** 最后完成的阶段，中断后从其下一阶段继续 */
+        private Phase lastCompletedPhase;
+        private Integer participantCount;
+        private Integer winnerCount;
+        /** 已按顺序通知到的中奖者数量 */
+        private Integer notifiedCount;
+        /** 已通知的未中奖参与者数量及最后一位的名称，未中奖者按名称顺序通知 */
+        private Integer notifiedOthersCount;
+        private String notifyCursor;
+        private Integer notifyFailedCount;
+        private Integer attempts;
+        private String error;
+        private Instant startTime;
+        private Instant finishTime;
+        /** 抽样阶段的中奖名单，仅在落库前保存以便中断后无需重新抽取，落库后清空，通知时按轮次读取中奖记录 */
+        private List<LotteryActivity.Winner> winners;
+        private Long drawSeed;
+        private String drawStrategy;
+        private LotteryDrawRound.DrawRoundSpec round;
+    }
+}
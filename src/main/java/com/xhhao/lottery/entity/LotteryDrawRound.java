@@ -0,0 +1,43 @@
+package com.xhhao.lottery.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.time.Instant;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "lottery.xhhao.com", version = "v1alpha1", kind = "LotteryDrawRound",
+        plural = "lotterydrawrounds", singular = "lotterydrawround")
+public class LotteryDrawRound extends AbstractExtension {
+
+    private DrawRoundSpec spec;
+
+    @Data
+    public static class DrawRoundSpec {
+        private String activityName;
+
+        /** 轮次，从 1 开始 */
+        private Integer round;
+
+        /**
+         * 本轮看到的最晚一条参与记录的创建时间与名称，只用于核对本轮覆盖的参与范围；
+         * 每轮都从全部参与者中抽取，之前各轮的未中奖者始终有资格。
+         */
+        private Instant cursor;
+
+        private String cursorName;
+
+        /** 本轮参与抽取的人数（含之前各轮的中奖者，抽取时排除） */
+        private Integer candidateCount;
+
+        private Integer winnerCount;
+
+        private Instant drawnTime;
+
+        /** 写入本轮记录的开奖锁防护令牌 */
+        private Long drawFence;
+    }
+}
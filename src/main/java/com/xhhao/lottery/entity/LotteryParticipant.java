@@ -40,5 +40,11 @@ public class LotteryParticipant extends AbstractExtension {
         private String prizeName;
         
         private Instant winTime;
+
+        /** 即时开奖中奖时占用的库存租约，回收过期租约时据此判断是否已落库 */
+        private String leaseId;
+
+        /** 奖券数（抽中权重），为空时按 1 计，不大于 0 时不参与开奖；仅 weighted 开奖策略生效 */
+        private Integer weight;
     }
 }
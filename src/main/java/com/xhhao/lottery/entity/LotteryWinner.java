@@ -0,0 +1,41 @@
+package com.xhhao.lottery.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+import java.time.Instant;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "lottery.xhhao.com", version = "v1alpha1", kind = "LotteryWinner",
+        plural = "lotterywinners", singular = "lotterywinner")
+public class LotteryWinner extends AbstractExtension {
+
+    private LotteryWinnerSpec spec;
+
+    @Data
+    public static class LotteryWinnerSpec {
+        private String activityName;
+
+        private String identifier;  // username 或 email
+
+        private String prizeName;
+
+        private Instant winTime;
+
+        private String sourceToken;
+
+        private String drawSource;
+
+        /** 中奖所在的开奖轮次，旧版本迁移的记录为空 */
+        private Integer round;
+
+        /** 在本轮开奖结果中的位置，从 0 开始，与奖项顺序一致 */
+        private Integer position;
+
+        /** 写入该记录的开奖锁防护令牌，旧版本迁移的记录为空 */
+        private Long drawFence;
+    }
+}
@@ -0,0 +1,99 @@
+package com.xhhao.lottery.reconciler;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+import com.xhhao.lottery.service.DrawAuditService;
+import com.xhhao.lottery.service.impl.DrawStrategyResolver;
+import com.xhhao.lottery.util.ActivityStateUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.ExtensionUtil;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * 推进活动的 PENDING → RUNNING → ENDED 状态：每次调谐写入当前状态（仅在变化时），
+ * 并在下一个开始或结束时间重新入队，每个边界只写一次。开奖由开奖流程负责，已开奖的活动不再处理。
+ * <p>
+ * 扩展 API 保存活动时没有校验入口，开奖策略与开奖方式不匹配的活动在这里记录告警，
+ * 参与与开奖时由 {@link DrawStrategyResolver} 拒绝。
+ * <p>
+ * 活动带有 {@value #FINALIZER} 终结器，删除时先清理插件工作目录中的开奖审计快照再移除终结器。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LotteryActivityStateReconciler implements Reconciler<Reconciler.Request> {
+
+    static final String FINALIZER = "lottery-draw-audit-cleanup";
+
+    private static final Duration MIN_REQUEUE_DELAY = Duration.ofSeconds(1);
+
+    private final ExtensionClient client;
+    private final DrawStrategyResolver drawStrategyResolver;
+    private final DrawAuditService drawAuditService;
+
+    @Override
+    public Result reconcile(Request request) {
+        var activity = client.fetch(LotteryActivity.class, request.name()).orElse(null);
+        if (activity == null) {
+            return Result.doNotRetry();
+        }
+        if (ExtensionUtil.isDeleted(activity)) {
+            if (activity.getMetadata().getFinalizers() != null
+                && activity.getMetadata().getFinalizers().contains(FINALIZER)) {
+                drawAuditService.deleteSnapshots(request.name()).block();
+                ExtensionUtil.removeFinalizers(activity.getMetadata(), Set.of(FINALIZER));
+                client.update(activity);
+            }
+            return Result.doNotRetry();
+        }
+        if (activity.getSpec() == null) {
+            return Result.doNotRetry();
+        }
+        var finalizerAdded = ExtensionUtil.addFinalizers(activity.getMetadata(), Set.of(FINALIZER));
+
+        var now = Instant.now();
+        var state = ActivityStateUtil.effectiveState(activity, now);
+        if (state == State.DRAWN) {
+            if (finalizerAdded) {
+                client.update(activity);
+            }
+            return Result.doNotRetry();
+        }
+        try {
+            drawStrategyResolver.resolve(activity);
+        } catch (IllegalStateException e) {
+            log.warn("Lottery activity {} cannot be drawn: {}", request.name(), e.getMessage());
+        }
+        if (activity.getStatus() == null) {
+            activity.setStatus(new LotteryActivity.LotteryActivityStatus());
+        }
+        if (activity.getStatus().getState() != state || finalizerAdded) {
+            activity.getStatus().setState(state);
+            client.update(activity);
+        }
+
+        var next = ActivityStateUtil.nextTransition(activity, now);
+        if (next == null) {
+            return Result.doNotRetry();
+        }
+        var delay = Duration.between(now, next);
+        return Result.requeue(delay.compareTo(MIN_REQUEUE_DELAY) < 0 ? MIN_REQUEUE_DELAY : delay);
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new LotteryActivity())
+            .syncAllOnStart(true)
+            .build();
+    }
+}
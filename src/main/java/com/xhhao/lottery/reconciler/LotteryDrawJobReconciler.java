@@ -0,0 +1,215 @@
+package com.xhhao.lottery.reconciler;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryDrawJob;
+import com.xhhao.lottery.entity.LotteryDrawJob.DrawJobStatus;
+import com.xhhao.lottery.entity.LotteryDrawJob.Phase;
+import com.xhhao.lottery.service.DrawLockService;
+import com.xhhao.lottery.service.DrawNotificationService;
+import com.xhhao.lottery.service.DrawNotificationService.NotifyProgress;
+import com.xhhao.lottery.service.DrawLockService.DrawLease;
+import com.xhhao.lottery.service.LotteryService;
+import com.xhhao.lottery.service.LotteryService.DrawResult;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.controller.Controller;
+import run.halo.app.extension.controller.ControllerBuilder;
+import run.halo.app.extension.controller.Reconciler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 按阶段执行开奖任务，每完成一个阶段即记录进度。插件重启后会重新同步全部任务，
+ * 未结束的任务从最后完成阶段的下一阶段继续；抽样结果在落库前已保存，不会重新抽取。
+ * 落库前的阶段在开奖锁内执行，锁被其他节点持有时稍后重试；取得锁后先把防护令牌记录到活动，
+ * 落库时以该令牌写入，锁过期后被其他节点接管时落库会被拒绝。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LotteryDrawJobReconciler implements Reconciler<Reconciler.Request> {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration LOCK_BUSY_RETRY = Duration.ofSeconds(5);
+
+    private final ExtensionClient client;
+    private final LotteryService lotteryService;
+    private final DrawNotificationService drawNotificationService;
+    private final DrawLockService drawLockService;
+    private final LotteryWinnerService winnerService;
+
+    @Override
+    public Result reconcile(Request request) {
+        var job = client.fetch(LotteryDrawJob.class, request.name()).orElse(null);
+        if (job == null || job.getMetadata().getDeletionTimestamp() != null || isFinished(job)) {
+            return Result.doNotRetry();
+        }
+
+        var jobName = request.name();
+        var activityName = job.getSpec().getActivityName();
+        var completed = Optional.ofNullable(job.getStatus())
+            .map(DrawJobStatus::getLastCompletedPhase)
+            .orElse(Phase.PENDING);
+        DrawLease lease = null;
+        if (completed.compareTo(Phase.PERSISTING) < 0) {
+            lease = drawLockService.tryAcquire(activityName).block();
+            if (lease == null) {
+                log.debug("Draw lock of activity {} is held elsewhere, requeue job {}", activityName, jobName);
+                return Result.requeue(LOCK_BUSY_RETRY);
+            }
+        }
+
+        updateStatus(jobName, status -> {
+            status.setAttempts(Objects.requireNonNullElse(status.getAttempts(), 0) + 1);
+            status.setError(null);
+            if (status.getStartTime() == null) {
+                status.setStartTime(Instant.now());
+            }
+        });
+
+        try {
+            if (lease != null) {
+                lotteryService.claimDrawFence(activityName, lease.fencingToken()).block();
+            }
+            if (completed.compareTo(Phase.LOADING) < 0) {
+                enterPhase(jobName, Phase.LOADING);
+                var participantCount = lotteryService.prepareDraw(activityName).block();
+                completePhase(jobName, Phase.LOADING, status -> status.setParticipantCount(participantCount));
+            }
+            if (completed.compareTo(Phase.SAMPLING) < 0) {
+                enterPhase(jobName, Phase.SAMPLING);
+                var result = Objects.requireNonNull(lotteryService.sampleWinners(activityName).block());
+                completePhase(jobName, Phase.SAMPLING, status -> {
+                    status.setWinners(result.winners());
+                    status.setWinnerCount(result.winners().size());
+                    status.setDrawSeed(result.seed());
+                    status.setDrawStrategy(result.strategy());
+                    status.setRound(result.round());
+                });
+            }
+            if (completed.compareTo(Phase.PERSISTING) < 0) {
+                enterPhase(jobName, Phase.PERSISTING);
+                var status = currentStatus(jobName);
+                lotteryService.persistWinners(activityName, new DrawResult(
+                    status.getWinners(), status.getDrawSeed(), status.getDrawStrategy(), status.getRound()
+                ), lease.fencingToken()).block();
+                // 中奖名单已落库为中奖记录，不再保留在任务中
+                completePhase(jobName, Phase.PERSISTING, persisted -> persisted.setWinners(null));
+                drawLockService.release(lease).block();
+                lease = null;
+            }
+            if (completed.compareTo(Phase.NOTIFYING) < 0) {
+                enterPhase(jobName, Phase.NOTIFYING);
+                notifyWinners(jobName, activityName);
+                completePhase(jobName, Phase.NOTIFYING, status -> {
+                    status.setPhase(Phase.SUCCEEDED);
+                    status.setFinishTime(Instant.now());
+                });
+            }
+            return Result.doNotRetry();
+        } catch (RuntimeException e) {
+            var attempts = currentStatus(jobName).getAttempts();
+            var retryable = !(e instanceof IllegalStateException || e instanceof IllegalArgumentException)
+                && attempts < MAX_ATTEMPTS;
+            log.warn("Lottery draw job {} failed for activity {} (attempt {})", jobName, activityName, attempts, e);
+            updateStatus(jobName, status -> {
+                status.setError(StringUtils.defaultIfBlank(e.getMessage(), e.getClass().getSimpleName()));
+                if (!retryable) {
+                    status.setPhase(Phase.FAILED);
+                    status.setFinishTime(Instant.now());
+                }
+            });
+            return retryable ? Result.requeue(Duration.ofSeconds(10L * attempts)) : Result.doNotRetry();
+        } finally {
+            if (lease != null) {
+                drawLockService.release(lease).block();
+            }
+        }
+    }
+
+    @Override
+    public Controller setupWith(ControllerBuilder builder) {
+        return builder
+            .extension(new LotteryDrawJob())
+            // 任务进度由本调谐器自身写入，忽略更新事件，避免重试绕过退避间隔
+            .onUpdateMatcher(extension -> false)
+            .syncAllOnStart(true)
+            .build();
+    }
+
+    /**
+     * 批量通知开奖结果，中奖者按任务记录的轮次从中奖记录中读取。每收到一次进度即记录，
+     * 中断后从记录的位置继续。
+     */
+    private void notifyWinners(String jobName, String activityName) {
+        var status = currentStatus(jobName);
+        var activity = client.fetch(LotteryActivity.class, activityName).orElse(null);
+        if (activity == null) {
+            return;
+        }
+        Flux<Winner> winners;
+        if (status.getWinners() != null) {
+            // 升级前创建的任务仍在任务中保存了中奖名单
+            winners = Flux.fromIterable(status.getWinners());
+        } else if (status.getRound() != null && status.getRound().getRound() != null) {
+            winners = winnerService.streamWinners(activityName, status.getRound().getRound());
+        } else {
+            winners = winnerService.streamWinners(activityName);
+        }
+        var from = new NotifyProgress(
+            Objects.requireNonNullElse(status.getNotifiedCount(), 0),
+            Objects.requireNonNullElse(status.getNotifiedOthersCount(), 0),
+            status.getNotifyCursor(),
+            Objects.requireNonNullElse(status.getNotifyFailedCount(), 0));
+        for (var progress : drawNotificationService.notifyDrawResults(activity, winners, from).toIterable()) {
+            updateStatus(jobName, current -> {
+                current.setNotifiedCount(progress.winnersNotified());
+                current.setNotifiedOthersCount(progress.othersNotified());
+                current.setNotifyCursor(progress.othersCursor());
+                current.setNotifyFailedCount(progress.failed());
+            });
+        }
+    }
+
+    private void enterPhase(String jobName, Phase phase) {
+        updateStatus(jobName, status -> status.setPhase(phase));
+    }
+
+    private void completePhase(String jobName, Phase phase, Consumer<DrawJobStatus> mutator) {
+        updateStatus(jobName, status -> {
+            mutator.accept(status);
+            status.setLastCompletedPhase(phase);
+        });
+    }
+
+    private DrawJobStatus currentStatus(String jobName) {
+        return client.fetch(LotteryDrawJob.class, jobName)
+            .map(LotteryDrawJob::getStatus)
+            .orElseGet(DrawJobStatus::new);
+    }
+
+    private void updateStatus(String jobName, Consumer<DrawJobStatus> mutator) {
+        client.fetch(LotteryDrawJob.class, jobName).ifPresent(job -> {
+            if (job.getStatus() == null) {
+                job.setStatus(new DrawJobStatus());
+            }
+            mutator.accept(job.getStatus());
+            client.update(job);
+        });
+    }
+
+    private boolean isFinished(LotteryDrawJob job) {
+        var phase = Optional.ofNullable(job.getStatus()).map(DrawJobStatus::getPhase).orElse(null);
+        return phase == Phase.SUCCEEDED || phase == Phase.FAILED;
+    }
+}
@@ -0,0 +1,19 @@
+package com.xhhao.lottery.service;
+
+/**
+ * 活动“已满/已抽完”的内存标记，用于在无 I/O 的情况下快速拒绝或跳过后续请求。
+ * 标记在 Redis 脚本报告耗尽时设置并广播到其他节点，活动配置变更或名额、库存回补时清除。
+ * 标记只在短时间内有效，过期后的请求重新由 Redis 判定，丢失的回补广播不会让活动一直被拒绝。
+ */
+public interface ActivityClosedFlagService {
+
+    boolean isFull(String activityName);
+
+    boolean isSoldOut(String activityName);
+
+    void markFull(String activityName);
+
+    void markSoldOut(String activityName);
+
+    void reopen(String activityName);
+}
@@ -0,0 +1,51 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 定时开奖审计：开奖时把候选集合、种子、奖品名额与结果写入二进制快照，之后可脱离存储重放校验。
+ */
+public interface DrawAuditService {
+
+    /**
+     * 开始记录一次开奖。策略需使用返回的 {@link DrawRecording#request()}，其候选人流会同时被记录。
+     * 不可重放的策略无法核验，不记录候选人也不写快照。
+     *
+     * @param awarded 开奖前已占用互斥约束的中奖者（前几轮与指定中奖），用于重放时还原约束
+     */
+    DrawRecording begin(DrawStrategy strategy, DrawStrategy.DrawRequest request, int round,
+                        List<LotteryParticipantSpec> awarded);
+
+    /**
+     * 读取活动某一轮的快照，校验校验和，并在不访问存储的情况下用快照中的候选人重放开奖。
+     */
+    Mono<DrawVerification> verify(String activityName, int round);
+
+    /**
+     * 删除活动的全部快照，活动删除时调用。
+     */
+    Mono<Void> deleteSnapshots(String activityName);
+
+    interface DrawRecording {
+
+        DrawStrategy.DrawRequest request();
+
+        /**
+         * 写出快照。写入失败只记录日志，不影响开奖。
+         */
+        Mono<Void> complete(DrawStrategy strategy, List<Winner> winners);
+    }
+
+    /**
+     * @param replayMatched 重放结果与记录一致时为 true；策略不可重放时为 null
+     * @param winnersInCandidates 记录的中奖者是否都在候选集合中
+     */
+    record DrawVerification(String activityName, int round, String strategy, Long seed,
+                            int candidateCount, int winnerCount, boolean checksumValid,
+                            boolean winnersInCandidates, Boolean replayMatched) {
+    }
+}
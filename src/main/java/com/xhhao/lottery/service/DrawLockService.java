@@ -0,0 +1,21 @@
+package com.xhhao.lottery.service;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 开奖互斥锁。Redis 可用时为跨节点锁，Redis 不可用时退化为本节点锁。每次加锁分配单调递增的防护令牌
+ * （fencing token，不小于加锁时的毫秒时间戳，重启或切换 Redis 后仍然递增），持有者需先把令牌记录到活动状态，
+ * 写入开奖结果时比较记录的令牌，锁过期后的旧持有者因令牌已被更新而被拒绝。
+ */
+public interface DrawLockService {
+
+    /**
+     * 尝试获取活动的开奖锁，已被其他持有者占用时返回空。持有期间自动续期，直到 {@link #release}。
+     */
+    Mono<DrawLease> tryAcquire(String activityName);
+
+    Mono<Void> release(DrawLease lease);
+
+    record DrawLease(String activityName, String owner, long fencingToken) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import reactor.core.publisher.Flux;
+
+/**
+ * 定时开奖后的批量通知：按顺序流式读取中奖者（可选未中奖参与者），以有限并发和限速发送，
+ * 并按批次输出进度，调用方保存进度后中断可从断点继续。
+ */
+public interface DrawNotificationService {
+
+    /**
+     * 从 {@code from} 记录的位置继续通知。每完成一批（或间隔一段时间）输出一次累计进度，
+     * 进度只覆盖按顺序全部完成的接收者，中断后最多重复通知并发数以内的接收者。
+     */
+    Flux<NotifyProgress> notifyDrawResults(LotteryActivity activity, Flux<Winner> winners, NotifyProgress from);
+
+    /**
+     * @param winnersNotified 已通知的中奖者数量，即下一个待通知中奖者的下标
+     * @param othersCursor 最后一位已通知的未中奖参与者名称，为 null 时从头开始
+     * @param failed 通知失败的接收者数量，失败的接收者不会重试
+     */
+    record NotifyProgress(int winnersNotified, int othersNotified, String othersCursor, int failed) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.InstantLotteryStockService.PrizeReservation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 开奖策略扩展点。实现类注册为 Spring Bean 即可被发现，活动可通过 {@code spec.drawStrategy} 指定名称，
+ * 未指定时按 {@link org.springframework.core.annotation.Order} 顺序取第一个支持该开奖方式的策略。
+ * <p>
+ * 指定中奖人由服务统一处理，策略只负责剩余名额的随机抽取。
+ */
+public interface DrawStrategy {
+
+    String getName();
+
+    boolean supports(LotteryType lotteryType);
+
+    /**
+     * 参与时抽取 {@code count} 次，返回结果与抽取顺序一致，未中奖为空。默认不在参与时开奖。
+     */
+    default Mono<List<Optional<PrizeReservation>>> reserve(LotteryActivity activity, int count) {
+        return Mono.just(Collections.nCopies(count, Optional.empty()));
+    }
+
+    /**
+     * 参与记录落库成功后确认 {@link #reserve} 的结果。
+     */
+    default Mono<Void> confirm(LotteryActivity activity, Collection<PrizeReservation> reservations) {
+        return Mono.empty();
+    }
+
+    /**
+     * 开奖时从候选参与者中为剩余名额抽取中奖者，只返回本次随机抽出的中奖者。
+     */
+    Mono<List<Winner>> drawWinners(DrawRequest request);
+
+    /**
+     * 相同的候选集合、名额与种子是否总是得到相同结果。可重放的策略会把种子记录到活动状态中。
+     */
+    default boolean isReproducible() {
+        return false;
+    }
+
+    /**
+     * @param candidates 活动的全部参与者（可能包含已中奖者，需按 {@code excludedTokens} 排除）
+     * @param remaining 各奖品剩余名额（已扣除已开出与指定的名额），按活动奖品顺序依次抽取
+     * @param excludedTokens 已中奖或已被指定中奖的参与者 token
+     * @param seed 本次开奖的随机种子，仅可重放的策略使用
+     * @param exclusion 中奖互斥约束，已预先占用本次之前中奖者的键，策略选取时需逐个 claim
+     */
+    record DrawRequest(LotteryActivity activity,
+                       Flux<LotteryParticipant> candidates,
+                       Map<String, Integer> remaining,
+                       Set<String> excludedTokens,
+                       long seed,
+                       WinnerExclusion exclusion) {
+    }
+}
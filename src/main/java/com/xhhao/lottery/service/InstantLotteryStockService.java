@@ -3,13 +3,35 @@ package com.xhhao.lottery.service;
 import com.xhhao.lottery.entity.LotteryActivity;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface InstantLotteryStockService {
 
     Mono<Boolean> isAvailable();
 
-    Mono<Optional<LotteryActivity.Prize>> reservePrize(LotteryActivity activity);
+    Mono<Optional<PrizeReservation>> reservePrize(LotteryActivity activity);
 
-    Mono<Void> releasePrize(LotteryActivity activity, String prizeName);
+    /**
+     * 在一次 Redis 脚本调用中连续抽取 {@code count} 次，返回结果与抽取顺序一致，未中奖为空。
+     */
+    Mono<List<Optional<PrizeReservation>>> reservePrizes(LotteryActivity activity, int count);
+
+    /**
+     * 参与记录落库成功后确认租约，确认后的库存不会再被回收。已被回收的租约在库存仍足够时重新扣减，
+     * 否则整批不确认并返回错误，调用方需撤销已写入的参与记录。
+     */
+    Mono<Void> confirmReservations(LotteryActivity activity, Collection<PrizeReservation> reservations);
+
+    /**
+     * 回收已过期且未确认的租约，返回归还的库存数量。已写入参与记录的租约视为已确认，不归还库存。
+     */
+    Mono<Long> releaseExpiredReservations();
+
+    /**
+     * 奖品预占租约，需在截止时间前确认，否则由后台回收归还库存。
+     */
+    record PrizeReservation(LotteryActivity.Prize prize, String leaseId) {
+    }
 }
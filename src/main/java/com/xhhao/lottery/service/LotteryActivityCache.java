@@ -0,0 +1,18 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import reactor.core.publisher.Mono;
+
+/**
+ * 活动的本地读缓存，供公开读取与参与等高频路径使用。活动被修改或删除时由监听清除，
+ * 并通过 {@link LotteryEventBus} 通知其他节点清除。需要在读取后更新活动的路径应直接读取存储。
+ */
+public interface LotteryActivityCache {
+
+    /**
+     * 读取活动，未命中时从存储加载。返回的是副本，调用方可以修改。
+     */
+    Mono<LotteryActivity> get(String activityName);
+
+    void invalidate(String activityName);
+}
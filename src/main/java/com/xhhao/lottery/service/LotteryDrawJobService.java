@@ -0,0 +1,27 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryDrawJob;
+import reactor.core.publisher.Mono;
+
+/**
+ * 后台开奖任务。任务由 {@link LotteryDrawJob} 记录进度，按阶段执行，中断后从最后完成的阶段继续。
+ */
+public interface LotteryDrawJobService {
+
+    /**
+     * 为活动提交开奖任务，活动已有未结束的任务时返回该任务。
+     */
+    Mono<LotteryDrawJob> submit(String activityName);
+
+    /**
+     * 为已落库的开奖结果提交只执行通知阶段的任务，用于不经过开奖任务的定时开奖。
+     */
+    Mono<LotteryDrawJob> submitNotification(String activityName, LotteryService.DrawResult result);
+
+    Mono<LotteryDrawJob> getJob(String jobName);
+
+    /**
+     * 活动最近一次提交的开奖任务。
+     */
+    Mono<LotteryDrawJob> getLatestJob(String activityName);
+}
@@ -0,0 +1,28 @@
+package com.xhhao.lottery.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+/**
+ * 节点间的活动事件广播。Redis 可用时通过发布订阅同步到其他节点，否则仅在本节点内分发。
+ */
+public interface LotteryEventBus {
+
+    /**
+     * 先分发给本节点订阅者，再广播到其他节点。
+     */
+    Mono<Void> publish(LotteryEvent event);
+
+    void subscribe(Consumer<LotteryEvent> listener);
+
+    enum EventType {
+        ACTIVITY_FULL,          // 参与人数已满
+        ACTIVITY_SOLD_OUT,      // 即时开奖奖品已抽完
+        ACTIVITY_REOPENED,      // 活动配置变更或名额/库存回补
+        ACTIVITY_CHANGED        // 活动被修改或删除，各节点清除缓存
+    }
+
+    record LotteryEvent(EventType type, String activityName) {
+    }
+}
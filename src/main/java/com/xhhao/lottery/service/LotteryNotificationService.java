@@ -11,4 +11,9 @@ public interface LotteryNotificationService {
     Mono<Void> sendWinningNotification(LotteryParticipant participant, LotteryActivity activity, String prizeName);
 
     Mono<Void> sendInstantNoPrizeNotification(LotteryParticipant participant, LotteryActivity activity);
+
+    /**
+     * 定时开奖全部轮次结束后通知未中奖的参与者。
+     */
+    Mono<Void> sendDrawNoPrizeNotification(LotteryParticipant participant, LotteryActivity activity);
 }
@@ -1,22 +1,63 @@
 package com.xhhao.lottery.service;
 
 import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryDrawRound;
 import com.xhhao.lottery.entity.LotteryParticipant;
 import com.xhhao.lottery.query.LotteryActivityQuery;
 import reactor.core.publisher.Mono;
 import run.halo.app.extension.ListResult;
 
+import java.util.List;
+
 public interface LotteryService {
 
     Mono<LotteryActivity> getActivity(String activityName);
 
+    /**
+     * 活动详情的修订标识，由 resourceVersion、当前状态、参与人数与奖品抽完标记组成，
+     * 详情内容变化时标识随之变化。只读取缓存的活动和一次计数，不计算奖品剩余数量。
+     */
+    Mono<String> getActivityRevision(String activityName);
+
     Mono<ListResult<LotteryActivity>> listActivities(LotteryActivityQuery query);
 
-    Mono<LotteryActivity> draw(String activityName);
+    /**
+     * 到期自动开奖：活动已到开奖时间且未开奖时执行开奖。其他节点正在开奖或未到期时返回当前活动。
+     */
+    Mono<LotteryActivity> autoDraw(String activityName);
+
+    /**
+     * 开奖加载阶段：校验活动可开奖并补齐指定中奖人的参与记录，返回参与人数。
+     */
+    Mono<Integer> prepareDraw(String activityName);
+
+    /**
+     * 开奖抽样阶段：计算本次的中奖名单，不修改活动。
+     */
+    Mono<DrawResult> sampleWinners(String activityName);
+
+    /**
+     * 取得开奖锁后把防护令牌记录到活动状态，之后令牌更小的持有者无法再写入开奖结果。
+     * 活动已记录更大的令牌时返回错误。
+     */
+    Mono<Void> claimDrawFence(String activityName, long fencingToken);
+
+    /**
+     * 开奖落库阶段：追加中奖名单并记录本轮，该轮已由同一令牌落库时直接返回；
+     * 活动已记录 {@code fencingToken} 而该轮由更小的令牌落库时，视为任务续跑前的写入，同样直接返回。
+     * 活动记录的令牌与 {@code fencingToken} 不一致时拒绝写入，并撤销本令牌已写入的记录。
+     */
+    Mono<LotteryActivity> persistWinners(String activityName, DrawResult result, long fencingToken);
 
     Mono<LotteryParticipant> participateAnonymous(String activityName, String email, 
                                                    String displayName, String ipAddress);
 
+    /**
+     * 匿名连抽：一次请求内完成 {@code count} 次即时抽奖，结果按抽取顺序返回。
+     */
+    Mono<List<LotteryParticipant>> participateAnonymous(String activityName, String email,
+                                                        String displayName, String ipAddress, int count);
+
     Mono<LotteryParticipant> participateWithLogin(String activityName, String ipAddress);
 
     Mono<LotteryParticipant> participateWithComment(String activityName, String postName, String ipAddress);
@@ -35,6 +76,13 @@ public interface LotteryService {
 
     Mono<CommentCheckResult> checkComment(String postName, String email);
 
+    /**
+     * 一次开奖抽出的中奖者（含指定中奖）、可重放时使用的种子与策略名称，以及本轮的游标。
+     */
+    record DrawResult(List<LotteryActivity.Winner> winners, Long seed, String strategy,
+                      LotteryDrawRound.DrawRoundSpec round) {
+    }
+
     @lombok.Data
     class CommentCheckResult {
         private Boolean hasCommented;
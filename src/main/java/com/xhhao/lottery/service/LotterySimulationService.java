@@ -0,0 +1,53 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import lombok.Data;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 即时开奖的离线模拟：按与 Redis 扣库存脚本相同的规则（概率、库存、每小时放量）重复模拟大量抽奖，
+ * 统计中奖率与奖品抽完的时间分布，不访问 Redis，也不写入任何数据。
+ */
+public interface LotterySimulationService {
+
+    /**
+     * 以活动当前配置模拟，{@link SimulationOptions} 中非空的字段覆盖活动配置。
+     */
+    Mono<SimulationResult> simulate(String activityName, SimulationOptions options);
+
+    @Data
+    class SimulationOptions {
+        /** 每轮抽奖次数，默认取活动的最大参与人数，未设置时为 1000000 */
+        private Integer spins;
+        /** 模拟轮数，默认 100 */
+        private Integer runs;
+        /** 随机种子，相同种子与配置的结果可复现，默认随机 */
+        private Long seed;
+        /** 抽奖均匀分布的时长（秒），默认取活动开始到结束的时长，未设置时为一天 */
+        private Long durationSeconds;
+        /** 待验证的奖品配置，默认使用活动已保存的奖品 */
+        private List<Prize> prizes;
+    }
+
+    /**
+     * @param winRate 每轮中奖次数占抽奖次数的比例
+     * @param soldOutSeconds 抽完所有奖品的时间（秒），只统计抽完的轮次，没有轮次抽完时为 null
+     */
+    record SimulationResult(String activityName, int spins, int runs, long seed, long durationSeconds,
+                            long elapsedMillis, Distribution winRate, int soldOutRuns,
+                            Distribution soldOutSeconds, List<PrizeOutcome> prizes) {
+    }
+
+    /**
+     * @param meanAwarded 每轮平均发出的数量
+     * @param soldOutSeconds 该奖品抽完的时间（秒），没有轮次抽完时为 null
+     */
+    record PrizeOutcome(String name, int quantity, int probability, double meanAwarded,
+                        int soldOutRuns, Distribution soldOutSeconds) {
+    }
+
+    record Distribution(double mean, double min, double p5, double p50, double p95, double max) {
+    }
+}
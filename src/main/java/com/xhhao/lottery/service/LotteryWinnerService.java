@@ -0,0 +1,49 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryWinner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListResult;
+
+import java.util.List;
+
+/**
+ * 定时开奖的中奖名单。每位中奖者保存为一条 {@link LotteryWinner}，活动状态只保留汇总数量。
+ */
+public interface LotteryWinnerService {
+
+    int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 保存中奖记录。记录名由活动与参与 token 确定，重复保存同一中奖者不会产生新记录；
+     * 已存在的记录若由令牌更小的持有者写入，改记为 {@code drawFence}。记录并发写入，
+     * 各记录保存其在 {@code winners} 中的位置，读取时按轮次与位置还原开奖顺序。
+     */
+    Mono<Void> saveWinners(String activityName, List<Winner> winners, Integer round, Long drawFence);
+
+    /**
+     * 删除由 {@code drawFence} 写入的中奖记录，用于开奖结果被更新的锁持有者拒绝后撤销。
+     */
+    Mono<Void> revokeWinners(String activityName, List<Winner> winners, long drawFence);
+
+    /**
+     * 按中奖顺序分页查询。页码小于 1 时按 1 计，每页数量限制在 1 到 {@value #MAX_PAGE_SIZE} 之间。
+     */
+    Mono<ListResult<Winner>> listWinners(String activityName, int page, int size);
+
+    Flux<Winner> streamWinners(String activityName);
+
+    /**
+     * 按中奖顺序读取某一轮开出的中奖者。
+     */
+    Flux<Winner> streamWinners(String activityName, int round);
+
+    Mono<Winner> findWinner(String activityName, String token);
+
+    /**
+     * 把旧版本写在活动状态中的中奖名单迁移为中奖记录，需在模型注册后执行，失败时按退避重试。
+     * 迁移完成前，没有中奖记录的活动读取旧名单。
+     */
+    Mono<Void> migrateLegacyWinners();
+}
@@ -2,6 +2,7 @@ package com.xhhao.lottery.service;
 
 import lombok.Data;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import reactor.core.publisher.Mono;
 
 import java.util.Optional;
@@ -16,6 +17,11 @@ public interface RedisConfigService {
 
     Mono<StatefulRedisConnection<String, String>> getRedisConnection();
 
+    /**
+     * 与 {@link #getRedisConnection()} 共用同一份已验证配置的发布订阅连接，配置变更后会重新创建。
+     */
+    Mono<StatefulRedisPubSubConnection<String, String>> getPubSubConnection();
+
     @Data
     class PluginRedisConfig {
         private String host;
@@ -15,6 +15,9 @@ public interface SettingConfigGetter {
         
         private Boolean enableParticipateNotification = false;
         private Boolean enableWinningNotification = true;
+        private Boolean notifyNonWinners = false;
+        private Integer drawNotificationConcurrency = 4;
+        private Integer drawNotificationRatePerSecond = 20;
     }
     
     @Data
@@ -0,0 +1,139 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 开奖时的中奖互斥约束：同一 IP、邮箱、邮箱域名或用户名只能中一个奖（按活动配置）。
+ * <p>
+ * 每个维度维护一个已占用键的哈希集合，键为归一化取值的 64 位哈希。策略在按随机顺序选取候选人时
+ * 调用 {@link #claim}，冲突者直接跳过，不需要事后过滤重抽。未配置约束时所有方法都是空操作。
+ */
+public final class WinnerExclusion {
+
+    private static final WinnerExclusion NONE = new WinnerExclusion(List.of());
+
+    private final List<WinnerExclusivity> dimensions;
+    private final List<Set<Long>> claimed;
+
+    private WinnerExclusion(List<WinnerExclusivity> dimensions) {
+        this.dimensions = dimensions;
+        this.claimed = dimensions.stream().<Set<Long>>map(dimension -> new HashSet<>()).toList();
+    }
+
+    public static WinnerExclusion none() {
+        return NONE;
+    }
+
+    public static WinnerExclusion of(LotteryActivity activity) {
+        var dimensions = Optional.ofNullable(activity.getSpec().getWinnerExclusivity())
+            .orElse(List.of())
+            .stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+        return dimensions.isEmpty() ? NONE : new WinnerExclusion(dimensions);
+    }
+
+    public boolean isActive() {
+        return !dimensions.isEmpty();
+    }
+
+    public int dimensionCount() {
+        return dimensions.size();
+    }
+
+    /**
+     * 将参与者各维度的键写入 {@code target[offset ..]}，取值为空的维度写 0，不参与互斥。
+     */
+    public void keysOf(LotteryParticipantSpec spec, long[] target, int offset) {
+        for (int i = 0; i < dimensions.size(); i++) {
+            target[offset + i] = hash(normalize(dimensions.get(i), spec));
+        }
+    }
+
+    /**
+     * 所有维度均未被占用时占用并返回 true，否则不做修改并返回 false。
+     */
+    public boolean claim(long[] keys, int offset) {
+        for (int i = 0; i < dimensions.size(); i++) {
+            long key = keys[offset + i];
+            if (key != 0 && claimed.get(i).contains(key)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < dimensions.size(); i++) {
+            long key = keys[offset + i];
+            if (key != 0) {
+                claimed.get(i).add(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 预先占用已中奖者（指定中奖、前几轮中奖）的键。
+     */
+    public void occupy(LotteryParticipantSpec spec) {
+        if (!isActive()) {
+            return;
+        }
+        var keys = new long[dimensions.size()];
+        keysOf(spec, keys, 0);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                claimed.get(i).add(keys[i]);
+            }
+        }
+    }
+
+    private static String normalize(WinnerExclusivity dimension, LotteryParticipantSpec spec) {
+        return switch (dimension) {
+            case IP_ADDRESS -> lower(spec.getIpAddress());
+            case USERNAME -> lower(spec.getUsername());
+            case EMAIL -> normalizeEmail(spec.getEmail());
+            case EMAIL_DOMAIN -> {
+                var email = lower(spec.getEmail());
+                yield email == null ? null : StringUtils.trimToNull(StringUtils.substringAfterLast(email, "@"));
+            }
+        };
+    }
+
+    /**
+     * 小写并去掉本地部分的 {@code +标签}，例如 {@code A.B+x@Mail.com} 归一为 {@code a.b@mail.com}。
+     */
+    private static String normalizeEmail(String email) {
+        var value = lower(email);
+        if (value == null || !value.contains("@")) {
+            return value;
+        }
+        var local = StringUtils.substringBeforeLast(value, "@");
+        var domain = StringUtils.substringAfterLast(value, "@");
+        return StringUtils.substringBefore(local, "+") + "@" + domain;
+    }
+
+    private static String lower(String value) {
+        var trimmed = StringUtils.trimToNull(value);
+        return trimmed == null ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private static long hash(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,190 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.ActivityClosedFlagService;
+import com.xhhao.lottery.service.LotteryEventBus;
+import com.xhhao.lottery.service.LotteryEventBus.EventType;
+import com.xhhao.lottery.service.LotteryEventBus.LotteryEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import run.halo.app.extension.Extension;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.Watcher;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class ActivityClosedFlagServiceImpl implements ActivityClosedFlagService, SmartLifecycle {
+
+    /** 标记有效期，过期后由下一次 Redis 脚本调用重新确认是否仍然耗尽 */
+    private static final long FLAG_TTL_NANOS = Duration.ofSeconds(30).toNanos();
+
+    private final LotteryEventBus eventBus;
+    private final ReactiveExtensionClient client;
+
+    private final Map<String, ClosedFlags> flags = new ConcurrentHashMap<>();
+    private volatile ActivityChangeWatcher watcher;
+
+    @Override
+    public boolean isFull(String activityName) {
+        var current = current(activityName);
+        return current != null && current.full(System.nanoTime());
+    }
+
+    @Override
+    public boolean isSoldOut(String activityName) {
+        var current = current(activityName);
+        return current != null && current.soldOut(System.nanoTime());
+    }
+
+    @Override
+    public void markFull(String activityName) {
+        if (!isFull(activityName)) {
+            eventBus.publish(new LotteryEvent(EventType.ACTIVITY_FULL, activityName)).subscribe();
+        }
+    }
+
+    @Override
+    public void markSoldOut(String activityName) {
+        if (!isSoldOut(activityName)) {
+            eventBus.publish(new LotteryEvent(EventType.ACTIVITY_SOLD_OUT, activityName)).subscribe();
+        }
+    }
+
+    @Override
+    public void reopen(String activityName) {
+        if (flags.containsKey(activityName)) {
+            broadcastReopen(activityName);
+        }
+    }
+
+    @Override
+    public void start() {
+        eventBus.subscribe(this::onEvent);
+        watcher = new ActivityChangeWatcher();
+        client.watch(watcher);
+    }
+
+    @Override
+    public void stop() {
+        var current = watcher;
+        if (current != null) {
+            current.dispose();
+            watcher = null;
+        }
+        flags.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watcher != null;
+    }
+
+    /**
+     * 两个标记都过期时顺带移除，避免已结束的活动一直占用条目。
+     */
+    private ClosedFlags current(String activityName) {
+        var current = flags.get(activityName);
+        if (current != null && current.expired(System.nanoTime())) {
+            flags.remove(activityName, current);
+            return null;
+        }
+        return current;
+    }
+
+    private void broadcastReopen(String activityName) {
+        eventBus.publish(new LotteryEvent(EventType.ACTIVITY_REOPENED, activityName)).subscribe();
+    }
+
+    private void onEvent(LotteryEvent event) {
+        var activityName = event.activityName();
+        switch (event.type()) {
+            case ACTIVITY_FULL -> flags.merge(activityName,
+                new ClosedFlags(System.nanoTime() + FLAG_TTL_NANOS, null), ClosedFlags::merge);
+            case ACTIVITY_SOLD_OUT -> flags.merge(activityName,
+                new ClosedFlags(null, System.nanoTime() + FLAG_TTL_NANOS), ClosedFlags::merge);
+            case ACTIVITY_REOPENED -> flags.remove(activityName);
+            case ACTIVITY_CHANGED -> {
+            }
+        }
+    }
+
+    /**
+     * 各标记的截止时间（{@link System#nanoTime()}），为空表示未标记。
+     */
+    private record ClosedFlags(Long fullUntil, Long soldOutUntil) {
+
+        boolean full(long now) {
+            return fullUntil != null && fullUntil - now > 0;
+        }
+
+        boolean soldOut(long now) {
+            return soldOutUntil != null && soldOutUntil - now > 0;
+        }
+
+        boolean expired(long now) {
+            return !full(now) && !soldOut(now);
+        }
+
+        ClosedFlags merge(ClosedFlags other) {
+            return new ClosedFlags(later(fullUntil, other.fullUntil), later(soldOutUntil, other.soldOutUntil));
+        }
+
+        private static Long later(Long a, Long b) {
+            if (a == null || b == null) {
+                return a == null ? b : a;
+            }
+            return b - a > 0 ? b : a;
+        }
+    }
+
+    /**
+     * 活动配置变更或删除、参与记录被删除时清除标记；Halo 的监听只在本节点触发，因此通过事件广播到其他节点。
+     */
+    private class ActivityChangeWatcher implements Watcher {
+
+        private volatile boolean disposed;
+
+        @Override
+        public void onUpdate(Extension oldExtension, Extension newExtension) {
+            if (disposed) {
+                return;
+            }
+            if (oldExtension instanceof LotteryActivity oldActivity
+                && newExtension instanceof LotteryActivity newActivity
+                && !Objects.equals(oldActivity.getSpec(), newActivity.getSpec())) {
+                broadcastReopen(newActivity.getMetadata().getName());
+            }
+        }
+
+        @Override
+        public void onDelete(Extension extension) {
+            if (disposed) {
+                return;
+            }
+            if (extension instanceof LotteryActivity activity) {
+                broadcastReopen(activity.getMetadata().getName());
+            } else if (extension instanceof LotteryParticipant participant
+                && participant.getSpec() != null
+                && participant.getSpec().getActivityName() != null) {
+                reopen(participant.getSpec().getActivityName());
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
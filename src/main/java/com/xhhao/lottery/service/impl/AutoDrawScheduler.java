@@ -0,0 +1,201 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.service.LotteryService;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import static run.halo.app.extension.index.query.Queries.lessThan;
+
+/**
+ * 按时间触发定时开奖，读取活动时不再顺带开奖。
+ * <p>
+ * 定期通过 {@code spec.effectiveDrawTime} 索引取出即将到期（含已过期）且未开奖的活动，放入延迟队列，
+ * 由单独的线程在到期时刻取出并在后台开奖。每个节点都会触发，跨节点由开奖锁保证只有一个节点执行，
+ * 未抢到锁的节点直接跳过。开奖失败（如无人参与）时延后重试，活动修改了开奖时间则按新时间重新排队。
+ * <p>
+ * 与开奖任务一样，{@link IllegalStateException} 与 {@link IllegalArgumentException} 视为重试也无法恢复的错误，
+ * 连续失败 {@value #MAX_ATTEMPTS} 次后放弃本次开奖时间，并把错误记录到活动状态；修改开奖时间后重新排队。
+ */
+@Slf4j
+@Component
+public class AutoDrawScheduler implements SmartLifecycle {
+
+    private static final Duration SCAN_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration SCAN_HORIZON = Duration.ofMinutes(2);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(5);
+    static final int MAX_ATTEMPTS = 3;
+
+    private final ReactiveExtensionClient client;
+    private final LotteryService lotteryService;
+    private final Duration retryDelay;
+
+    private final DelayQueue<DueDraw> queue = new DelayQueue<>();
+    /** 活动名到已排队的开奖时间，用于去重与识别过期的队列项 */
+    private final Map<String, Instant> scheduled = new ConcurrentHashMap<>();
+
+    private volatile Disposable scanSubscription;
+    private volatile Thread dispatcher;
+
+    @Autowired
+    public AutoDrawScheduler(ReactiveExtensionClient client, LotteryService lotteryService) {
+        this(client, lotteryService, RETRY_DELAY);
+    }
+
+    /**
+     * 只在测试中缩短重试间隔。
+     */
+    AutoDrawScheduler(ReactiveExtensionClient client, LotteryService lotteryService, Duration retryDelay) {
+        this.client = client;
+        this.lotteryService = lotteryService;
+        this.retryDelay = retryDelay;
+    }
+
+    @Override
+    public void start() {
+        dispatcher = Thread.ofVirtual().name("lottery-auto-draw").start(this::dispatch);
+        scanSubscription = Flux.interval(Duration.ZERO, SCAN_INTERVAL)
+            .onBackpressureDrop()
+            .concatMap(tick -> scan()
+                .onErrorResume(throwable -> {
+                    log.warn("Failed to scan due lottery draws", throwable);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        var subscription = scanSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+            scanSubscription = null;
+        }
+        var thread = dispatcher;
+        if (thread != null) {
+            thread.interrupt();
+            dispatcher = null;
+        }
+        queue.clear();
+        scheduled.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scanSubscription != null && !scanSubscription.isDisposed();
+    }
+
+    private Mono<Void> scan() {
+        var horizon = Instant.now().plus(SCAN_HORIZON);
+        return client.listAll(LotteryActivity.class,
+                ListOptions.builder()
+                    .fieldQuery(lessThan("spec.effectiveDrawTime", horizon))
+                    .build(),
+                null)
+            .doOnNext(this::schedule)
+            .then();
+    }
+
+    private void schedule(LotteryActivity activity) {
+        var spec = activity.getSpec();
+        var dueAt = spec.getDrawTime() != null ? spec.getDrawTime() : spec.getEndTime();
+        if (dueAt == null) {
+            return;
+        }
+        var name = activity.getMetadata().getName();
+        if (dueAt.equals(scheduled.put(name, dueAt))) {
+            return;
+        }
+        queue.offer(new DueDraw(name, dueAt, dueAt, 0));
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            DueDraw due;
+            try {
+                due = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!due.dueAt().equals(scheduled.get(due.activityName()))) {
+                continue;
+            }
+            lotteryService.autoDraw(due.activityName())
+                .subscribe(
+                    activity -> scheduled.remove(due.activityName(), due.dueAt()),
+                    throwable -> retryOrGiveUp(due, throwable),
+                    () -> scheduled.remove(due.activityName(), due.dueAt())
+                );
+        }
+    }
+
+    /**
+     * 放弃时保留 {@code scheduled} 中的开奖时间，后续扫描不会再次排队同一开奖时间。
+     */
+    private void retryOrGiveUp(DueDraw due, Throwable throwable) {
+        var permanent = throwable instanceof IllegalStateException || throwable instanceof IllegalArgumentException;
+        int attempts = due.attempts() + 1;
+        if (permanent && attempts >= MAX_ATTEMPTS) {
+            log.warn("Auto draw of lottery activity {} failed {} times, giving up until the draw time changes",
+                due.activityName(), attempts, throwable);
+            recordError(due.activityName(), throwable)
+                .subscribe(null, error -> log.warn("Failed to record auto draw error of lottery activity {}",
+                    due.activityName(), error));
+            return;
+        }
+        log.warn("Auto draw of lottery activity {} failed, retrying in {}", due.activityName(), retryDelay, throwable);
+        queue.offer(new DueDraw(due.activityName(), due.dueAt(), Instant.now().plus(retryDelay), attempts));
+    }
+
+    private Mono<Void> recordError(String activityName, Throwable throwable) {
+        var error = StringUtils.defaultIfBlank(throwable.getMessage(), throwable.getClass().getSimpleName());
+        return Mono.defer(() -> client.fetch(LotteryActivity.class, activityName))
+            .flatMap(activity -> {
+                if (activity.getStatus() == null) {
+                    activity.setStatus(new LotteryActivity.LotteryActivityStatus());
+                }
+                activity.getStatus().setDrawError(error);
+                return client.update(activity);
+            })
+            .retryWhen(Retry.backoff(3, Duration.ofMillis(100))
+                .filter(OptimisticLockingFailureException.class::isInstance))
+            .then();
+    }
+
+    /**
+     * @param dueAt 活动的开奖时间，用于识别队列中已失效的项
+     * @param fireAt 实际触发时间，重试时晚于 {@code dueAt}
+     * @param attempts 该开奖时间已失败的次数
+     */
+    private record DueDraw(String activityName, Instant dueAt, Instant fireAt, int attempts) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), fireAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return fireAt.compareTo(((DueDraw) other).fireAt);
+        }
+    }
+}
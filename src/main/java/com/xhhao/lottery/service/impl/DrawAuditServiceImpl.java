@@ -0,0 +1,538 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivitySpec;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import com.xhhao.lottery.service.DrawAuditService;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.WinnerExclusion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.extension.Metadata;
+import run.halo.app.plugin.PluginContext;
+import run.halo.app.plugin.PluginsRootGetter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 开奖快照写在插件工作目录的 {@code draw-audit/<活动>/round-<轮次>.snap} 中，格式（大端）：
+ * <pre>
+ * int magic, short version
+ * string activityName, int round, string strategy, boolean hasSeed, long seed, long createdAt
+ * byte 互斥维度数, byte[] 维度序号
+ * int 奖品数, {string name, int remaining}
+ * int 预先占用数, {fields}
+ * int 中奖数, {string token, string prizeName}
+ * int 候选人数, {token, int weight, fields}   按 token 升序
+ * long CRC32C（覆盖之前的全部字节）
+ * </pre>
+ * fields 只包含互斥约束用到的 IP、邮箱、用户名，保存匿名化后的取值。候选人放在最后，校验时通过内存映射顺序读取，
+ * 数百万条也不需要整体载入堆内。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DrawAuditServiceImpl implements DrawAuditService {
+
+    private static final int MAGIC = 0x4C545259;
+    /** 版本 2 起互斥字段保存为匿名化取值，格式与版本 1 相同 */
+    private static final short VERSION = 2;
+    private static final int TRAILER_BYTES = Long.BYTES;
+    private static final int FIELD_IP = 1;
+    private static final int FIELD_EMAIL = 2;
+    private static final int FIELD_USERNAME = 4;
+    private static final SecureRandom SALT_SOURCE = new SecureRandom();
+
+    private final PluginsRootGetter pluginsRootGetter;
+    private final PluginContext pluginContext;
+    private final DrawStrategyResolver drawStrategyResolver;
+    private final LotteryComputeScheduler computeScheduler;
+
+    @Override
+    public DrawRecording begin(DrawStrategy strategy, DrawStrategy.DrawRequest request, int round,
+                               List<LotteryParticipantSpec> awarded) {
+        if (!strategy.isReproducible()) {
+            return new Unrecorded(request);
+        }
+        return new Recording(request, round, awarded);
+    }
+
+    @Override
+    public Mono<Void> deleteSnapshots(String activityName) {
+        return Mono.fromCallable(() -> {
+                var directory = snapshotPath(activityName, 0).getParent();
+                if (Files.isDirectory(directory)) {
+                    try (var files = Files.list(directory)) {
+                        for (var file : files.toList()) {
+                            Files.deleteIfExists(file);
+                        }
+                    }
+                    Files.deleteIfExists(directory);
+                }
+                return true;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    @Override
+    public Mono<DrawVerification> verify(String activityName, int round) {
+        return Mono.fromCallable(() -> map(snapshotPath(activityName, round)))
+            .subscribeOn(Schedulers.boundedElastic())
+            .onErrorMap(NoSuchFileException.class, e -> new IllegalArgumentException("该轮开奖没有审计快照"))
+            .flatMap(buffer -> verify(activityName, round, buffer));
+    }
+
+    private Mono<DrawVerification> verify(String activityName, int round, MappedByteBuffer buffer) {
+        int bodyLength = buffer.limit() - TRAILER_BYTES;
+        var crc = new CRC32C();
+        crc.update(buffer.slice(0, bodyLength));
+        if (crc.getValue() != buffer.getLong(bodyLength)) {
+            return Mono.just(new DrawVerification(activityName, round, null, null, 0, 0, false, false, null));
+        }
+
+        var snapshot = readHeader(buffer.slice(0, bodyLength));
+
+        var pendingWinners = new HashSet<String>();
+        snapshot.winners().forEach(winner -> pendingWinners.add(winner.getSourceToken()));
+        var candidates = Flux.<LotteryParticipant, Integer>generate(() -> 0, (index, sink) -> {
+                if (index == snapshot.candidateCount()) {
+                    sink.complete();
+                    return index;
+                }
+                var participant = readCandidate(snapshot.body(), snapshot.fields());
+                pendingWinners.remove(participant.getSpec().getToken());
+                sink.next(participant);
+                return index + 1;
+            })
+            .subscribeOn(computeScheduler.get());
+
+        var activity = snapshot.toActivity();
+        var strategy = drawStrategyResolver.resolve(activity);
+        if (snapshot.seed() == null || !strategy.isReproducible()) {
+            return candidates.then(Mono.fromSupplier(() ->
+                snapshot.toVerification(pendingWinners.isEmpty(), null)));
+        }
+
+        var exclusion = WinnerExclusion.of(activity);
+        snapshot.awarded().forEach(exclusion::occupy);
+        return strategy.drawWinners(new DrawStrategy.DrawRequest(
+                activity, candidates, snapshot.remaining(), Set.of(), snapshot.seed(), exclusion))
+            .map(replayed -> snapshot.toVerification(pendingWinners.isEmpty(),
+                sameWinners(replayed, snapshot.winners())));
+    }
+
+    private static boolean sameWinners(List<Winner> replayed, List<Winner> recorded) {
+        if (replayed.size() != recorded.size()) {
+            return false;
+        }
+        for (int i = 0; i < replayed.size(); i++) {
+            if (!Objects.equals(replayed.get(i).getSourceToken(), recorded.get(i).getSourceToken())
+                || !Objects.equals(replayed.get(i).getPrizeName(), recorded.get(i).getPrizeName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path snapshotPath(String activityName, int round) {
+        if (activityName.contains("/") || activityName.contains("..")) {
+            throw new IllegalArgumentException("活动名称不合法");
+        }
+        return pluginsRootGetter.get().toAbsolutePath().getParent()
+            .resolve("plugins-data")
+            .resolve(pluginContext.getName())
+            .resolve("draw-audit")
+            .resolve(activityName)
+            .resolve("round-" + round + ".snap");
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("快照文件过大");
+            }
+            if (size < TRAILER_BYTES + Integer.BYTES + Short.BYTES) {
+                throw new IllegalStateException("快照文件已损坏");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static Snapshot readHeader(ByteBuffer body) {
+        if (body.getInt() != MAGIC || body.getShort() > VERSION) {
+            throw new IllegalStateException("不支持的快照格式");
+        }
+        var activityName = readString(body);
+        int round = body.getInt();
+        var strategy = readString(body);
+        boolean hasSeed = body.get() != 0;
+        long seed = body.getLong();
+        body.getLong();
+
+        var dimensions = new ArrayList<WinnerExclusivity>();
+        int dimensionCount = body.get();
+        for (int i = 0; i < dimensionCount; i++) {
+            dimensions.add(WinnerExclusivity.values()[body.get()]);
+        }
+        int fields = fieldsOf(dimensions);
+
+        var remaining = new LinkedHashMap<String, Integer>();
+        int prizeCount = body.getInt();
+        for (int i = 0; i < prizeCount; i++) {
+            remaining.put(readString(body), body.getInt());
+        }
+
+        var awarded = new ArrayList<LotteryParticipantSpec>();
+        int awardedCount = body.getInt();
+        for (int i = 0; i < awardedCount; i++) {
+            var spec = new LotteryParticipantSpec();
+            readFields(body, fields, spec);
+            awarded.add(spec);
+        }
+
+        var winners = new ArrayList<Winner>();
+        int winnerCount = body.getInt();
+        for (int i = 0; i < winnerCount; i++) {
+            var winner = new Winner();
+            winner.setSourceToken(readString(body));
+            winner.setPrizeName(readString(body));
+            winners.add(winner);
+        }
+
+        int candidateCount = body.getInt();
+        return new Snapshot(activityName, round, strategy, hasSeed ? seed : null, dimensions, fields,
+            remaining, awarded, winners, candidateCount, body);
+    }
+
+    private static LotteryParticipant readCandidate(ByteBuffer body, int fields) {
+        var spec = new LotteryParticipantSpec();
+        spec.setToken(ParticipantColumns.readToken(body));
+        spec.setWeight(body.getInt());
+        readFields(body, fields, spec);
+        var participant = new LotteryParticipant();
+        participant.setSpec(spec);
+        return participant;
+    }
+
+    private static int fieldsOf(List<WinnerExclusivity> dimensions) {
+        int fields = 0;
+        for (var dimension : dimensions) {
+            fields |= switch (dimension) {
+                case IP_ADDRESS -> FIELD_IP;
+                case EMAIL, EMAIL_DOMAIN -> FIELD_EMAIL;
+                case USERNAME -> FIELD_USERNAME;
+            };
+        }
+        return fields;
+    }
+
+    private static void readFields(ByteBuffer in, int fields, LotteryParticipantSpec spec) {
+        if ((fields & FIELD_IP) != 0) {
+            spec.setIpAddress(readString(in));
+        }
+        if ((fields & FIELD_EMAIL) != 0) {
+            spec.setEmail(readString(in));
+        }
+        if ((fields & FIELD_USERNAME) != 0) {
+            spec.setUsername(readString(in));
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Snapshot(String activityName, int round, String strategy, Long seed,
+                            List<WinnerExclusivity> dimensions, int fields,
+                            Map<String, Integer> remaining, List<LotteryParticipantSpec> awarded,
+                            List<Winner> winners, int candidateCount, ByteBuffer body) {
+
+        /**
+         * 重放用的活动，只包含策略需要的奖品顺序、策略名与互斥配置。
+         */
+        LotteryActivity toActivity() {
+            var spec = new LotteryActivitySpec();
+            spec.setLotteryType(LotteryType.SCHEDULED);
+            spec.setDrawStrategy(strategy);
+            spec.setWinnerExclusivity(dimensions);
+            spec.setPrizes(remaining.keySet().stream().map(name -> {
+                var prize = new Prize();
+                prize.setName(name);
+                return prize;
+            }).toList());
+            var activity = new LotteryActivity();
+            activity.setMetadata(new Metadata());
+            activity.getMetadata().setName(activityName);
+            activity.setSpec(spec);
+            return activity;
+        }
+
+        DrawVerification toVerification(boolean winnersInCandidates, Boolean replayMatched) {
+            return new DrawVerification(activityName, round, strategy, seed, candidateCount, winners.size(),
+                true, winnersInCandidates, replayMatched);
+        }
+    }
+
+    /**
+     * 互斥字段的匿名化：取值归一化后与本次快照的随机盐一起做 SHA-256，盐不写入快照，
+     * 快照中无法还原原始的 IP、邮箱与用户名。相同取值得到相同结果，互斥关系在重放时不变；
+     * 邮箱分别处理本地部分与域名，保持 {@code 本地@域名} 的形式，邮箱与邮箱域名两种约束都能重放。
+     */
+    private static final class Pseudonyms {
+
+        private final byte[] salt = new byte[16];
+        private final MessageDigest digest;
+
+        Pseudonyms() {
+            SALT_SOURCE.nextBytes(salt);
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        String of(String value) {
+            var normalized = StringUtils.trimToNull(value);
+            if (normalized == null) {
+                return null;
+            }
+            digest.update(salt);
+            var hash = digest.digest(normalized.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        }
+
+        String ofEmail(String email) {
+            var normalized = StringUtils.trimToNull(email);
+            if (normalized == null || !normalized.contains("@")) {
+                return of(normalized);
+            }
+            var local = StringUtils.substringBefore(StringUtils.substringBeforeLast(normalized, "@"), "+");
+            return of(local) + "@" + of(StringUtils.substringAfterLast(normalized, "@"));
+        }
+    }
+
+    /**
+     * 不可重放的策略无法核验，不记录候选人，也不写快照，保持策略自身的内存开销。
+     */
+    private record Unrecorded(DrawStrategy.DrawRequest request) implements DrawRecording {
+
+        @Override
+        public Mono<Void> complete(DrawStrategy strategy, List<Winner> winners) {
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * 记录进入策略的候选人（与策略相同地排除已中奖 token），token 复用 {@link ParticipantColumns} 的紧凑存储。
+     * 互斥字段按 {@link Pseudonyms} 匿名化后平铺存放，每行只保存约束用到的字段。
+     */
+    private final class Recording implements DrawRecording {
+
+        private final DrawStrategy.DrawRequest request;
+        private final int round;
+        private final List<LotteryParticipantSpec> awarded;
+        private final Map<String, Integer> remaining;
+        private final List<WinnerExclusivity> dimensions;
+        private final int fields;
+        private final Pseudonyms pseudonyms = new Pseudonyms();
+        private final ParticipantColumns columns = new ParticipantColumns();
+        private int[] weights = new int[64];
+        private final List<String> fieldValues = new ArrayList<>();
+
+        Recording(DrawStrategy.DrawRequest request, int round, List<LotteryParticipantSpec> awarded) {
+            this.round = round;
+            this.awarded = awarded;
+            this.remaining = new HashMap<>(request.remaining());
+            this.dimensions = Optional.ofNullable(request.activity().getSpec().getWinnerExclusivity())
+                .orElse(List.of())
+                .stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+            this.fields = fieldsOf(dimensions);
+            var excludedTokens = request.excludedTokens();
+            this.request = new DrawStrategy.DrawRequest(
+                request.activity(),
+                request.candidates().doOnNext(participant -> {
+                    var spec = participant.getSpec();
+                    if (spec != null && !excludedTokens.contains(spec.getToken())) {
+                        record(spec);
+                    }
+                }),
+                request.remaining(),
+                excludedTokens,
+                request.seed(),
+                request.exclusion()
+            );
+        }
+
+        private void record(LotteryParticipantSpec spec) {
+            var participant = new LotteryParticipant();
+            participant.setSpec(spec);
+            int row = columns.append(participant);
+            if (row == weights.length) {
+                weights = Arrays.copyOf(weights, row * 2);
+            }
+            weights[row] = Objects.requireNonNullElse(spec.getWeight(), 1);
+            appendFields(spec, fieldValues);
+        }
+
+        private void appendFields(LotteryParticipantSpec spec, List<String> target) {
+            if ((fields & FIELD_IP) != 0) {
+                target.add(pseudonyms.of(spec.getIpAddress()));
+            }
+            if ((fields & FIELD_EMAIL) != 0) {
+                target.add(pseudonyms.ofEmail(spec.getEmail()));
+            }
+            if ((fields & FIELD_USERNAME) != 0) {
+                target.add(pseudonyms.of(spec.getUsername()));
+            }
+        }
+
+        private void writeRowFields(DataOutput out, List<String> values, int from) throws IOException {
+            for (int i = 0; i < Integer.bitCount(fields); i++) {
+                writeString(out, values.get(from + i));
+            }
+        }
+
+        @Override
+        public DrawStrategy.DrawRequest request() {
+            return request;
+        }
+
+        @Override
+        public Mono<Void> complete(DrawStrategy strategy, List<Winner> winners) {
+            var activityName = request.activity().getMetadata().getName();
+            return Mono.fromCallable(() -> {
+                    write(snapshotPath(activityName, round), strategy, winners);
+                    return true;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.warn("Failed to write draw audit snapshot for activity {} round {}", activityName, round, e);
+                    return Mono.empty();
+                })
+                .then();
+        }
+
+        private void write(Path path, DrawStrategy strategy, List<Winner> winners) throws IOException {
+            Files.createDirectories(path.getParent());
+            var rows = new int[columns.size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = i;
+            }
+            DrawSupport.sortRows(rows, columns::compareTokens);
+
+            var temp = path.resolveSibling(path.getFileName() + ".tmp");
+            var crc = new CRC32C();
+            try (var file = Files.newOutputStream(temp)) {
+                var out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                writeString(out, request.activity().getMetadata().getName());
+                out.writeInt(round);
+                writeString(out, strategy.getName());
+                out.writeBoolean(strategy.isReproducible());
+                out.writeLong(request.seed());
+                out.writeLong(Instant.now().toEpochMilli());
+
+                out.writeByte(dimensions.size());
+                for (var dimension : dimensions) {
+                    out.writeByte(dimension.ordinal());
+                }
+
+                var prizes = Objects.requireNonNullElse(request.activity().getSpec().getPrizes(), List.<Prize>of());
+                out.writeInt(prizes.size());
+                for (var prize : prizes) {
+                    writeString(out, prize.getName());
+                    out.writeInt(remaining.getOrDefault(prize.getName(), 0));
+                }
+
+                out.writeInt(fields == 0 ? 0 : awarded.size());
+                if (fields != 0) {
+                    var awardedValues = new ArrayList<String>();
+                    for (var spec : awarded) {
+                        awardedValues.clear();
+                        appendFields(spec, awardedValues);
+                        writeRowFields(out, awardedValues, 0);
+                    }
+                }
+
+                out.writeInt(winners.size());
+                for (var winner : winners) {
+                    writeString(out, winner.getSourceToken());
+                    writeString(out, winner.getPrizeName());
+                }
+
+                out.writeInt(rows.length);
+                for (int row : rows) {
+                    columns.writeToken(row, out);
+                    out.writeInt(weights[row]);
+                    writeRowFields(out, fieldValues, row * Integer.bitCount(fields));
+                }
+                out.flush();
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
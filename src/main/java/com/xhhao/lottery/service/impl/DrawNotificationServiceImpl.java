@@ -0,0 +1,292 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryWinner;
+import com.xhhao.lottery.service.DrawNotificationService;
+import com.xhhao.lottery.service.LotteryNotificationService;
+import com.xhhao.lottery.service.SettingConfigGetter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static run.halo.app.extension.index.query.Queries.and;
+import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.greaterThan;
+import static run.halo.app.extension.index.query.Queries.in;
+
+/**
+ * 中奖者按开奖结果中的顺序、未中奖参与者按名称顺序依次读取，每批 {@value #PAGE_SIZE} 人，
+ * 中奖者按令牌批量查询参与记录，不再逐个查找。发送经过平滑限速，并以配置的并发数同时进行，
+ * 结果按原顺序汇总为进度。
+ * <p>
+ * 定时开奖不在参与记录上标记中奖，未中奖参与者按页查询对应的中奖记录排除，
+ * 多轮开奖只在最后一轮（活动进入 DRAWN）之后通知，此时各轮中奖者均已有中奖记录。
+ * <p>
+ * 通过 Micrometer 暴露 {@code lottery.draw.notification.deliveries}（按接收者类型与结果计数，
+ * 可据此计算吞吐）与 {@code lottery.draw.notification.latency}（单个接收者的发送耗时）。
+ */
+@Slf4j
+@Service
+public class DrawNotificationServiceImpl implements DrawNotificationService {
+
+    private static final int PAGE_SIZE = 200;
+    private static final int CHECKPOINT_SIZE = 50;
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(5);
+    private static final String DELIVERIES_METER = "lottery.draw.notification.deliveries";
+    private static final String LATENCY_METER = "lottery.draw.notification.latency";
+
+    private final ReactiveExtensionClient client;
+    private final LotteryNotificationService notificationService;
+    private final SettingConfigGetter settingConfigGetter;
+    private final MeterRegistry meterRegistry;
+
+    public DrawNotificationServiceImpl(
+        ReactiveExtensionClient client,
+        LotteryNotificationService notificationService,
+        SettingConfigGetter settingConfigGetter,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        this.client = client;
+        this.notificationService = notificationService;
+        this.settingConfigGetter = settingConfigGetter;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    public Flux<NotifyProgress> notifyDrawResults(LotteryActivity activity, Flux<Winner> winners,
+        NotifyProgress from) {
+        return settingConfigGetter.getNotificationConfig()
+            .filter(config -> Boolean.TRUE.equals(config.getEnableWinningNotification()))
+            .flatMapMany(config -> {
+                var activityName = activity.getMetadata().getName();
+                var recipients = Flux.concat(
+                    winnerRecipients(winners, from.winnersNotified()),
+                    Boolean.TRUE.equals(config.getNotifyNonWinners()) && isFinalRound(activity)
+                        ? otherRecipients(activityName, from.othersCursor())
+                        : Flux.empty());
+                var limiter = new RateLimiter(Objects.requireNonNullElse(config.getDrawNotificationRatePerSecond(), 0));
+                int concurrency = Math.max(1, Objects.requireNonNullElse(config.getDrawNotificationConcurrency(), 1));
+                long startedAt = System.nanoTime();
+                var delivered = new AtomicLong();
+
+                return recipients
+                    .flatMapSequential(recipient -> limiter.acquire()
+                        .then(deliver(activity, recipient)), concurrency)
+                    .bufferTimeout(CHECKPOINT_SIZE, CHECKPOINT_INTERVAL, true)
+                    .doOnNext(batch -> delivered.addAndGet(batch.size()))
+                    .scan(from, DrawNotificationServiceImpl::advance)
+                    .skip(1)
+                    .doOnComplete(() -> logThroughput(activityName, delivered.get(), startedAt));
+            });
+    }
+
+    private Flux<Recipient> winnerRecipients(Flux<Winner> winners, int from) {
+        return winners.skip(from)
+            .index()
+            .buffer(PAGE_SIZE)
+            .concatMap(batch -> participantsByToken(batch.stream()
+                    .map(Tuple2::getT2)
+                    .map(Winner::getSourceToken)
+                    .filter(StringUtils::isNotBlank)
+                    .distinct()
+                    .map(Object.class::cast)
+                    .toList())
+                .flatMapIterable(byToken -> batch.stream()
+                    .map(indexed -> {
+                        var winner = indexed.getT2();
+                        var participant = winner.getSourceToken() == null ? null : byToken.get(winner.getSourceToken());
+                        return new Recipient(from + Math.toIntExact(indexed.getT1()), null, participant,
+                            winner.getPrizeName());
+                    })
+                    .toList()));
+    }
+
+    private Mono<Map<String, LotteryParticipant>> participantsByToken(List<Object> tokens) {
+        if (tokens.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return client.listAll(LotteryParticipant.class,
+                ListOptions.builder().fieldQuery(in("spec.token", tokens)).build(), null)
+            .filter(participant -> participant.getSpec() != null)
+            .collectMap(participant -> participant.getSpec().getToken(), Function.identity());
+    }
+
+    private static boolean isFinalRound(LotteryActivity activity) {
+        return activity.getStatus() != null && activity.getStatus().getState() == State.DRAWN;
+    }
+
+    /**
+     * 参与者按名称做游标分页，从 {@code cursor} 之后继续，每页排除有中奖记录的参与者。
+     */
+    private Flux<Recipient> otherRecipients(String activityName, String cursor) {
+        return participantPage(activityName, cursor)
+            .expand(page -> page.size() < PAGE_SIZE
+                ? Mono.empty()
+                : participantPage(activityName, page.get(page.size() - 1).getMetadata().getName()))
+            .concatMap(page -> winnerTokens(activityName, page)
+                .map(winnerTokens -> page.stream()
+                    .filter(participant -> !winnerTokens.contains(participant.getSpec().getToken()))
+                    .toList()))
+            .flatMapIterable(Function.identity())
+            .map(participant -> new Recipient(-1, participant.getMetadata().getName(), participant, null));
+    }
+
+    private Mono<Set<String>> winnerTokens(String activityName, List<LotteryParticipant> page) {
+        var tokens = page.stream()
+            .map(participant -> participant.getSpec().getToken())
+            .filter(StringUtils::isNotBlank)
+            .map(Object.class::cast)
+            .toList();
+        if (tokens.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+        return client.listAll(LotteryWinner.class,
+                ListOptions.builder()
+                    .fieldQuery(and(equal("spec.activityName", activityName), in("spec.sourceToken", tokens)))
+                    .build(),
+                null)
+            .map(winner -> winner.getSpec().getSourceToken())
+            .collect(Collectors.toSet());
+    }
+
+    private Mono<List<LotteryParticipant>> participantPage(String activityName, String cursor) {
+        var query = equal("spec.activityName", activityName);
+        return client.listBy(LotteryParticipant.class,
+                ListOptions.builder()
+                    .fieldQuery(cursor == null ? query : and(query, greaterThan("metadata.name", cursor)))
+                    .build(),
+                PageRequestImpl.of(1, PAGE_SIZE, Sort.by("metadata.name")))
+            .map(ListResult::getItems);
+    }
+
+    private Mono<Delivery> deliver(LotteryActivity activity, Recipient recipient) {
+        var participant = recipient.participant();
+        if (participant == null || StringUtils.isBlank(participant.getSpec().getEmail())) {
+            return Mono.just(record(recipient, Outcome.SKIPPED));
+        }
+        var send = recipient.isWinner()
+            ? notificationService.sendWinningNotification(participant, activity, recipient.prizeName())
+            : notificationService.sendDrawNoPrizeNotification(participant, activity);
+        var sample = Timer.start(meterRegistry);
+        return send
+            .then(Mono.fromSupplier(() -> record(recipient, Outcome.SENT)))
+            .onErrorResume(e -> {
+                log.warn("Failed to notify participant {} of lottery activity {}",
+                    participant.getMetadata().getName(), activity.getMetadata().getName(), e);
+                return Mono.just(record(recipient, Outcome.FAILED));
+            })
+            .doOnNext(delivery -> sample.stop(Timer.builder(LATENCY_METER)
+                .tag("recipient", recipient.kind())
+                .register(meterRegistry)));
+    }
+
+    private Delivery record(Recipient recipient, Outcome outcome) {
+        Counter.builder(DELIVERIES_METER)
+            .tag("recipient", recipient.kind())
+            .tag("outcome", outcome.name().toLowerCase())
+            .register(meterRegistry)
+            .increment();
+        return new Delivery(recipient, outcome);
+    }
+
+    /**
+     * 按顺序推进进度，批次内的接收者均已完成。
+     */
+    private static NotifyProgress advance(NotifyProgress progress, List<Delivery> batch) {
+        int winnersNotified = progress.winnersNotified();
+        int othersNotified = progress.othersNotified();
+        var othersCursor = progress.othersCursor();
+        int failed = progress.failed();
+        for (var delivery : batch) {
+            var recipient = delivery.recipient();
+            if (recipient.isWinner()) {
+                winnersNotified = recipient.index() + 1;
+            } else {
+                othersNotified++;
+                othersCursor = recipient.name();
+            }
+            if (delivery.outcome() == Outcome.FAILED) {
+                failed++;
+            }
+        }
+        return new NotifyProgress(winnersNotified, othersNotified, othersCursor, failed);
+    }
+
+    private void logThroughput(String activityName, long delivered, long startedAt) {
+        var elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        double perSecond = elapsed.isZero() ? delivered : delivered * 1_000_000_000.0 / elapsed.toNanos();
+        log.info("Notified {} recipients of lottery activity {} in {} ms ({} per second)",
+            delivered, activityName, elapsed.toMillis(), String.format("%.1f", perSecond));
+    }
+
+    private enum Outcome {
+        SENT, SKIPPED, FAILED
+    }
+
+    /**
+     * @param index 中奖者在开奖结果中的下标，未中奖参与者为 -1
+     * @param name 未中奖参与者的名称，用作游标
+     */
+    private record Recipient(int index, String name, LotteryParticipant participant, String prizeName) {
+
+        boolean isWinner() {
+            return index >= 0;
+        }
+
+        String kind() {
+            return isWinner() ? "winner" : "participant";
+        }
+    }
+
+    private record Delivery(Recipient recipient, Outcome outcome) {
+    }
+
+    /**
+     * 平滑限速：每隔固定间隔发放一个许可，空闲期间不累积突发额度。速率不大于 0 时不限速。
+     */
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private final AtomicLong nextPermitAt = new AtomicLong(Long.MIN_VALUE);
+
+        RateLimiter(int permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? 1_000_000_000L / permitsPerSecond : 0;
+        }
+
+        Mono<Void> acquire() {
+            if (intervalNanos <= 0) {
+                return Mono.empty();
+            }
+            long now = System.nanoTime();
+            long permitAt = nextPermitAt.updateAndGet(previous -> Math.max(previous, now) + intervalNanos)
+                - intervalNanos;
+            long wait = permitAt - now;
+            return wait > 0 ? Mono.delay(Duration.ofNanos(wait)).then() : Mono.empty();
+        }
+    }
+}
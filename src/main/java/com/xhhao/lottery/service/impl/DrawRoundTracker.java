@@ -0,0 +1,40 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryDrawRound.DrawRoundSpec;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Instant;
+
+/**
+ * 记录一轮开奖看到的候选人：候选人数，以及按（创建时间，名称）排序的最晚一条参与记录。
+ */
+final class DrawRoundTracker {
+
+    private int seen;
+    private Instant cursor;
+    private String cursorName;
+
+    void offer(LotteryParticipant participant) {
+        var metadata = participant.getMetadata();
+        var createdAt = metadata == null ? null : metadata.getCreationTimestamp();
+        if (createdAt != null && (cursor == null || createdAt.isAfter(cursor)
+            || (createdAt.equals(cursor) && StringUtils.compare(metadata.getName(), cursorName) > 0))) {
+            cursor = createdAt;
+            cursorName = metadata.getName();
+        }
+        if (participant.getSpec() != null && StringUtils.isNotBlank(participant.getSpec().getToken())) {
+            seen++;
+        }
+    }
+
+    DrawRoundSpec toRound(String activityName, int round) {
+        var spec = new DrawRoundSpec();
+        spec.setActivityName(activityName);
+        spec.setRound(round);
+        spec.setCursor(cursor);
+        spec.setCursorName(cursorName);
+        spec.setCandidateCount(seen);
+        return spec;
+    }
+}
@@ -0,0 +1,57 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.service.DrawStrategy;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 根据活动配置选择开奖策略。
+ */
+@Component
+public class DrawStrategyResolver {
+
+    private final List<DrawStrategy> strategies;
+
+    public DrawStrategyResolver(ObjectProvider<DrawStrategy> strategies) {
+        this.strategies = strategies.orderedStream().toList();
+    }
+
+    public DrawStrategy resolve(LotteryActivity activity) {
+        var spec = activity.getSpec();
+        var lotteryType = spec.getLotteryType();
+        var name = spec.getDrawStrategy();
+
+        if (StringUtils.isNotBlank(name)) {
+            return strategies.stream()
+                .filter(strategy -> strategy.getName().equals(name))
+                .findFirst()
+                .filter(strategy -> strategy.supports(lotteryType))
+                .orElseThrow(() -> new IllegalStateException("开奖策略不存在或不支持当前开奖方式: " + name));
+        }
+
+        return strategies.stream()
+            .filter(strategy -> strategy.supports(lotteryType))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("没有可用的开奖策略"));
+    }
+
+    /**
+     * 列出已注册的策略及其支持的开奖方式，供控制台保存活动前校验。
+     */
+    public List<StrategyInfo> describe() {
+        return strategies.stream()
+            .map(strategy -> new StrategyInfo(strategy.getName(),
+                Arrays.stream(LotteryType.values()).filter(strategy::supports).toList(),
+                strategy.isReproducible()))
+            .toList();
+    }
+
+    public record StrategyInfo(String name, List<LotteryType> lotteryTypes, boolean reproducible) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntSupplier;
+
+/**
+ * 各开奖策略共用的名额计算与发奖逻辑。
+ */
+final class DrawSupport {
+
+    private DrawSupport() {
+    }
+
+    static int totalSlots(List<Prize> prizes, Map<String, Integer> remaining) {
+        return (int) Math.min(Integer.MAX_VALUE, prizes.stream()
+            .mapToLong(prize -> Math.max(0, remaining.getOrDefault(prize.getName(), 0)))
+            .sum());
+    }
+
+    /**
+     * 将已排好顺序的样本按奖品顺序依次发放剩余名额。
+     */
+    static List<Winner> deal(List<Prize> prizes, Map<String, Integer> remaining,
+                             ParticipantColumns columns, int[] rows) {
+        var next = new int[1];
+        return deal(prizes, remaining, columns, () -> next[0] < rows.length ? rows[next[0]++] : -1);
+    }
+
+    /**
+     * 按 {@code order} 给出的随机顺序逐个发放剩余名额，与中奖互斥约束冲突的行直接跳过，
+     * {@code order} 返回负数表示候选人已取完。
+     */
+    static List<Winner> deal(List<Prize> prizes, Map<String, Integer> remaining,
+                             ParticipantColumns columns, IntSupplier order) {
+        var winners = new ArrayList<Winner>();
+        var now = Instant.now();
+        for (var prize : prizes) {
+            int slots = remaining.getOrDefault(prize.getName(), 0);
+            while (slots > 0) {
+                int row = order.getAsInt();
+                if (row < 0) {
+                    return winners;
+                }
+                if (!columns.claim(row)) {
+                    continue;
+                }
+                var winner = new Winner();
+                winner.setIdentifier(columns.identifier(row));
+                winner.setPrizeName(prize.getName());
+                winner.setWinTime(now);
+                winner.setSourceToken(columns.token(row));
+                winner.setDrawSource("RANDOM");
+                winners.add(winner);
+                slots--;
+            }
+        }
+        return winners;
+    }
+
+    /**
+     * 基于行号数组的稳定归并排序，避免为比较器装箱。
+     */
+    static void sortRows(int[] rows, IntBinaryOperator compare) {
+        var buffer = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int left = 0; left < rows.length - width; left += 2 * width) {
+                int mid = left + width;
+                int right = Math.min(left + 2 * width, rows.length);
+                int i = left;
+                int j = mid;
+                int k = left;
+                while (i < mid && j < right) {
+                    buffer[k++] = compare.applyAsInt(rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = rows[i++];
+                }
+                while (j < right) {
+                    buffer[k++] = rows[j++];
+                }
+                System.arraycopy(buffer, left, rows, left, right - left);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.service.InstantLotteryStockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 定期回收即时开奖中已过期、未确认的奖品租约，保证节点崩溃或落库失败时库存最终归还。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstantReservationSweeper implements SmartLifecycle {
+
+    private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(15);
+
+    private final InstantLotteryStockService instantLotteryStockService;
+
+    private volatile Disposable subscription;
+
+    @Override
+    public void start() {
+        subscription = Flux.interval(SWEEP_INTERVAL, SWEEP_INTERVAL)
+            .onBackpressureDrop()
+            .concatMap(tick -> instantLotteryStockService.releaseExpiredReservations()
+                .doOnNext(released -> {
+                    if (released > 0) {
+                        log.info("Released {} expired instant lottery reservations", released);
+                    }
+                })
+                .onErrorResume(throwable -> {
+                    log.warn("Failed to sweep expired instant lottery reservations", throwable);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        var current = subscription;
+        if (current != null) {
+            current.dispose();
+            subscription = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed();
+    }
+}
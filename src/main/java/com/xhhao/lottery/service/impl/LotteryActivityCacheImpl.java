@@ -0,0 +1,163 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.service.LotteryActivityCache;
+import com.xhhao.lottery.service.LotteryEventBus;
+import com.xhhao.lottery.service.LotteryEventBus.EventType;
+import com.xhhao.lottery.service.LotteryEventBus.LotteryEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.Extension;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.Watcher;
+import run.halo.app.infra.utils.JsonUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按活动名称缓存最近读取的活动及其 {@code resourceVersion}，最多 {@value #MAX_ENTRIES} 个，
+ * 超出时淘汰最久未访问的活动；条目写入 {@link #TIME_TO_LIVE} 后过期，作为漏掉失效通知时的兜底。
+ * <p>
+ * 加载期间发生过失效时不写入缓存，避免把失效前读到的旧版本放回去；同名活动只会用不更旧的版本覆盖。
+ */
+@Service
+@RequiredArgsConstructor
+public class LotteryActivityCacheImpl implements LotteryActivityCache, SmartLifecycle {
+
+    private static final int MAX_ENTRIES = 1024;
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    private final ReactiveExtensionClient client;
+    private final LotteryEventBus eventBus;
+
+    private final Map<String, CachedActivity> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedActivity> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    /** 每次失效递增，加载完成时与加载开始时比较 */
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile ActivityChangeWatcher watcher;
+
+    @Override
+    public Mono<LotteryActivity> get(String activityName) {
+        return Mono.defer(() -> {
+            var cached = lookup(activityName);
+            if (cached != null) {
+                return Mono.just(JsonUtils.deepCopy(cached.activity()));
+            }
+            long loadedAt = invalidations.get();
+            return client.get(LotteryActivity.class, activityName)
+                .doOnNext(activity -> store(activityName, activity, loadedAt))
+                .map(JsonUtils::deepCopy);
+        });
+    }
+
+    @Override
+    public void invalidate(String activityName) {
+        invalidations.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(activityName);
+        }
+    }
+
+    @Override
+    public void start() {
+        eventBus.subscribe(this::onEvent);
+        watcher = new ActivityChangeWatcher();
+        client.watch(watcher);
+    }
+
+    @Override
+    public void stop() {
+        var current = watcher;
+        if (current != null) {
+            current.dispose();
+            watcher = null;
+        }
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watcher != null;
+    }
+
+    private CachedActivity lookup(String activityName) {
+        synchronized (entries) {
+            var cached = entries.get(activityName);
+            if (cached != null && System.nanoTime() - cached.storedAt() > TIME_TO_LIVE.toNanos()) {
+                entries.remove(activityName);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void store(String activityName, LotteryActivity activity, long loadedAt) {
+        var version = Objects.requireNonNullElse(activity.getMetadata().getVersion(), 0L);
+        synchronized (entries) {
+            if (invalidations.get() != loadedAt) {
+                return;
+            }
+            var existing = entries.get(activityName);
+            if (existing == null || existing.version() <= version) {
+                entries.put(activityName, new CachedActivity(JsonUtils.deepCopy(activity), version, System.nanoTime()));
+            }
+        }
+    }
+
+    private void onEvent(LotteryEvent event) {
+        if (event.type() == EventType.ACTIVITY_CHANGED) {
+            invalidate(event.activityName());
+        }
+    }
+
+    private void broadcastChanged(String activityName) {
+        eventBus.publish(new LotteryEvent(EventType.ACTIVITY_CHANGED, activityName)).subscribe();
+    }
+
+    private record CachedActivity(LotteryActivity activity, long version, long storedAt) {
+    }
+
+    /**
+     * Halo 的监听只在写入的节点触发，本节点清除后通过事件广播到其他节点。
+     */
+    private class ActivityChangeWatcher implements Watcher {
+
+        private volatile boolean disposed;
+
+        @Override
+        public void onUpdate(Extension oldExtension, Extension newExtension) {
+            if (!disposed && newExtension instanceof LotteryActivity activity) {
+                broadcastChanged(activity.getMetadata().getName());
+            }
+        }
+
+        @Override
+        public void onDelete(Extension extension) {
+            if (!disposed && extension instanceof LotteryActivity activity) {
+                broadcastChanged(activity.getMetadata().getName());
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
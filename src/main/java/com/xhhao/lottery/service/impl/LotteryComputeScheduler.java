@@ -0,0 +1,56 @@
+package com.xhhao.lottery.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 抽奖 CPU 密集计算（候选人投影、洗牌抽样、审计重放、概率模拟）专用的有界调度器。
+ * <p>
+ * 线程数等于 CPU 核数，任务队列有界，队列满时任务被拒绝并以错误返回，不会退回到调用线程执行，
+ * 因此大规模开奖不会占用 Netty 事件循环。只用于开奖、重放与模拟这类后台计算，读取与参与等请求路径上的统计
+ * 不使用本调度器，流量高峰时不会因队列满而失败。线程池通过 Micrometer 以 {@code lottery-compute}
+ * 为名暴露 {@code executor.*} 指标（活跃线程、排队数、执行耗时等）。
+ */
+@Component
+public class LotteryComputeScheduler implements DisposableBean {
+
+    static final String NAME = "lottery-compute";
+
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(60);
+
+    private final Scheduler scheduler;
+
+    public LotteryComputeScheduler(ObjectProvider<MeterRegistry> meterRegistry) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        var executor = new ThreadPoolExecutor(threads, threads,
+            KEEP_ALIVE.toMillis(), TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            Thread.ofPlatform().name(NAME + "-", 1).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        var registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.scheduler = Schedulers.fromExecutorService(
+            ExecutorServiceMetrics.monitor(registry, executor, NAME), NAME);
+    }
+
+    public Scheduler get() {
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
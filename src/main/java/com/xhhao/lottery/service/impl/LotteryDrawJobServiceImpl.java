@@ -0,0 +1,97 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+import com.xhhao.lottery.entity.LotteryDrawJob;
+import com.xhhao.lottery.entity.LotteryDrawJob.DrawJobSpec;
+import com.xhhao.lottery.entity.LotteryDrawJob.DrawJobStatus;
+import com.xhhao.lottery.entity.LotteryDrawJob.Phase;
+import com.xhhao.lottery.service.LotteryDrawJobService;
+import com.xhhao.lottery.service.LotteryService.DrawResult;
+import com.xhhao.lottery.util.ActivityStateUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static run.halo.app.extension.index.query.Queries.equal;
+
+@Service
+@RequiredArgsConstructor
+public class LotteryDrawJobServiceImpl implements LotteryDrawJobService {
+
+    private final ReactiveExtensionClient client;
+
+    @Override
+    public Mono<LotteryDrawJob> submit(String activityName) {
+        return client.get(LotteryActivity.class, activityName)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
+            .flatMap(activity -> {
+                var state = ActivityStateUtil.effectiveState(activity, Instant.now());
+                if (state == State.DRAWN) {
+                    return Mono.error(new IllegalStateException("活动已开奖"));
+                }
+                if (state != State.RUNNING) {
+                    return Mono.error(new IllegalStateException("活动未在进行中"));
+                }
+                return getLatestJob(activityName)
+                    .filter(job -> !isFinished(job))
+                    .switchIfEmpty(Mono.defer(() -> client.create(newJob(activityName))));
+            });
+    }
+
+    @Override
+    public Mono<LotteryDrawJob> submitNotification(String activityName, DrawResult result) {
+        var job = newJob(activityName);
+        var status = job.getStatus();
+        status.setLastCompletedPhase(Phase.PERSISTING);
+        status.setWinnerCount(result.winners().size());
+        status.setDrawSeed(result.seed());
+        status.setDrawStrategy(result.strategy());
+        status.setRound(result.round());
+        return client.create(job);
+    }
+
+    @Override
+    public Mono<LotteryDrawJob> getJob(String jobName) {
+        return client.fetch(LotteryDrawJob.class, jobName);
+    }
+
+    @Override
+    public Mono<LotteryDrawJob> getLatestJob(String activityName) {
+        return client.listAll(
+                LotteryDrawJob.class,
+                ListOptions.builder().fieldQuery(equal("spec.activityName", activityName)).build(),
+                Sort.by(Sort.Order.desc("metadata.creationTimestamp"))
+            )
+            .next();
+    }
+
+    static boolean isFinished(LotteryDrawJob job) {
+        var phase = Optional.ofNullable(job.getStatus()).map(DrawJobStatus::getPhase).orElse(null);
+        return phase == Phase.SUCCEEDED || phase == Phase.FAILED;
+    }
+
+    private LotteryDrawJob newJob(String activityName) {
+        var job = new LotteryDrawJob();
+        job.setMetadata(new Metadata());
+        job.getMetadata().setGenerateName("draw-job-");
+
+        var spec = new DrawJobSpec();
+        spec.setActivityName(activityName);
+        job.setSpec(spec);
+
+        var status = new DrawJobStatus();
+        status.setPhase(Phase.PENDING);
+        status.setAttempts(0);
+        status.setNotifiedCount(0);
+        job.setStatus(status);
+        return job;
+    }
+}
@@ -13,6 +13,7 @@ import run.halo.app.notification.NotificationCenter;
 import run.halo.app.notification.NotificationReasonEmitter;
 import run.halo.app.notification.UserIdentity;
 
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
@@ -30,6 +31,7 @@ public class LotteryNotificationServiceImpl implements LotteryNotificationServic
     private static final String REASON_TYPE_PARTICIPATE = "lottery-participate";
     private static final String REASON_TYPE_WINNING = "lottery-winning";
     private static final String REASON_TYPE_INSTANT_NO_PRIZE = "lottery-instant-no-prize";
+    private static final String REASON_TYPE_DRAW_NO_PRIZE = "lottery-draw-no-prize";
 
     @Override
     public Mono<Void> sendParticipateNotification(LotteryParticipant participant, LotteryActivity activity) {
@@ -176,4 +178,56 @@ public class LotteryNotificationServiceImpl implements LotteryNotificationServic
             .onErrorResume(e -> Mono.empty())
             .then();
     }
+
+    @Override
+    public Mono<Void> sendDrawNoPrizeNotification(LotteryParticipant participant, LotteryActivity activity) {
+        return settingConfigGetter.getNotificationConfig()
+            .filter(config -> Boolean.TRUE.equals(config.getEnableWinningNotification()))
+            .flatMap(config -> {
+                var spec = participant.getSpec();
+                String email = spec.getEmail();
+                if (email == null || email.isBlank()) {
+                    return Mono.empty();
+                }
+
+                String participantName = Objects.requireNonNullElse(
+                    spec.getDisplayName(),
+                    Objects.requireNonNullElse(spec.getUsername(), email)
+                );
+                var drawnTime = activity.getStatus() != null && activity.getStatus().getDrawnTime() != null
+                    ? activity.getStatus().getDrawnTime()
+                    : Instant.now();
+
+                var userIdentity = UserIdentity.anonymousWithEmail(email);
+
+                var subscriber = new Subscription.Subscriber();
+                subscriber.setName(userIdentity.name());
+
+                var interestReason = new Subscription.InterestReason();
+                interestReason.setReasonType(REASON_TYPE_DRAW_NO_PRIZE);
+                interestReason.setExpression("props.participantEmail == '" + email + "'");
+
+                var subject = Subject.builder()
+                    .apiVersion("lottery.xhhao.com/v1alpha1")
+                    .kind("LotteryParticipant")
+                    .name(participant.getMetadata().getName())
+                    .title(activity.getSpec().getTitle())
+                    .build();
+
+                return notificationCenter.subscribe(subscriber, interestReason)
+                    .then(reasonEmitter.emit(REASON_TYPE_DRAW_NO_PRIZE,
+                        builder -> builder
+                            .author(userIdentity)
+                            .subject(subject)
+                            .attribute("activityTitle", activity.getSpec().getTitle())
+                            .attribute("activityName", activity.getMetadata().getName())
+                            .attribute("participantEmail", email)
+                            .attribute("participantName", participantName)
+                            .attribute("participateTime", DATE_FORMATTER.format(spec.getParticipateTime()))
+                            .attribute("drawnTime", DATE_FORMATTER.format(drawnTime))
+                    ));
+            })
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
 }
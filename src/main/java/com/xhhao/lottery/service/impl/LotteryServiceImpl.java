@@ -9,18 +9,33 @@ import com.xhhao.lottery.entity.LotteryActivity.ParticipationType;
 import com.xhhao.lottery.entity.LotteryActivity.Prize;
 import com.xhhao.lottery.entity.LotteryActivity.State;
 import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryDrawRound;
+import com.xhhao.lottery.entity.LotteryDrawRound.DrawRoundSpec;
 import com.xhhao.lottery.entity.LotteryParticipant;
 import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
 import com.xhhao.lottery.query.LotteryActivityQuery;
-import com.xhhao.lottery.service.InstantLotteryStockService;
+import com.xhhao.lottery.service.ActivityClosedFlagService;
+import com.xhhao.lottery.service.DrawAuditService;
+import com.xhhao.lottery.service.DrawLockService;
+import com.xhhao.lottery.service.DrawLockService.DrawLease;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.InstantLotteryStockService.PrizeReservation;
+import com.xhhao.lottery.service.LotteryActivityCache;
+import com.xhhao.lottery.service.LotteryDrawJobService;
 import com.xhhao.lottery.service.LotteryNotificationService;
 import com.xhhao.lottery.service.LotteryService;
+import com.xhhao.lottery.service.LotteryWinnerService;
 import com.xhhao.lottery.service.RedisConfigService;
+import com.xhhao.lottery.service.WinnerExclusion;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ListResult;
 import run.halo.app.extension.Metadata;
@@ -30,11 +45,12 @@ import run.halo.app.extension.ReactiveExtensionClient;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.Base64;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -44,10 +60,14 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import run.halo.app.core.extension.User;
 import run.halo.app.core.extension.content.Comment;
+import com.xhhao.lottery.util.ActivityStateUtil;
 import com.xhhao.lottery.util.SecurityUtil;
 
+import static run.halo.app.extension.index.query.Queries.and;
 import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.in;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class LotteryServiceImpl implements LotteryService {
@@ -56,6 +76,7 @@ public class LotteryServiceImpl implements LotteryService {
     private static final String PARTICIPANT_LIMIT_KEY_PREFIX = "plugin:lottery:participant-limit";
     private static final Duration REDIS_KEY_RETENTION = Duration.ofDays(7);
     private static final Duration REDIS_KEY_FALLBACK_TTL = Duration.ofDays(30);
+    private static final int BATCH_PERSIST_CONCURRENCY = 8;
     private static final String ACQUIRE_DUPLICATE_GUARD_SCRIPT = """
         if redis.call('EXISTS', KEYS[1]) == 1 then
             return 0
@@ -82,11 +103,12 @@ public class LotteryServiceImpl implements LotteryService {
 
         local max = tonumber(ARGV[2]) or 0
         local ttl = tonumber(ARGV[3]) or 0
-        if current >= max then
+        local count = tonumber(ARGV[4]) or 1
+        if current + count > max then
             return 0
         end
 
-        redis.call('INCR', KEYS[1])
+        redis.call('INCRBY', KEYS[1], count)
         if ttl > 0 then
             redis.call('EXPIRE', KEYS[1], ttl)
         end
@@ -98,57 +120,92 @@ public class LotteryServiceImpl implements LotteryService {
             return 0
         end
 
-        return redis.call('DECR', KEYS[1])
+        local count = math.min(current, tonumber(ARGV[1]) or 1)
+        return redis.call('DECRBY', KEYS[1], count)
         """;
 
     private final ReactiveExtensionClient client;
     private final LotteryNotificationService notificationService;
-    private final InstantLotteryStockService instantLotteryStockService;
+    private final DrawStrategyResolver drawStrategyResolver;
     private final RedisConfigService redisConfigService;
+    private final ActivityClosedFlagService closedFlagService;
+    private final DrawLockService drawLockService;
+    private final LotteryWinnerService winnerService;
+    private final LotteryComputeScheduler computeScheduler;
+    private final DrawAuditService drawAuditService;
+    private final LotteryDrawJobService drawJobService;
+    private final LotteryActivityCache activityCache;
 
+    private final Map<String, Mono<LotteryActivity>> inFlightDraws = new ConcurrentHashMap<>();
+
+    private static final SecureRandom SEED_SOURCE = new SecureRandom();
     private static final String TOKEN_SALT = "lottery_plugin_salt_2024";
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[\\w.-]+@[\\w.-]+\\.[a-zA-Z]{2,}$");
 
     @Override
     public Mono<LotteryActivity> getActivity(String activityName) {
-        return client.get(LotteryActivity.class, activityName)
-            .flatMap(this::checkAndUpdateState)
-            .flatMap(this::checkAndAutoDraw)
+        return activityCache.get(activityName)
+            .map(ActivityStateUtil::withEffectiveState)
             .flatMap(this::enrichActivityMetrics);
     }
 
+    @Override
+    public Mono<String> getActivityRevision(String activityName) {
+        return activityCache.get(activityName)
+            .zipWhen(activity -> countParticipants(activityName))
+            .map(tuple -> {
+                var activity = tuple.getT1();
+                return String.join("-",
+                    String.valueOf(activity.getMetadata().getVersion()),
+                    ActivityStateUtil.effectiveState(activity, Instant.now()).name(),
+                    String.valueOf(tuple.getT2()),
+                    closedFlagService.isSoldOut(activityName) ? "1" : "0");
+            });
+    }
+
     @Override
     public Mono<ListResult<LotteryActivity>> listActivities(LotteryActivityQuery query) {
         return client.listBy(LotteryActivity.class, query.toListOptions(),
                 PageRequestImpl.of(query.getPage(), query.getSize(), query.getSort()))
             .flatMap(result -> Flux.fromIterable(result.getItems())
-                .flatMap(this::checkAndUpdateState)
+                .map(ActivityStateUtil::withEffectiveState)
                 .flatMap(this::enrichActivityMetrics)
                 .collectList()
                 .map(items -> new ListResult<>(result.getPage(), result.getSize(), result.getTotal(), items)));
     }
 
     @Override
-    public Mono<LotteryActivity> draw(String activityName) {
+    public Mono<LotteryActivity> autoDraw(String activityName) {
         return client.get(LotteryActivity.class, activityName)
-            .flatMap(activity -> switch (getStatus(activity).getState()) {
-                case DRAWN -> Mono.error(new IllegalStateException("活动已开奖"));
-                case RUNNING -> executeDraw(activity);
-                case null, default -> Mono.error(new IllegalStateException("活动未在进行中"));
-            });
+            .flatMap(this::checkAndAutoDraw);
     }
 
     @Override
     public Mono<LotteryParticipant> participateAnonymous(String activityName, String email,
                                                           String displayName, String ipAddress) {
         return validateEmail(email)
-            .then(client.get(LotteryActivity.class, activityName))
+            .then(rejectIfFull(activityName))
+            .then(activityCache.get(activityName))
             .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
             .flatMap(activity -> validateParticipation(activity, ParticipationType.NONE)
                 .then(checkDuplicate(activity, email))
                 .then(doParticipate(activity, email, displayName, null, null, ipAddress)));
     }
 
+    @Override
+    public Mono<List<LotteryParticipant>> participateAnonymous(String activityName, String email,
+                                                               String displayName, String ipAddress,
+                                                               int count) {
+        return validateEmail(email)
+            .then(rejectIfFull(activityName))
+            .then(activityCache.get(activityName))
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
+            .flatMap(activity -> validateSpinCount(activity, count)
+                .then(validateParticipation(activity, ParticipationType.NONE))
+                .then(checkDuplicate(activity, email))
+                .then(doParticipateBatch(activity, email, displayName, null, null, ipAddress, count)));
+    }
+
     @Override
     public Mono<LotteryParticipant> participateWithLogin(String activityName, String ipAddress) {
         return getCurrentUser()
@@ -162,7 +219,8 @@ public class LotteryServiceImpl implements LotteryService {
                     return Mono.error(new IllegalStateException("用户邮箱未设置"));
                 }
                 
-                return client.get(LotteryActivity.class, activityName)
+                return rejectIfFull(activityName)
+                    .then(activityCache.get(activityName))
                     .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
                     .flatMap(activity -> validateParticipation(activity, ParticipationType.LOGIN)
                         .then(checkDuplicate(activity, email))
@@ -179,7 +237,8 @@ public class LotteryServiceImpl implements LotteryService {
                 if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken)) {
                     String username = authentication.getName();
                     
-                    return client.get(LotteryActivity.class, activityName)
+                    return rejectIfFull(activityName)
+                        .then(activityCache.get(activityName))
                         .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
                         .flatMap(activity -> {
                             String targetPost = (postName != null && !postName.isBlank()) 
@@ -219,7 +278,8 @@ public class LotteryServiceImpl implements LotteryService {
     @Override
     public Mono<LotteryParticipant> participateWithCommentByEmail(String activityName, String email, String postName, String ipAddress) {
         return validateEmail(email)
-            .then(client.get(LotteryActivity.class, activityName))
+            .then(rejectIfFull(activityName))
+            .then(activityCache.get(activityName))
             .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
             .flatMap(activity -> {
                 String targetPost = (postName != null && !postName.isBlank()) 
@@ -255,7 +315,8 @@ public class LotteryServiceImpl implements LotteryService {
                     return Mono.error(new IllegalStateException("用户邮箱未设置"));
                 }
                 
-                return client.get(LotteryActivity.class, activityName)
+                return rejectIfFull(activityName)
+                    .then(activityCache.get(activityName))
                     .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
                     .flatMap(activity -> {
                         var targetPost = (postName != null && !postName.isBlank()) 
@@ -308,7 +369,7 @@ public class LotteryServiceImpl implements LotteryService {
                     "INSTANT"
                 ));
             }
-            return findWinnerFromActivity(activityName, spec);
+            return winnerService.findWinner(activityName, spec.getToken());
         });
     }
 
@@ -324,200 +385,462 @@ public class LotteryServiceImpl implements LotteryService {
         }
     }
 
-    private Mono<LotteryActivity> checkAndUpdateState(LotteryActivity activity) {
-        var status = getStatus(activity);
-        if (status.getState() == State.DRAWN) {
+    private Mono<LotteryActivity> checkAndAutoDraw(LotteryActivity activity) {
+        var now = Instant.now();
+        var state = ActivityStateUtil.effectiveState(activity, now);
+        if (state == State.DRAWN) {
             return Mono.just(activity);
         }
 
-        var newState = calculateState(activity.getSpec());
-        if (status.getState() != newState) {
-            status.setState(newState);
-            return client.update(activity);
+        var spec = activity.getSpec();
+        var drawTime = spec.getDrawTime() != null ? spec.getDrawTime() : spec.getEndTime();
+
+        if (drawTime != null && now.isAfter(drawTime)
+            && (state == State.RUNNING || state == State.ENDED)) {
+            // 其他节点正在开奖时由其完成，返回当前状态
+            return executeDraw(activity).defaultIfEmpty(activity);
         }
         return Mono.just(activity);
     }
 
-    private State calculateState(LotteryActivitySpec spec) {
-        var now = Instant.now();
-        var startTime = Objects.requireNonNullElse(spec.getStartTime(), Instant.EPOCH);
+    /**
+     * 同一活动在本节点内合并为一次开奖，跨节点由开奖锁保证只有一个节点执行；
+     * 锁被其他节点持有时返回空。
+     */
+    private Mono<LotteryActivity> executeDraw(LotteryActivity activity) {
+        var activityName = activity.getMetadata().getName();
+        var drawnRounds = drawRoundOf(activity);
+        return inFlightDraws.computeIfAbsent(activityName, key -> drawLockService.tryAcquire(key)
+            .flatMap(lease -> Mono.usingWhen(
+                Mono.just(lease),
+                acquired -> drawWithLease(acquired, drawnRounds),
+                drawLockService::release
+            ))
+            .doFinally(signal -> inFlightDraws.remove(key))
+            .cache());
+    }
 
-        if (now.isBefore(startTime)) return State.PENDING;
-        if (spec.getEndTime() != null && now.isAfter(spec.getEndTime())) return State.ENDED;
-        return State.RUNNING;
+    private Mono<LotteryActivity> drawWithLease(DrawLease lease, int drawnRounds) {
+        // 加锁前读取的活动可能已被其他节点开奖，持锁后重新读取
+        return client.get(LotteryActivity.class, lease.activityName())
+            .flatMap(activity -> getStatus(activity).getState() == State.DRAWN
+                || drawRoundOf(activity) != drawnRounds
+                ? Mono.just(activity)
+                : claimDrawFence(lease.activityName(), lease.fencingToken())
+                    .then(Mono.defer(() -> prepareDraw(activity)))
+                    .flatMap(prepared -> sampleWinners(activity, prepared.manualCandidates()))
+                    .flatMap(result -> persistDraw(lease.activityName(), result, lease.fencingToken())
+                        .flatMap(persisted -> submitNotification(persisted, result))));
     }
 
-    private Mono<LotteryActivity> checkAndAutoDraw(LotteryActivity activity) {
-        var status = getStatus(activity);
-        if (status.getState() == State.DRAWN) {
-            return Mono.just(activity);
-        }
+    /**
+     * 开奖结果已落库，通知交给只含通知阶段的开奖任务批量发送，提交失败不影响开奖结果。
+     */
+    private Mono<LotteryActivity> submitNotification(LotteryActivity activity, DrawResult result) {
+        var activityName = activity.getMetadata().getName();
+        return drawJobService.submitNotification(activityName, result)
+            .thenReturn(activity)
+            .onErrorResume(e -> {
+                log.warn("Failed to submit draw notification job for activity {}", activityName, e);
+                return Mono.just(activity);
+            });
+    }
 
-        var spec = activity.getSpec();
-        var drawTime = spec.getDrawTime() != null ? spec.getDrawTime() : spec.getEndTime();
+    @Override
+    public Mono<Integer> prepareDraw(String activityName) {
+        return getDrawableActivity(activityName)
+            .flatMap(this::prepareDraw)
+            .map(PreparedDraw::participantCount);
+    }
+
+    @Override
+    public Mono<DrawResult> sampleWinners(String activityName) {
+        return getDrawableActivity(activityName)
+            .flatMap(activity -> collectManualCandidates(activity)
+                .flatMap(candidates -> sampleWinners(activity, candidates)));
+    }
+
+    @Override
+    public Mono<Void> claimDrawFence(String activityName, long fencingToken) {
+        return Mono.defer(() -> client.get(LotteryActivity.class, activityName))
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
+            .flatMap(activity -> {
+                var status = getStatus(activity);
+                long claimed = Objects.requireNonNullElse(status.getDrawFence(), 0L);
+                if (claimed > fencingToken) {
+                    return Mono.error(new StaleDrawFenceException());
+                }
+                if (claimed == fencingToken) {
+                    return Mono.empty();
+                }
+                status.setDrawFence(fencingToken);
+                return client.update(activity);
+            })
+            .retryWhen(Retry.backoff(3, Duration.ofMillis(100))
+                .filter(OptimisticLockingFailureException.class::isInstance))
+            .then();
+    }
+
+    @Override
+    public Mono<LotteryActivity> persistWinners(String activityName, DrawResult result, long fencingToken) {
+        return client.get(LotteryActivity.class, activityName)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
+            .flatMap(activity -> isPersisted(activity, result)
+                ? committedBy(activity, result, fencingToken)
+                    .flatMap(own -> own
+                        ? Mono.just(activity)
+                        : revokeDraw(activityName, result, fencingToken)
+                            .then(Mono.<LotteryActivity>error(new StaleDrawFenceException())))
+                : persistDraw(activityName, result, fencingToken));
+    }
 
-        if (drawTime != null && Instant.now().isAfter(drawTime)
-            && (status.getState() == State.RUNNING || status.getState() == State.ENDED)) {
-            return executeDraw(activity);
+    private boolean isPersisted(LotteryActivity activity, DrawResult result) {
+        return getStatus(activity).getState() == State.DRAWN
+            || (result.round() != null && drawRoundOf(activity) >= result.round().getRound());
+    }
+
+    private int drawRoundOf(LotteryActivity activity) {
+        return Objects.requireNonNullElse(getStatus(activity).getDrawRound(), 0);
+    }
+
+    private Mono<LotteryActivity> getDrawableActivity(String activityName) {
+        return client.get(LotteryActivity.class, activityName)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
+            .flatMap(activity -> switch (ActivityStateUtil.effectiveState(activity, Instant.now())) {
+                case DRAWN -> Mono.error(new IllegalStateException("活动已开奖"));
+                case RUNNING, ENDED -> Mono.just(activity);
+                case null, default -> Mono.error(new IllegalStateException("活动未在进行中"));
+            });
+    }
+
+    /**
+     * 补齐指定中奖人对应的参与记录，返回参与人数与指定中奖人的候选记录。
+     */
+    private Mono<PreparedDraw> prepareDraw(LotteryActivity activity) {
+        var prizes = activity.getSpec().getPrizes();
+        if (prizes == null || prizes.isEmpty()) {
+            return Mono.error(new IllegalStateException("未设置奖品"));
         }
-        return Mono.just(activity);
+
+        var activityName = activity.getMetadata().getName();
+        return collectManualCandidates(activity)
+            .flatMap(candidates -> ensureManualParticipants(activity, candidates))
+            .flatMap(candidates -> countParticipants(activityName)
+                .flatMap(count -> count == 0
+                    ? Mono.error(new IllegalStateException("无人参与"))
+                    : Mono.just(new PreparedDraw(count, candidates))));
     }
 
-    private Mono<LotteryActivity> executeDraw(LotteryActivity activity) {
+    private Mono<DrawResult> sampleWinners(LotteryActivity activity, ManualCandidates manualCandidates) {
         var prizes = activity.getSpec().getPrizes();
         if (prizes == null || prizes.isEmpty()) {
             return Mono.error(new IllegalStateException("未设置奖品"));
         }
 
-        return getParticipants(activity.getMetadata().getName())
-            .collectList()
-            .flatMap(participants -> ensureManualParticipants(activity, participants))
-            .flatMap(allParticipants -> {
-                if (allParticipants.isEmpty()) {
-                    return Mono.error(new IllegalStateException("无人参与"));
-                }
+        var activityName = activity.getMetadata().getName();
+        var consumed = winnerCountsOf(activity);
+        var awardedTokens = winnerService.streamWinners(activityName)
+            .map(Winner::getSourceToken)
+            .filter(StringUtils::isNotBlank)
+            .collect(Collectors.toSet());
+        return Mono.zip(awardedTokens, previousRound(activity))
+            .flatMap(tuple -> drawForParticipants(activity, manualCandidates, prizes, consumed, tuple.getT1(),
+                tuple.getT2().orElse(null)))
+            .flatMap(result -> result.winners().isEmpty()
+                ? Mono.error(new IllegalStateException("没有可开奖的奖项"))
+                : Mono.just(result));
+    }
 
+    /**
+     * 先写入中奖记录与轮次记录再更新活动汇总，中断后重试时已写入的记录会被跳过。
+     * 写入前后都比较活动记录的防护令牌，汇总更新依赖乐观锁版本，令牌在此期间被更新的持有者取代时
+     * 更新失败，并撤销本次写入的中奖与轮次记录。
+     */
+    private Mono<LotteryActivity> persistDraw(String activityName, DrawResult result, long fencingToken) {
+        var drawnTime = Instant.now();
+        return client.get(LotteryActivity.class, activityName)
+            .flatMap(activity -> requireFence(activity, fencingToken))
+            .then(Mono.defer(() -> winnerService.saveWinners(activityName, result.winners(),
+                result.round() == null ? null : result.round().getRound(), fencingToken)))
+            .then(Mono.defer(() -> saveRound(activityName, result, drawnTime, fencingToken)))
+            .then(Mono.defer(() -> commitDraw(activityName, result, drawnTime, fencingToken)))
+            .onErrorResume(StaleDrawFenceException.class,
+                e -> revokeDraw(activityName, result, fencingToken).then(Mono.error(e)));
+    }
+
+    private Mono<LotteryActivity> commitDraw(String activityName, DrawResult result, Instant drawnTime,
+                                             long fencingToken) {
+        return Mono.defer(() -> client.get(LotteryActivity.class, activityName))
+            .flatMap(activity -> requireFence(activity, fencingToken).then(Mono.defer(() -> {
+                if (isPersisted(activity, result)) {
+                    return Mono.just(activity);
+                }
                 var status = getStatus(activity);
-                var existingWinners = new ArrayList<>(
-                    Optional.ofNullable(status.getWinners()).orElse(List.of())
-                );
-                var winners = drawForParticipants(
-                    activity,
-                    allParticipants,
-                    prizes,
-                    existingWinners
-                );
-                if (winners.isEmpty()) {
-                    return Mono.error(new IllegalStateException("没有可开奖的奖项"));
+                LotteryWinnerServiceImpl.addWinnerCounts(status, result.winners());
+                status.setDrawnTime(drawnTime);
+                status.setDrawError(null);
+                status.setDrawSeed(result.seed());
+                status.setDrawStrategy(result.strategy());
+                if (result.round() != null) {
+                    status.setDrawRound(result.round().getRound());
+                }
+                if (!continuesAfterRound(activity)) {
+                    status.setState(State.DRAWN);
                 }
-                existingWinners.addAll(winners);
-                status.setDrawnTime(Instant.now());
-                status.setWinners(existingWinners);
-                status.setState(State.DRAWN);
-
                 return client.update(activity);
-            });
+            })))
+            .retryWhen(Retry.backoff(3, Duration.ofMillis(100))
+                .filter(OptimisticLockingFailureException.class::isInstance));
     }
 
-    private Mono<List<LotteryParticipant>> ensureManualParticipants(LotteryActivity activity,
-                                                                    List<LotteryParticipant> participants) {
-        var assignments = Optional.ofNullable(activity.getSpec().getManualAssignments()).orElse(List.of());
-        if (assignments.isEmpty()) {
-            return Mono.just(participants);
-        }
+    private Mono<Void> requireFence(LotteryActivity activity, long fencingToken) {
+        var claimed = getStatus(activity).getDrawFence();
+        return claimed != null && claimed == fencingToken
+            ? Mono.empty()
+            : Mono.error(new StaleDrawFenceException());
+    }
 
-        var participantByToken = participants.stream()
-            .filter(participant -> participant.getSpec() != null)
-            .filter(participant -> participant.getSpec().getToken() != null)
-            .collect(Collectors.toMap(
-                participant -> participant.getSpec().getToken(),
-                participant -> participant,
-                (left, right) -> left
-            ));
+    /**
+     * 结果已落库时判断是否由本令牌写入：本轮记录由本令牌写入，或没有轮次记录时活动记录的令牌即本令牌。
+     * 任务在汇总更新后、记录落库阶段完成前中断时，续跑取得新令牌并记录到活动，本轮记录仍是旧令牌；
+     * 旧令牌写入后活动已被新令牌占有，说明本轮结果正是本任务之前的持有者写入的，改记为新令牌并接受。
+     */
+    private Mono<Boolean> committedBy(LotteryActivity activity, DrawResult result, long fencingToken) {
+        var claimed = Objects.equals(getStatus(activity).getDrawFence(), fencingToken);
+        if (result.round() == null) {
+            return Mono.just(claimed);
+        }
+        return client.fetch(LotteryDrawRound.class,
+                roundName(activity.getMetadata().getName(), result.round().getRound()))
+            .flatMap(round -> {
+                var owner = round.getSpec().getDrawFence();
+                if (Objects.equals(owner, fencingToken)) {
+                    return Mono.just(true);
+                }
+                if (!claimed || owner == null || owner > fencingToken) {
+                    return Mono.just(false);
+                }
+                round.getSpec().setDrawFence(fencingToken);
+                return client.update(round).thenReturn(true);
+            })
+            .defaultIfEmpty(false);
+    }
 
-        var participantByIdentifier = participants.stream()
-            .filter(participant -> participant.getSpec() != null)
-            .filter(participant -> resolveParticipantIdentifier(participant.getSpec()) != null)
-            .collect(Collectors.toMap(
-                participant -> Objects.requireNonNull(resolveParticipantIdentifier(participant.getSpec())).toLowerCase(),
-                participant -> participant,
-                (left, right) -> left
-            ));
+    private Mono<Void> revokeDraw(String activityName, DrawResult result, long fencingToken) {
+        var round = result.round() == null
+            ? Mono.<Void>empty()
+            : client.fetch(LotteryDrawRound.class, roundName(activityName, result.round().getRound()))
+                .filter(existing -> Objects.equals(existing.getSpec().getDrawFence(), fencingToken))
+                .flatMap(client::delete)
+                .then();
+        return winnerService.revokeWinners(activityName, result.winners(), fencingToken)
+            .then(round)
+            .onErrorResume(e -> {
+                log.error("Failed to revoke stale draw result of activity {}", activityName, e);
+                return Mono.empty();
+            });
+    }
 
-        return Flux.fromIterable(assignments)
-            .concatMap(assignment -> {
-                if (assignment == null) {
-                    return Mono.empty();
+    private Mono<Void> saveRound(String activityName, DrawResult result, Instant drawnTime, long fencingToken) {
+        var spec = result.round();
+        if (spec == null) {
+            return Mono.empty();
+        }
+        spec.setWinnerCount(result.winners().size());
+        spec.setDrawnTime(drawnTime);
+        spec.setDrawFence(fencingToken);
+
+        var round = new LotteryDrawRound();
+        round.setMetadata(new Metadata());
+        round.getMetadata().setName(roundName(activityName, spec.getRound()));
+        round.setSpec(spec);
+        return client.fetch(LotteryDrawRound.class, round.getMetadata().getName())
+            .flatMap(existing -> {
+                var owner = existing.getSpec().getDrawFence();
+                if (owner != null && owner >= fencingToken) {
+                    return Mono.just(existing);
                 }
+                // 令牌更小的旧持有者留下的本轮记录，以本次结果覆盖
+                existing.setSpec(spec);
+                return client.update(existing);
+            })
+            .switchIfEmpty(Mono.defer(() -> client.create(round)))
+            .then();
+    }
 
-                if (StringUtils.isNotBlank(assignment.getParticipantToken())
-                    && participantByToken.containsKey(assignment.getParticipantToken())) {
-                    return Mono.empty();
-                }
+    /**
+     * 多轮开奖的活动在开奖时间前开奖且仍有剩余奖品时保持进行中，等待下一轮。
+     */
+    private boolean continuesAfterRound(LotteryActivity activity) {
+        var spec = activity.getSpec();
+        if (!Boolean.TRUE.equals(spec.getMultiRound())) {
+            return false;
+        }
+        var deadline = spec.getDrawTime() != null ? spec.getDrawTime() : spec.getEndTime();
+        if (deadline != null && !Instant.now().isBefore(deadline)) {
+            return false;
+        }
+        var remaining = buildRemainingMap(spec.getPrizes(), winnerCountsOf(activity));
+        return DrawSupport.totalSlots(spec.getPrizes(), remaining) > 0;
+    }
 
-                var identifier = resolveManualAssignmentIdentifier(assignment);
-                if (StringUtils.isBlank(identifier)) {
-                    return Mono.error(new IllegalStateException("指定中奖人缺少标识信息"));
-                }
+    private Mono<Optional<DrawRoundSpec>> previousRound(LotteryActivity activity) {
+        int drawnRounds = drawRoundOf(activity);
+        if (drawnRounds == 0) {
+            return Mono.just(Optional.empty());
+        }
+        return client.fetch(LotteryDrawRound.class, roundName(activity.getMetadata().getName(), drawnRounds))
+            .map(LotteryDrawRound::getSpec)
+            .map(Optional::of)
+            .defaultIfEmpty(Optional.empty());
+    }
 
-                if (participantByIdentifier.containsKey(identifier.toLowerCase())) {
-                    return Mono.empty();
-                }
+    private String roundName(String activityName, int round) {
+        return activityName + "-round-" + round;
+    }
 
-                return createManualParticipant(activity, assignment)
-                    .doOnNext(created -> {
-                        if (created.getSpec() == null) {
-                            return;
-                        }
-                        var createdSpec = created.getSpec();
-                        if (StringUtils.isNotBlank(createdSpec.getToken())) {
-                            participantByToken.put(createdSpec.getToken(), created);
-                        }
-                        var createdIdentifier = resolveParticipantIdentifier(createdSpec);
-                        if (StringUtils.isNotBlank(createdIdentifier)) {
-                            participantByIdentifier.put(createdIdentifier.toLowerCase(), created);
-                        }
-                    })
-                    .then();
-            })
-            .thenMany(getParticipants(activity.getMetadata().getName()))
-            .collectList();
+    /**
+     * 按 token 与标识索引直接查找指定中奖人的参与记录，开销只与指定人数有关，不遍历全部参与者。
+     */
+    private Mono<ManualCandidates> collectManualCandidates(LotteryActivity activity) {
+        var assignments = Optional.ofNullable(activity.getSpec().getManualAssignments()).orElse(List.of());
+        if (assignments.isEmpty()) {
+            return Mono.just(new ManualCandidates());
+        }
+
+        var activityName = activity.getMetadata().getName();
+        var tokens = assignments.stream()
+            .filter(Objects::nonNull)
+            .map(ManualAssignment::getParticipantToken)
+            .filter(StringUtils::isNotBlank)
+            .distinct()
+            .<Object>map(token -> token)
+            .toList();
+        var identifiers = assignments.stream()
+            .filter(Objects::nonNull)
+            .map(LotteryServiceImpl::resolveManualAssignmentIdentifier)
+            .filter(StringUtils::isNotBlank)
+            .map(String::toLowerCase)
+            .distinct()
+            .<Object>map(identifier -> identifier)
+            .toList();
+
+        var byToken = tokens.isEmpty()
+            ? Flux.<LotteryParticipant>empty()
+            : client.listAll(LotteryParticipant.class,
+                ListOptions.builder().fieldQuery(in("spec.token", tokens)).build(), null);
+        var byIdentifier = identifiers.isEmpty()
+            ? Flux.<LotteryParticipant>empty()
+            : client.listAll(LotteryParticipant.class,
+                ListOptions.builder()
+                    .fieldQuery(and(
+                        equal("spec.activityName", activityName),
+                        in("spec.identifier", identifiers)
+                    ))
+                    .build(),
+                null);
+        return Flux.concat(byToken, byIdentifier)
+            .filter(participant -> participant.getSpec() != null
+                && activityName.equals(participant.getSpec().getActivityName()))
+            .collect(ManualCandidates::new, ManualCandidates::add);
     }
 
-    private List<Winner> drawForParticipants(LotteryActivity activity,
-                                             List<LotteryParticipant> participants,
-                                             List<Prize> prizes,
-                                             List<Winner> existingWinners) {
-        var consumed = existingWinners.stream()
-            .map(Winner::getPrizeName)
+    /**
+     * 为找不到参与记录的指定中奖人创建记录，并并入候选集合。
+     */
+    private Mono<ManualCandidates> ensureManualParticipants(LotteryActivity activity,
+                                                           ManualCandidates candidates) {
+        var assignments = Optional.ofNullable(activity.getSpec().getManualAssignments()).orElse(List.of());
+        return Flux.fromIterable(assignments)
             .filter(Objects::nonNull)
-            .collect(Collectors.groupingBy(prizeName -> prizeName, Collectors.counting()));
+            .filter(assignment -> candidates.resolve(assignment) == null)
+            .concatMap(assignment -> createManualParticipant(activity, assignment)
+                .doOnNext(candidates::add))
+            .then(Mono.just(candidates));
+    }
+
+    private Mono<DrawResult> drawForParticipants(LotteryActivity activity,
+                                                   ManualCandidates manualCandidates,
+                                                   List<Prize> prizes,
+                                                   Map<String, Long> consumed,
+                                                   Set<String> alreadyAwardedTokens,
+                                                   DrawRoundSpec previousRound) {
         var remaining = buildRemainingMap(prizes, consumed);
-        var alreadyAwardedTokens = existingWinners.stream()
-            .map(Winner::getSourceToken)
-            .filter(StringUtils::isNotBlank)
-            .collect(Collectors.toSet());
 
         var winners = applyManualAssignments(
             activity,
-            participants,
+            manualCandidates,
             remaining,
             alreadyAwardedTokens
         );
 
-        var shuffled = new ArrayList<>(participants);
         var assignedTokens = Stream.concat(
                 alreadyAwardedTokens.stream(),
                 winners.stream().map(Winner::getSourceToken).filter(Objects::nonNull)
             )
             .collect(Collectors.toSet());
-        shuffled.removeIf(participant -> participant.getSpec() == null
-            || assignedTokens.contains(participant.getSpec().getToken()));
-        Collections.shuffle(shuffled, ThreadLocalRandom.current());
-
-        for (var prize : prizes) {
-            int slots = remaining.getOrDefault(prize.getName(), 0);
-            while (slots > 0 && !shuffled.isEmpty()) {
-                var participant = shuffled.remove(0);
-                var spec = participant.getSpec();
-                winners.add(createWinner(
-                    Objects.requireNonNullElse(spec.getUsername(), spec.getEmail()),
-                    prize.getName(),
-                    Instant.now(),
-                    spec.getToken(),
-                    "RANDOM"
-                ));
-                remaining.merge(prize.getName(), -1, Integer::sum);
-                slots--;
-            }
-        }
 
-        return winners;
+        var seed = SEED_SOURCE.nextLong();
+        var activityName = activity.getMetadata().getName();
+        var tracker = new DrawRoundTracker();
+        var round = previousRound == null ? drawRoundOf(activity) + 1 : previousRound.getRound() + 1;
+        return Mono.fromCallable(() -> drawStrategyResolver.resolve(activity))
+            .flatMap(strategy -> awardedSpecs(activity, manualCandidates, assignedTokens)
+                .flatMap(awardedSpecs -> {
+                    var exclusion = WinnerExclusion.of(activity);
+                    awardedSpecs.forEach(exclusion::occupy);
+                    var recording = drawAuditService.begin(strategy, new DrawStrategy.DrawRequest(
+                        activity,
+                        // 每轮都从全部参与者中抽取，之前各轮的未中奖者与新参与者机会相同，已中奖者经排除集合跳过
+                        getParticipants(activityName)
+                            .publishOn(computeScheduler.get())
+                            .doOnNext(tracker::offer),
+                        remaining,
+                        assignedTokens,
+                        seed,
+                        exclusion
+                    ), round, awardedSpecs);
+                    return strategy.drawWinners(recording.request())
+                        .flatMap(randomWinners -> recording.complete(strategy, randomWinners)
+                            .thenReturn(randomWinners));
+                })
+                .map(randomWinners -> {
+                    winners.addAll(randomWinners);
+                    return new DrawResult(winners, strategy.isReproducible() ? seed : null, strategy.getName(),
+                        tracker.toRound(activityName, round));
+                }));
+    }
+
+    /**
+     * 配置了中奖互斥约束时，取出已中奖者（前几轮与本次指定中奖）的参与信息，用于预先占用约束。
+     */
+    private Mono<List<LotteryParticipantSpec>> awardedSpecs(LotteryActivity activity,
+                                                           ManualCandidates manualCandidates,
+                                                           Set<String> awardedTokens) {
+        if (!WinnerExclusion.of(activity).isActive() || awardedTokens.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        var pending = new HashSet<>(awardedTokens);
+        var specs = manualCandidates.byToken().values().stream()
+            .map(LotteryParticipant::getSpec)
+            .filter(spec -> pending.remove(spec.getToken()))
+            .collect(Collectors.toCollection(ArrayList::new));
+        if (pending.isEmpty()) {
+            return Mono.just(specs);
+        }
+        return client.listAll(LotteryParticipant.class,
+                ListOptions.builder()
+                    .fieldQuery(in("spec.token", new ArrayList<Object>(pending)))
+                    .build(),
+                null)
+            .filter(participant -> participant.getSpec() != null)
+            .doOnNext(participant -> specs.add(participant.getSpec()))
+            .then(Mono.just(specs));
     }
 
     private List<Winner> applyManualAssignments(
         LotteryActivity activity,
-        List<LotteryParticipant> participants,
+        ManualCandidates candidates,
         Map<String, Integer> remaining,
         Set<String> alreadyAwardedTokens
     ) {
@@ -526,22 +849,6 @@ public class LotteryServiceImpl implements LotteryService {
             return new ArrayList<>();
         }
 
-        var participantByToken = participants.stream()
-            .filter(participant -> participant.getSpec() != null && participant.getSpec().getToken() != null)
-            .collect(Collectors.toMap(
-                participant -> participant.getSpec().getToken(),
-                participant -> participant,
-                (left, right) -> left
-            ));
-        var participantByIdentifier = participants.stream()
-            .filter(participant -> participant.getSpec() != null)
-            .filter(participant -> resolveParticipantIdentifier(participant.getSpec()) != null)
-            .collect(Collectors.toMap(
-                participant -> Objects.requireNonNull(resolveParticipantIdentifier(participant.getSpec())).toLowerCase(),
-                participant -> participant,
-                (left, right) -> left
-            ));
-
         var assignedTokens = new HashSet<String>(alreadyAwardedTokens);
         var winners = new ArrayList<Winner>();
 
@@ -564,16 +871,7 @@ public class LotteryServiceImpl implements LotteryService {
                 throw new IllegalStateException("奖品 " + prizeName + " 的指定中奖人数超过奖品数量");
             }
 
-            LotteryParticipant participant = null;
-            if (StringUtils.isNotBlank(assignment.getParticipantToken())) {
-                participant = participantByToken.get(assignment.getParticipantToken());
-            }
-            if (participant == null) {
-                var identifier = resolveManualAssignmentIdentifier(assignment);
-                if (StringUtils.isNotBlank(identifier)) {
-                    participant = participantByIdentifier.get(identifier.toLowerCase());
-                }
-            }
+            var participant = candidates.resolve(assignment);
             if (participant == null) {
                 throw new IllegalStateException("指定中奖人不存在");
             }
@@ -596,19 +894,101 @@ public class LotteryServiceImpl implements LotteryService {
         return winners;
     }
 
-    private Mono<LotteryParticipant> executeInstantDraw(LotteryActivity activity,
-                                                         String email, String displayName,
-                                                         String username, String commentName,
-                                                         String token, String ipAddress) {
-        return instantLotteryStockService.reservePrize(activity)
-            .flatMap(result -> result
-                .map(prize -> createParticipant(
-                    activity, email, displayName, username, commentName, token, ipAddress, prize.getName()
-                ).onErrorResume(error -> instantLotteryStockService.releasePrize(activity, prize.getName())
-                    .then(Mono.error(error))))
-                .orElseGet(() -> createParticipant(
-                    activity, email, displayName, username, commentName, token, ipAddress, null
-                )));
+    private Mono<LotteryParticipant> executeParticipation(LotteryActivity activity, DrawStrategy strategy,
+                                                           String email, String displayName,
+                                                           String username, String commentName,
+                                                           String token, String ipAddress) {
+        return strategy.reserve(activity, 1)
+            .map(results -> results.isEmpty() ? Optional.<PrizeReservation>empty() : results.get(0))
+            .flatMap(result -> client.create(buildParticipant(
+                    activity, email, displayName, username, commentName, token, ipAddress, result.orElse(null)
+                ))
+                .flatMap(created -> strategy.confirm(activity, result.stream().toList())
+                    .onErrorResume(error -> revokeParticipants(List.of(created), error))
+                    .thenReturn(created)))
+            .flatMap(created -> sendParticipantNotification(created, activity));
+    }
+
+    private Mono<List<LotteryParticipant>> executeParticipationBatch(LotteryActivity activity,
+                                                                     DrawStrategy strategy,
+                                                                     String email, String displayName,
+                                                                     String username, String commentName,
+                                                                     String token, String ipAddress,
+                                                                     int count) {
+        return strategy.reserve(activity, count)
+            .flatMap(reservations -> Flux.fromIterable(reservations)
+                .flatMapSequential(reservation -> client.create(buildParticipant(
+                        activity, email, displayName, username, commentName, token, ipAddress,
+                        reservation.orElse(null)
+                    ))
+                    .map(created -> SpinOutcome.created(created, reservation.orElse(null)))
+                    .onErrorResume(error -> Mono.just(SpinOutcome.failed(error))), BATCH_PERSIST_CONCURRENCY)
+                .collectList())
+            .flatMap(outcomes -> {
+                var created = outcomes.stream()
+                    .filter(outcome -> !outcome.isFailed())
+                    .toList();
+                if (created.isEmpty()) {
+                    return Mono.error(outcomes.get(0).error());
+                }
+                var confirmed = created.stream()
+                    .map(SpinOutcome::reservation)
+                    .filter(Objects::nonNull)
+                    .toList();
+                var participants = created.stream().map(SpinOutcome::participant).toList();
+                return strategy.confirm(activity, confirmed)
+                    .onErrorResume(error -> revokeParticipants(participants, error))
+                    .then(sendBatchNotifications(activity, participants))
+                    .thenReturn(participants);
+            });
+    }
+
+    /**
+     * 确认失败时删除已写入的参与记录后返回原错误，调用方据此释放名额与防重复占用；
+     * 删除失败时记录仍然存在，返回 {@link PersistedParticipationException}，调用方不应释放。
+     */
+    private Mono<Void> revokeParticipants(List<LotteryParticipant> participants, Throwable error) {
+        return Flux.fromIterable(participants)
+            .concatMap(client::delete)
+            .then(Mono.<Void>error(error))
+            .onErrorMap(deleteError -> deleteError != error, deleteError -> {
+                log.error("Failed to revoke unconfirmed participants of activity {}",
+                    participants.get(0).getSpec().getActivityName(), deleteError);
+                return new PersistedParticipationException(error);
+            });
+    }
+
+    private Mono<Void> sendBatchNotifications(LotteryActivity activity, List<LotteryParticipant> participants) {
+        var winners = participants.stream()
+            .filter(participant -> Boolean.TRUE.equals(participant.getSpec().getIsWinner()))
+            .toList();
+        Flux<Void> notifications = winners.isEmpty()
+            ? Flux.from(notificationService.sendInstantNoPrizeNotification(participants.get(0), activity))
+            : Flux.fromIterable(winners)
+                .concatMap(winner -> notificationService.sendWinningNotification(
+                    winner, activity, winner.getSpec().getPrizeName()));
+        return notifications.onErrorResume(e -> Mono.empty()).then();
+    }
+
+    private Mono<Void> validateSpinCount(LotteryActivity activity, int count) {
+        var spec = activity.getSpec();
+        if (count <= 0) {
+            return Mono.error(new IllegalArgumentException("抽奖次数必须大于 0"));
+        }
+        if (count == 1) {
+            return Mono.empty();
+        }
+        var lotteryType = spec.getLotteryType();
+        if (lotteryType != LotteryType.WHEEL && lotteryType != LotteryType.DRAW) {
+            return Mono.error(new IllegalStateException("连抽仅支持即时开奖活动"));
+        }
+        if (!Boolean.TRUE.equals(spec.getAllowDuplicate())) {
+            return Mono.error(new IllegalStateException("该活动不允许重复参与，无法连抽"));
+        }
+        if (count > spec.getMaxSpinsPerRequest()) {
+            return Mono.error(new IllegalStateException("单次最多连抽 " + spec.getMaxSpinsPerRequest() + " 次"));
+        }
+        return Mono.empty();
     }
 
     private Mono<Void> validateEmail(String email) {
@@ -634,7 +1014,7 @@ public class LotteryServiceImpl implements LotteryService {
             };
             return Mono.error(new IllegalStateException(msg));
         }
-        if (status.getState() != State.RUNNING) {
+        if (ActivityStateUtil.effectiveState(activity, Instant.now()) != State.RUNNING) {
             return Mono.error(new IllegalStateException("活动未在进行中"));
         }
 
@@ -650,12 +1030,19 @@ public class LotteryServiceImpl implements LotteryService {
             .flatMap(current -> {
                 status.setParticipantCount(current);
                 if (spec.getMaxParticipants() != null && current >= spec.getMaxParticipants()) {
+                    closedFlagService.markFull(activity.getMetadata().getName());
                     return Mono.<Void>error(new IllegalStateException("参与人数已满"));
                 }
                 return Mono.empty();
             });
     }
 
+    private Mono<Void> rejectIfFull(String activityName) {
+        return closedFlagService.isFull(activityName)
+            ? Mono.error(new IllegalStateException("参与人数已满"))
+            : Mono.empty();
+    }
+
     private Mono<Void> checkDuplicate(LotteryActivity activity, String email) {
         if (Boolean.TRUE.equals(activity.getSpec().getAllowDuplicate())) {
             return Mono.empty();
@@ -671,19 +1058,42 @@ public class LotteryServiceImpl implements LotteryService {
                                                     String commentName, String ipAddress) {
         var activityName = activity.getMetadata().getName();
         var token = generateToken(activityName, email);
-        var lotteryType = activity.getSpec().getLotteryType();
 
-        Mono<LotteryParticipant> participateMono = switch (lotteryType) {
-            case WHEEL, DRAW -> executeInstantDraw(activity, email, displayName, username, commentName, token, ipAddress);
-            case null, default -> createParticipant(activity, email, displayName, username, commentName, token, ipAddress, null);
-        };
+        Mono<LotteryParticipant> participateMono = Mono.fromCallable(() -> drawStrategyResolver.resolve(activity))
+            .flatMap(strategy -> executeParticipation(
+                activity, strategy, email, displayName, username, commentName, token, ipAddress));
 
         return acquireDuplicateGuard(activity, token)
             .flatMap(duplicateGuard -> acquireParticipantSlot(activity)
-                .flatMap(slot -> participateMono.onErrorResume(error -> releaseParticipantSlot(slot)
-                    .then(releaseDuplicateGuard(duplicateGuard))
-                    .then(Mono.error(error))))
-                .onErrorResume(error -> releaseDuplicateGuard(duplicateGuard).then(Mono.error(error))));
+                .flatMap(slot -> participateMono.onErrorResume(
+                    error -> !(error instanceof PersistedParticipationException),
+                    error -> releaseParticipantSlot(slot)
+                        .then(releaseDuplicateGuard(duplicateGuard))
+                        .then(Mono.error(error))))
+                .onErrorResume(
+                    error -> !(error instanceof PersistedParticipationException),
+                    error -> releaseDuplicateGuard(duplicateGuard).then(Mono.error(error))));
+    }
+
+    private Mono<List<LotteryParticipant>> doParticipateBatch(LotteryActivity activity, String email,
+                                                              String displayName, String username,
+                                                              String commentName, String ipAddress,
+                                                              int count) {
+        if (count == 1) {
+            return doParticipate(activity, email, displayName, username, commentName, ipAddress)
+                .map(List::of);
+        }
+
+        var token = generateToken(activity.getMetadata().getName(), email);
+        return Mono.fromCallable(() -> drawStrategyResolver.resolve(activity))
+            .flatMap(strategy -> acquireParticipantSlots(activity, count)
+                .flatMap(slot -> executeParticipationBatch(
+                        activity, strategy, email, displayName, username, commentName, token, ipAddress, count)
+                    .flatMap(created -> created.size() < count
+                        ? releaseParticipantSlot(slot.partial(count - created.size())).thenReturn(created)
+                        : Mono.just(created))
+                    .onErrorResume(error -> !(error instanceof PersistedParticipationException),
+                        error -> releaseParticipantSlot(slot).then(Mono.error(error)))));
     }
 
 
@@ -735,6 +1145,10 @@ public class LotteryServiceImpl implements LotteryService {
     }
 
     private Mono<ParticipantSlotReservation> acquireParticipantSlot(LotteryActivity activity) {
+        return acquireParticipantSlots(activity, 1);
+    }
+
+    private Mono<ParticipantSlotReservation> acquireParticipantSlots(LotteryActivity activity, int count) {
         var maxParticipants = Optional.ofNullable(activity.getSpec())
             .map(LotteryActivitySpec::getMaxParticipants)
             .orElse(null);
@@ -755,13 +1169,20 @@ public class LotteryServiceImpl implements LotteryService {
                             new String[]{key},
                             Integer.toString(currentCount),
                             Integer.toString(maxParticipants),
-                            Long.toString(ttlSeconds)
+                            Long.toString(ttlSeconds),
+                            Integer.toString(count)
                         )
                         .toCompletableFuture())
                     .map(Number.class::cast)
-                    .flatMap(result -> result.intValue() > 0
-                        ? Mono.just(new ParticipantSlotReservation(true, activityName))
-                        : Mono.error(new IllegalStateException("参与人数已满")))));
+                    .flatMap(result -> {
+                        if (result.intValue() > 0) {
+                            return Mono.just(new ParticipantSlotReservation(true, activityName, count));
+                        }
+                        if (count == 1) {
+                            closedFlagService.markFull(activityName);
+                        }
+                        return Mono.error(new IllegalStateException("参与人数已满"));
+                    })));
     }
 
     private Mono<DuplicateParticipationGuard> acquireDuplicateGuard(LotteryActivity activity, String token) {
@@ -815,9 +1236,11 @@ public class LotteryServiceImpl implements LotteryService {
                     .eval(
                         RELEASE_PARTICIPANT_SLOT_SCRIPT,
                         io.lettuce.core.ScriptOutputType.INTEGER,
-                        new String[]{participantLimitKey(reservation.activityName())}
+                        new String[]{participantLimitKey(reservation.activityName())},
+                        Integer.toString(reservation.count())
                     )
                     .toCompletableFuture())
+                .doOnSuccess(ignored -> closedFlagService.reopen(reservation.activityName()))
                 .then())
             .onErrorResume(throwable -> Mono.empty());
     }
@@ -871,26 +1294,35 @@ public class LotteryServiceImpl implements LotteryService {
 
         var lotteryType = activity.getSpec().getLotteryType();
         if (lotteryType == LotteryType.WHEEL || lotteryType == LotteryType.DRAW) {
+            if (closedFlagService.isSoldOut(activity.getMetadata().getName())) {
+                return Mono.just(prizes.stream()
+                    .collect(Collectors.toMap(Prize::getName, prize -> 0, (a, b) -> a)));
+            }
             return getInstantWinnerCounts(activity.getMetadata().getName())
                 .map(consumed -> buildRemainingMap(prizes, consumed));
         }
 
-        var consumed = Optional.ofNullable(activity.getStatus())
-            .map(LotteryActivityStatus::getWinners)
-            .orElse(List.of())
+        return Mono.just(buildRemainingMap(prizes, winnerCountsOf(activity)));
+    }
+
+    private Map<String, Long> winnerCountsOf(LotteryActivity activity) {
+        return Optional.ofNullable(activity.getStatus())
+            .map(LotteryActivityStatus::getPrizeWinnerCounts)
+            .orElse(Map.of())
+            .entrySet()
             .stream()
-            .map(Winner::getPrizeName)
-            .filter(Objects::nonNull)
-            .collect(Collectors.groupingBy(prizeName -> prizeName, Collectors.counting()));
-        return Mono.just(buildRemainingMap(prizes, consumed));
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().longValue()));
     }
 
+    /**
+     * 读取请求路径上的统计，不占用有界的开奖计算线程池，流量高峰时也不会因队列满而失败。
+     */
     private Mono<Map<String, Long>> getInstantWinnerCounts(String activityName) {
-        return getParticipants(activityName)
-            .filter(participant -> Boolean.TRUE.equals(participant.getSpec().getIsWinner()))
-            .map(participant -> participant.getSpec().getPrizeName())
-            .filter(Objects::nonNull)
-            .collect(Collectors.groupingBy(prizeName -> prizeName, Collectors.counting()));
+        return ParticipantColumns.countWinnersByPrize(client.listAll(LotteryParticipant.class,
+            ListOptions.builder()
+                .fieldQuery(and(equal("spec.activityName", activityName), equal("spec.isWinner", "true")))
+                .build(),
+            null), Schedulers.boundedElastic());
     }
 
     private Map<String, Integer> buildRemainingMap(List<Prize> prizes, Map<String, Long> consumed) {
@@ -919,9 +1351,48 @@ public class LotteryServiceImpl implements LotteryService {
         ));
     }
 
-    private record ParticipantSlotReservation(boolean acquired, String activityName) {
+    private record ParticipantSlotReservation(boolean acquired, String activityName, int count) {
         static ParticipantSlotReservation noop() {
-            return new ParticipantSlotReservation(false, null);
+            return new ParticipantSlotReservation(false, null, 0);
+        }
+
+        ParticipantSlotReservation partial(int releaseCount) {
+            return new ParticipantSlotReservation(acquired, activityName, releaseCount);
+        }
+    }
+
+    private record SpinOutcome(LotteryParticipant participant,
+                               PrizeReservation reservation,
+                               Throwable error) {
+        static SpinOutcome created(LotteryParticipant participant,
+                                   PrizeReservation reservation) {
+            return new SpinOutcome(participant, reservation, null);
+        }
+
+        static SpinOutcome failed(Throwable error) {
+            return new SpinOutcome(null, null, error);
+        }
+
+        boolean isFailed() {
+            return error != null;
+        }
+    }
+
+    /**
+     * 参与记录已写入但未能撤销，名额与防重复占用需保留。
+     */
+    private static final class PersistedParticipationException extends IllegalStateException {
+        PersistedParticipationException(Throwable cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 活动记录的开奖防护令牌已被更新的锁持有者取代。
+     */
+    private static final class StaleDrawFenceException extends IllegalStateException {
+        StaleDrawFenceException() {
+            super("开奖锁已被其他节点接管，本次开奖结果未写入");
         }
     }
 
@@ -931,27 +1402,69 @@ public class LotteryServiceImpl implements LotteryService {
         }
     }
 
-    private Mono<Winner> findWinnerFromActivity(String activityName, LotteryParticipantSpec spec) {
-        return client.get(LotteryActivity.class, activityName)
-            .flatMap(activity -> {
-                var winners = Optional.ofNullable(activity.getStatus())
-                    .map(LotteryActivityStatus::getWinners)
-                    .orElse(List.of());
-
-                var identifier = Objects.requireNonNullElse(spec.getUsername(), spec.getEmail());
-                return winners.stream()
-                    .filter(w -> identifier.equals(w.getIdentifier()))
-                    .findFirst()
-                    .map(Mono::just)
-                    .orElse(Mono.empty());
-            });
+    private record PreparedDraw(int participantCount, ManualCandidates manualCandidates) {
+    }
+
+    /**
+     * 指定中奖人的候选参与记录，按 token 与小写标识各索引一次，先到者优先。
+     */
+    private record ManualCandidates(Map<String, LotteryParticipant> byToken,
+                                    Map<String, LotteryParticipant> byIdentifier) {
+        ManualCandidates() {
+            this(new LinkedHashMap<>(), new HashMap<>());
+        }
+
+        void add(LotteryParticipant participant) {
+            var spec = participant.getSpec();
+            if (spec == null) {
+                return;
+            }
+            if (StringUtils.isNotBlank(spec.getToken())) {
+                byToken.putIfAbsent(spec.getToken(), participant);
+            }
+            var identifier = resolveParticipantIdentifier(spec);
+            if (identifier != null) {
+                byIdentifier.putIfAbsent(identifier.toLowerCase(), participant);
+            }
+        }
+
+        LotteryParticipant resolve(ManualAssignment assignment) {
+            if (StringUtils.isNotBlank(assignment.getParticipantToken())) {
+                var participant = byToken.get(assignment.getParticipantToken());
+                if (participant != null) {
+                    return participant;
+                }
+            }
+            var identifier = resolveManualAssignmentIdentifier(assignment);
+            return StringUtils.isBlank(identifier) ? null : byIdentifier.get(identifier.toLowerCase());
+        }
     }
 
-    private Mono<LotteryParticipant> createParticipant(LotteryActivity activity, String email,
-                                                        String displayName, String username,
-                                                        String commentName, String token,
-                                                        String ipAddress, String prizeName) {
-        
+    private Mono<LotteryParticipant> sendParticipantNotification(LotteryParticipant participant,
+                                                                 LotteryActivity activity) {
+        Mono<Void> notification;
+        var prizeName = participant.getSpec().getPrizeName();
+        var lotteryType = activity.getSpec().getLotteryType();
+        boolean isInstantDraw = lotteryType == LotteryType.WHEEL || lotteryType == LotteryType.DRAW;
+
+        if (isInstantDraw) {
+            if (prizeName != null) {
+                notification = notificationService.sendWinningNotification(participant, activity, prizeName);
+            } else {
+                notification = notificationService.sendInstantNoPrizeNotification(participant, activity);
+            }
+        } else if (prizeName != null) {
+            notification = notificationService.sendWinningNotification(participant, activity, prizeName);
+        } else {
+            notification = notificationService.sendParticipateNotification(participant, activity);
+        }
+        return notification.onErrorResume(e -> Mono.empty()).thenReturn(participant);
+    }
+
+    private LotteryParticipant buildParticipant(LotteryActivity activity, String email,
+                                                String displayName, String username,
+                                                String commentName, String token,
+                                                String ipAddress, PrizeReservation reservation) {
         var participant = new LotteryParticipant();
         participant.setMetadata(new Metadata());
         participant.getMetadata().setGenerateName("participant-");
@@ -966,36 +1479,30 @@ public class LotteryServiceImpl implements LotteryService {
         spec.setToken(token);
         spec.setParticipateTime(Instant.now());
         spec.setIpAddress(ipAddress);
+        spec.setWeight(ticketWeight(activity.getSpec(), username, commentName));
 
-        if (prizeName != null) {
+        if (reservation != null) {
             spec.setIsWinner(true);
-            spec.setPrizeName(prizeName);
+            spec.setPrizeName(reservation.prize().getName());
             spec.setWinTime(Instant.now());
+            spec.setLeaseId(reservation.leaseId());
         } else {
             spec.setIsWinner(false);
         }
 
         participant.setSpec(spec);
-        return client.create(participant)
-            .flatMap(p -> {
-                Mono<Void> notification;
-                var lotteryType = activity.getSpec().getLotteryType();
-                boolean isInstantDraw = lotteryType == LotteryType.WHEEL || lotteryType == LotteryType.DRAW;
-                
-                
-                if (isInstantDraw) {
-                    if (prizeName != null) {
-                        notification = notificationService.sendWinningNotification(p, activity, prizeName);
-                    } else {
-                        notification = notificationService.sendInstantNoPrizeNotification(p, activity);
-                    }
-                } else if (prizeName != null) {
-                    notification = notificationService.sendWinningNotification(p, activity, prizeName);
-                } else {
-                    notification = notificationService.sendParticipateNotification(p, activity);
-                }
-                return notification.onErrorResume(e -> Mono.empty()).thenReturn(p);
-            });
+        return participant;
+    }
+
+    private int ticketWeight(LotteryActivitySpec spec, String username, String commentName) {
+        int weight = 1;
+        if (username != null) {
+            weight += Math.max(0, Objects.requireNonNullElse(spec.getLoginBonusTickets(), 0));
+        }
+        if (commentName != null) {
+            weight += Math.max(0, Objects.requireNonNullElse(spec.getCommentBonusTickets(), 0));
+        }
+        return weight;
     }
 
     private Mono<LotteryParticipant> createManualParticipant(LotteryActivity activity,
@@ -1034,7 +1541,7 @@ public class LotteryServiceImpl implements LotteryService {
             }));
     }
 
-    private String resolveManualAssignmentIdentifier(LotteryActivity.ManualAssignment assignment) {
+    private static String resolveManualAssignmentIdentifier(LotteryActivity.ManualAssignment assignment) {
         if (assignment == null) {
             return null;
         }
@@ -1044,7 +1551,7 @@ public class LotteryServiceImpl implements LotteryService {
         );
     }
 
-    private String resolveParticipantIdentifier(LotteryParticipantSpec spec) {
+    private static String resolveParticipantIdentifier(LotteryParticipantSpec spec) {
         if (spec == null) {
             return null;
         }
@@ -0,0 +1,246 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.service.LotterySimulationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * 在 Java 中重写 {@code RedisInstantLotteryStockService} 扣库存脚本的判定规则：
+ * 每次抽奖取 0~99 的随机数，按奖品顺序在可放出的奖品上累加概率命中；奖品可放出需要库存大于 0、概率大于 0，
+ * 且配置了每小时放量时已发出数量小于按活动开始后小时数累计的额度。
+ * <p>
+ * 每轮从完整库存开始，抽奖在模拟时长内均匀分布。各轮分散到 {@link LotteryComputeScheduler} 的线程上执行，
+ * 不占用公共 ForkJoinPool；随机数生成器由根种子依次 {@link SplittableRandom#split() 拆分}，每轮独占一个，
+ * 汇总前按轮次排序，因此结果与并行度和完成顺序无关、可按种子复现。
+ */
+@Service
+@RequiredArgsConstructor
+public class LotterySimulationServiceImpl implements LotterySimulationService {
+
+    private static final int DEFAULT_SPINS = 1_000_000;
+    private static final int DEFAULT_RUNS = 100;
+    private static final int MAX_SPINS = 10_000_000;
+    private static final int MAX_RUNS = 1000;
+    private static final long MAX_TOTAL_SPINS = 200_000_000L;
+    private static final Duration DEFAULT_DURATION = Duration.ofDays(1);
+    private static final Duration MAX_DURATION = Duration.ofDays(3660);
+    private static final long PACING_BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final ReactiveExtensionClient client;
+    private final LotteryComputeScheduler computeScheduler;
+
+    @Override
+    public Mono<SimulationResult> simulate(String activityName, SimulationOptions options) {
+        return client.get(LotteryActivity.class, activityName)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("活动不存在")))
+            .map(activity -> toConfig(activity, options))
+            .flatMap(config -> run(activityName, config));
+    }
+
+    private SimulationConfig toConfig(LotteryActivity activity, SimulationOptions options) {
+        var spec = activity.getSpec();
+        var prizes = Optional.ofNullable(options.getPrizes())
+            .or(() -> Optional.ofNullable(spec.getPrizes()))
+            .orElse(List.of());
+        if (prizes.isEmpty()) {
+            throw new IllegalArgumentException("活动未配置奖品");
+        }
+
+        int spins = Optional.ofNullable(options.getSpins())
+            .or(() -> Optional.ofNullable(spec.getMaxParticipants()).filter(max -> max > 0))
+            .orElse(DEFAULT_SPINS);
+        int runs = Objects.requireNonNullElse(options.getRuns(), DEFAULT_RUNS);
+        if (spins <= 0 || spins > MAX_SPINS) {
+            throw new IllegalArgumentException("每轮抽奖次数需在 1 到 " + MAX_SPINS + " 之间");
+        }
+        if (runs <= 0 || runs > MAX_RUNS) {
+            throw new IllegalArgumentException("模拟轮数需在 1 到 " + MAX_RUNS + " 之间");
+        }
+        if ((long) spins * runs > MAX_TOTAL_SPINS) {
+            throw new IllegalArgumentException("单次模拟的抽奖总次数不能超过 " + MAX_TOTAL_SPINS);
+        }
+
+        var duration = Optional.ofNullable(options.getDurationSeconds())
+            .map(Duration::ofSeconds)
+            .or(() -> spec.getStartTime() != null && spec.getEndTime() != null
+                ? Optional.of(Duration.between(spec.getStartTime(), spec.getEndTime()))
+                : Optional.empty())
+            .orElse(DEFAULT_DURATION);
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(MAX_DURATION) > 0) {
+            throw new IllegalArgumentException("模拟时长需为正数且不超过 " + MAX_DURATION.toDays() + " 天");
+        }
+
+        long seed = Optional.ofNullable(options.getSeed())
+            .orElseGet(() -> ThreadLocalRandom.current().nextLong());
+        return new SimulationConfig(
+            prizes,
+            prizes.stream().mapToInt(prize -> Objects.requireNonNullElse(prize.getProbability(), 0)).toArray(),
+            prizes.stream().mapToInt(prize -> Objects.requireNonNullElse(prize.getQuantity(), 0)).toArray(),
+            prizes.stream().mapToInt(prize -> Objects.requireNonNullElse(prize.getReleasePerHour(), 0)).toArray(),
+            spins, runs, seed, duration.toMillis());
+    }
+
+    private Mono<SimulationResult> run(String activityName, SimulationConfig config) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            var root = new SplittableRandom(config.seed());
+            var randoms = Stream.generate(root::split)
+                .limit(config.runs())
+                .toArray(SplittableRandom[]::new);
+            return Flux.range(0, config.runs())
+                .parallel()
+                .runOn(computeScheduler.get(), 1)
+                .map(run -> simulateRun(config, run, randoms[run]))
+                .collectSortedList(Comparator.comparingInt(RunOutcome::run))
+                .map(outcomes -> summarize(activityName, config, outcomes, startedAt));
+        });
+    }
+
+    private SimulationResult summarize(String activityName, SimulationConfig config, List<RunOutcome> outcomes,
+                                       long startedAt) {
+        var winRates = outcomes.stream()
+            .mapToDouble(outcome -> (double) outcome.wins() / config.spins())
+            .toArray();
+        var soldOutSeconds = outcomes.stream()
+            .mapToLong(RunOutcome::soldOutSpin)
+            .filter(spin -> spin >= 0)
+            .mapToDouble(config::secondsAt)
+            .toArray();
+
+        var prizeOutcomes = new ArrayList<PrizeOutcome>(config.prizes().size());
+        for (int i = 0; i < config.prizes().size(); i++) {
+            int index = i;
+            double meanAwarded = outcomes.stream()
+                .mapToInt(outcome -> outcome.awarded()[index])
+                .average()
+                .orElse(0);
+            var prizeSoldOut = outcomes.stream()
+                .mapToLong(outcome -> outcome.prizeSoldOutSpins()[index])
+                .filter(spin -> spin >= 0)
+                .mapToDouble(config::secondsAt)
+                .toArray();
+            prizeOutcomes.add(new PrizeOutcome(config.prizes().get(i).getName(), config.quantities()[i],
+                config.probabilities()[i], meanAwarded, prizeSoldOut.length, distribution(prizeSoldOut)));
+        }
+
+        return new SimulationResult(activityName, config.spins(), config.runs(), config.seed(),
+            Duration.ofMillis(config.durationMillis()).toSeconds(),
+            Duration.ofNanos(System.nanoTime() - startedAt).toMillis(),
+            distribution(winRates), soldOutSeconds.length, distribution(soldOutSeconds), prizeOutcomes);
+    }
+
+    /**
+     * 模拟一轮抽奖。所有奖品（概率大于 0 的）抽完后剩余的抽奖必然不中，直接结束。
+     */
+    private static RunOutcome simulateRun(SimulationConfig config, int run, SplittableRandom random) {
+        int prizeCount = config.probabilities().length;
+        var stocks = config.quantities().clone();
+        var awarded = new int[prizeCount];
+        var allowances = new int[prizeCount];
+        var prizeSoldOutSpins = new long[prizeCount];
+        Arrays.fill(prizeSoldOutSpins, -1);
+
+        int live = 0;
+        for (int i = 0; i < prizeCount; i++) {
+            if (stocks[i] > 0 && config.probabilities()[i] > 0) {
+                live++;
+            }
+        }
+        int wins = 0;
+        long soldOutSpin = live == 0 ? 0 : -1;
+        long bucket = 0;
+        for (int spin = 0; spin < config.spins() && live > 0; spin++) {
+            long elapsedBuckets = config.millisAt(spin) / PACING_BUCKET_MILLIS + 1;
+            if (elapsedBuckets != bucket) {
+                bucket = elapsedBuckets;
+                for (int i = 0; i < prizeCount; i++) {
+                    int pace = config.paces()[i];
+                    allowances[i] = pace > 0
+                        ? (int) Math.min(config.quantities()[i], pace * elapsedBuckets)
+                        : Integer.MAX_VALUE;
+                }
+            }
+
+            int rand = random.nextInt(100);
+            int cumulative = 0;
+            int picked = -1;
+            for (int i = 0; i < prizeCount; i++) {
+                int probability = config.probabilities()[i];
+                if (stocks[i] <= 0 || probability <= 0 || awarded[i] >= allowances[i]) {
+                    continue;
+                }
+                cumulative += probability;
+                if (rand < cumulative) {
+                    picked = i;
+                    break;
+                }
+            }
+            if (picked < 0) {
+                continue;
+            }
+
+            wins++;
+            awarded[picked]++;
+            if (--stocks[picked] == 0) {
+                prizeSoldOutSpins[picked] = spin;
+                if (--live == 0) {
+                    soldOutSpin = spin;
+                }
+            }
+        }
+        return new RunOutcome(run, wins, soldOutSpin, awarded, prizeSoldOutSpins);
+    }
+
+    private static Distribution distribution(double[] values) {
+        if (values.length == 0) {
+            return null;
+        }
+        var sorted = values.clone();
+        Arrays.sort(sorted);
+        return new Distribution(Arrays.stream(sorted).average().orElse(0), sorted[0],
+            percentile(sorted, 0.05), percentile(sorted, 0.5), percentile(sorted, 0.95),
+            sorted[sorted.length - 1]);
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    private record SimulationConfig(List<Prize> prizes, int[] probabilities, int[] quantities, int[] paces,
+                                    int spins, int runs, long seed, long durationMillis) {
+
+        /** 第 spin 次抽奖距活动开始的毫秒数 */
+        long millisAt(long spin) {
+            return spin * durationMillis / spins;
+        }
+
+        double secondsAt(long spin) {
+            return millisAt(spin) / 1000.0;
+        }
+    }
+
+    /**
+     * @param run 轮次序号，汇总时按此排序
+     * @param soldOutSpin 所有奖品抽完时的抽奖序号，未抽完为 -1
+     * @param prizeSoldOutSpins 各奖品抽完时的抽奖序号，未抽完为 -1
+     */
+    private record RunOutcome(int run, int wins, long soldOutSpin, int[] awarded, long[] prizeSoldOutSpins) {
+    }
+}
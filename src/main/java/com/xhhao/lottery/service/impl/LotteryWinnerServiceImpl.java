@@ -0,0 +1,264 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivityStatus;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryWinner;
+import com.xhhao.lottery.entity.LotteryWinner.LotteryWinnerSpec;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequestImpl;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static run.halo.app.extension.index.query.Queries.and;
+import static run.halo.app.extension.index.query.Queries.equal;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LotteryWinnerServiceImpl implements LotteryWinnerService {
+
+    private static final int SAVE_CONCURRENCY = 8;
+    /** 记录并发写入，创建时间不反映开奖顺序，按轮次与本轮内的位置排序 */
+    private static final Sort WINNER_ORDER = Sort.by(
+        Sort.Order.asc("spec.round"),
+        Sort.Order.asc("spec.position"),
+        Sort.Order.asc("metadata.name")
+    );
+
+    private static final Retry MIGRATION_RETRY = Retry.backoff(5, Duration.ofSeconds(2));
+
+    private final ReactiveExtensionClient client;
+
+    @Override
+    public Mono<Void> saveWinners(String activityName, List<Winner> winners, Integer round, Long drawFence) {
+        return Flux.range(0, winners.size())
+            .map(position -> toExtension(activityName, winners.get(position), round, position, drawFence))
+            .flatMapSequential(winner -> client.fetch(LotteryWinner.class, winner.getMetadata().getName())
+                    .flatMap(existing -> takeOver(existing, drawFence))
+                    .switchIfEmpty(Mono.defer(() -> client.create(winner))),
+                SAVE_CONCURRENCY)
+            .then();
+    }
+
+    @Override
+    public Mono<Void> revokeWinners(String activityName, List<Winner> winners, long drawFence) {
+        return Flux.fromIterable(winners)
+            .map(winner -> winnerName(activityName, winner))
+            .distinct()
+            .flatMap(name -> client.fetch(LotteryWinner.class, name)
+                    .filter(existing -> Objects.equals(existing.getSpec().getDrawFence(), drawFence))
+                    .flatMap(client::delete),
+                SAVE_CONCURRENCY)
+            .then();
+    }
+
+    private Mono<LotteryWinner> takeOver(LotteryWinner existing, Long drawFence) {
+        var current = existing.getSpec().getDrawFence();
+        if (drawFence == null || current == null || current >= drawFence) {
+            return Mono.just(existing);
+        }
+        existing.getSpec().setDrawFence(drawFence);
+        return client.update(existing);
+    }
+
+    @Override
+    public Mono<ListResult<Winner>> listWinners(String activityName, int page, int size) {
+        int pageNumber = Math.max(1, page);
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        return client.listBy(LotteryWinner.class, byActivity(activityName),
+                PageRequestImpl.of(pageNumber, pageSize, WINNER_ORDER))
+            .map(result -> new ListResult<>(result.getPage(), result.getSize(), result.getTotal(),
+                result.getItems().stream().map(LotteryWinnerServiceImpl::toWinner).toList()))
+            .flatMap(result -> result.getTotal() > 0
+                ? Mono.just(result)
+                : legacyWinners(activityName)
+                    .map(legacy -> pageOf(legacy, pageNumber, pageSize))
+                    .defaultIfEmpty(result));
+    }
+
+    @Override
+    public Flux<Winner> streamWinners(String activityName) {
+        return client.listAll(LotteryWinner.class, byActivity(activityName), WINNER_ORDER)
+            .map(LotteryWinnerServiceImpl::toWinner)
+            .switchIfEmpty(legacyWinners(activityName).flatMapIterable(Function.identity()));
+    }
+
+    @Override
+    public Flux<Winner> streamWinners(String activityName, int round) {
+        return client.listAll(LotteryWinner.class,
+                ListOptions.builder()
+                    .fieldQuery(and(equal("spec.activityName", activityName),
+                        equal("spec.round", round)))
+                    .build(),
+                WINNER_ORDER)
+            .map(LotteryWinnerServiceImpl::toWinner);
+    }
+
+    @Override
+    public Mono<Winner> findWinner(String activityName, String token) {
+        if (StringUtils.isBlank(token)) {
+            return Mono.empty();
+        }
+        return client.listAll(LotteryWinner.class,
+                ListOptions.builder()
+                    .fieldQuery(and(equal("spec.activityName", activityName), equal("spec.sourceToken", token)))
+                    .build(),
+                null)
+            .next()
+            .map(LotteryWinnerServiceImpl::toWinner)
+            .switchIfEmpty(legacyWinners(activityName)
+                .flatMapIterable(Function.identity())
+                .filter(winner -> token.equals(winner.getSourceToken()))
+                .next());
+    }
+
+    /**
+     * 将本次中奖者累加到活动的中奖汇总。
+     */
+    static void addWinnerCounts(LotteryActivityStatus status, List<Winner> winners) {
+        var counts = new HashMap<>(Optional.ofNullable(status.getPrizeWinnerCounts()).orElse(new HashMap<>()));
+        winners.stream()
+            .map(Winner::getPrizeName)
+            .filter(Objects::nonNull)
+            .forEach(prizeName -> counts.merge(prizeName, 1, Integer::sum));
+        status.setPrizeWinnerCounts(counts);
+        status.setWinnerCount(Objects.requireNonNullElse(status.getWinnerCount(), 0) + winners.size());
+    }
+
+    @Override
+    public Mono<Void> migrateLegacyWinners() {
+        return client.listAll(LotteryActivity.class,
+                ListOptions.builder().fieldQuery(equal("status.state", State.DRAWN.name())).build(),
+                null)
+            .filter(LotteryWinnerServiceImpl::hasLegacyWinners)
+            .concatMap(activity -> migrateLegacyWinners(activity.getMetadata().getName())
+                .retryWhen(MIGRATION_RETRY)
+                .onErrorResume(e -> {
+                    log.warn("Failed to migrate winners of lottery activity {}",
+                        activity.getMetadata().getName(), e);
+                    return Mono.empty();
+                }))
+            .retryWhen(MIGRATION_RETRY)
+            .then();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean hasLegacyWinners(LotteryActivity activity) {
+        return activity.getStatus() != null && activity.getStatus().getWinners() != null;
+    }
+
+    /**
+     * 迁移完成前活动还没有中奖记录，读取时使用活动状态中的旧名单。
+     */
+    @SuppressWarnings("deprecation")
+    private Mono<List<Winner>> legacyWinners(String activityName) {
+        return client.fetch(LotteryActivity.class, activityName)
+            .mapNotNull(activity -> activity.getStatus() == null ? null : activity.getStatus().getWinners());
+    }
+
+    private static ListResult<Winner> pageOf(List<Winner> winners, int page, int size) {
+        int from = (int) Math.min(winners.size(), (long) (page - 1) * size);
+        int to = Math.min(winners.size(), from + size);
+        return new ListResult<>(page, size, winners.size(), winners.subList(from, to));
+    }
+
+    /**
+     * 旧版本把中奖名单写在活动状态里，迁移为独立记录后清空并补齐汇总。
+     */
+    @SuppressWarnings("deprecation")
+    private Mono<Void> migrateLegacyWinners(String activityName) {
+        return client.get(LotteryActivity.class, activityName)
+            .flatMap(activity -> {
+                var status = activity.getStatus();
+                var legacy = status.getWinners();
+                if (legacy == null) {
+                    return Mono.empty();
+                }
+                return saveWinners(activityName, legacy, null, null)
+                    .then(Mono.defer(() -> {
+                        status.setWinners(null);
+                        status.setWinnerCount(0);
+                        status.setPrizeWinnerCounts(null);
+                        addWinnerCounts(status, legacy);
+                        return client.update(activity);
+                    }));
+            })
+            .retryWhen(Retry.backoff(3, Duration.ofMillis(100))
+                .filter(OptimisticLockingFailureException.class::isInstance))
+            .then();
+    }
+
+    private ListOptions byActivity(String activityName) {
+        return ListOptions.builder().fieldQuery(equal("spec.activityName", activityName)).build();
+    }
+
+    private LotteryWinner toExtension(String activityName, Winner winner, Integer round, int position,
+                                      Long drawFence) {
+        var extension = new LotteryWinner();
+        extension.setMetadata(new Metadata());
+        extension.getMetadata().setName(winnerName(activityName, winner));
+
+        var spec = new LotteryWinnerSpec();
+        spec.setActivityName(activityName);
+        spec.setIdentifier(winner.getIdentifier());
+        spec.setPrizeName(winner.getPrizeName());
+        spec.setWinTime(winner.getWinTime());
+        spec.setSourceToken(winner.getSourceToken());
+        spec.setDrawSource(winner.getDrawSource());
+        spec.setRound(round);
+        spec.setPosition(position);
+        spec.setDrawFence(drawFence);
+        extension.setSpec(spec);
+        return extension;
+    }
+
+    private static Winner toWinner(LotteryWinner extension) {
+        var spec = extension.getSpec();
+        var winner = new Winner();
+        winner.setIdentifier(spec.getIdentifier());
+        winner.setPrizeName(spec.getPrizeName());
+        winner.setWinTime(spec.getWinTime());
+        winner.setSourceToken(spec.getSourceToken());
+        winner.setDrawSource(spec.getDrawSource());
+        return winner;
+    }
+
+    /**
+     * 同一活动中同一参与者只能中奖一次，以活动和 token（缺失时用标识）生成稳定的记录名，
+     * 开奖落库中断后重试不会重复写入。
+     */
+    private String winnerName(String activityName, Winner winner) {
+        var key = StringUtils.defaultIfBlank(winner.getSourceToken(), winner.getIdentifier());
+        try {
+            var hash = MessageDigest.getInstance("SHA-256")
+                .digest((activityName + ":" + key).getBytes(StandardCharsets.UTF_8));
+            return "winner-" + HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("生成中奖记录名失败", e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.WinnerExclusion;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 参与者的紧凑列式投影，只保留开奖与统计需要的字段。
+ * <p>
+ * 行号即 int id；token 为 64 位十六进制时按 32 字节原始值存放，其余按 UTF-8 存放，
+ * 与标识（用户名或邮箱）一起放在连续的 byte[] 池中。投影后完整的 {@link LotteryParticipant} 对象不再被引用。
+ * 配置了中奖互斥约束时，每行另存各维度键的 64 位哈希。
+ */
+final class ParticipantColumns {
+
+    private static final int INITIAL_ROWS = 64;
+    private static final int HEX_TOKEN_LENGTH = 64;
+    private static final byte RAW_TOKEN = 0;
+    private static final byte TEXT_TOKEN = 1;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private int size;
+    private byte[] tokenPool = new byte[INITIAL_ROWS * 32];
+    private int[] tokenOffsets = new int[INITIAL_ROWS + 1];
+    private byte[] tokenKinds = new byte[INITIAL_ROWS];
+    private byte[] identifierPool = new byte[INITIAL_ROWS * 24];
+    private int[] identifierOffsets = new int[INITIAL_ROWS + 1];
+    private int capacity = INITIAL_ROWS;
+
+    private final WinnerExclusion exclusion;
+    private final int dimensions;
+    private long[] exclusionKeys;
+
+    ParticipantColumns() {
+        this(WinnerExclusion.none());
+    }
+
+    ParticipantColumns(WinnerExclusion exclusion) {
+        this.exclusion = exclusion;
+        this.dimensions = exclusion.dimensionCount();
+        this.exclusionKeys = new long[INITIAL_ROWS * dimensions];
+    }
+
+    /**
+     * 按奖品统计中奖人数，流式累加到以奖品序号为下标的计数数组，不保留参与者。
+     * 累加在 {@code scheduler} 上进行，不占用投递数据的线程。
+     */
+    static Mono<Map<String, Long>> countWinnersByPrize(Flux<LotteryParticipant> participants,
+                                                       Scheduler scheduler) {
+        return participants.publishOn(scheduler)
+            .collect(PrizeTally::new, PrizeTally::accept)
+            .map(PrizeTally::toMap);
+    }
+
+    int append(LotteryParticipant participant) {
+        var spec = participant.getSpec();
+        ensureCapacity(size + 1);
+        int row = size++;
+
+        appendToken(row, spec.getToken());
+        var identifier = spec.getUsername() != null ? spec.getUsername() : spec.getEmail();
+        identifierPool = appendBytes(identifierPool, identifierOffsets, row,
+            StringUtils.defaultString(identifier).getBytes(StandardCharsets.UTF_8));
+        if (dimensions > 0) {
+            exclusion.keysOf(spec, exclusionKeys, row * dimensions);
+        }
+        return row;
+    }
+
+    /**
+     * 按中奖互斥约束占用该行，与已中奖者冲突时返回 false。
+     */
+    boolean claim(int row) {
+        return dimensions == 0 || exclusion.claim(exclusionKeys, row * dimensions);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * token 字节的稳定哈希，用于分片，与读取顺序和运行环境无关。
+     */
+    int tokenHash(int row) {
+        int hash = 1;
+        for (int i = tokenOffsets[row]; i < tokenOffsets[row + 1]; i++) {
+            hash = 31 * hash + tokenPool[i];
+        }
+        return hash;
+    }
+
+    /**
+     * 按 token 排序的比较：十六进制 token 的原始字节按无符号比较，与其字符串顺序一致。
+     */
+    int compareTokens(int left, int right) {
+        if (tokenKinds[left] != tokenKinds[right]) {
+            return Byte.compare(tokenKinds[left], tokenKinds[right]);
+        }
+        return Arrays.compareUnsigned(
+            tokenPool, tokenOffsets[left], tokenOffsets[left + 1],
+            tokenPool, tokenOffsets[right], tokenOffsets[right + 1]
+        );
+    }
+
+    String token(int row) {
+        int from = tokenOffsets[row];
+        int to = tokenOffsets[row + 1];
+        if (from == to) {
+            return null;
+        }
+        return tokenKinds[row] == RAW_TOKEN
+            ? HEX.formatHex(tokenPool, from, to)
+            : new String(tokenPool, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 写出 token 的存储形式：类型、长度与字节，由 {@link #readToken} 读回。
+     */
+    void writeToken(int row, DataOutput out) throws IOException {
+        int from = tokenOffsets[row];
+        int length = tokenOffsets[row + 1] - from;
+        out.writeByte(tokenKinds[row]);
+        out.writeShort(length);
+        out.write(tokenPool, from, length);
+    }
+
+    static String readToken(ByteBuffer buffer) {
+        byte kind = buffer.get();
+        var bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        if (bytes.length == 0) {
+            return null;
+        }
+        return kind == RAW_TOKEN ? HEX.formatHex(bytes) : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String identifier(int row) {
+        int from = identifierOffsets[row];
+        return new String(identifierPool, from, identifierOffsets[row + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    private void appendToken(int row, String token) {
+        byte[] bytes;
+        if (token == null) {
+            bytes = new byte[0];
+            tokenKinds[row] = TEXT_TOKEN;
+        } else if (isLowerHex(token)) {
+            bytes = HEX.parseHex(token);
+            tokenKinds[row] = RAW_TOKEN;
+        } else {
+            bytes = token.getBytes(StandardCharsets.UTF_8);
+            tokenKinds[row] = TEXT_TOKEN;
+        }
+        tokenPool = appendBytes(tokenPool, tokenOffsets, row, bytes);
+    }
+
+    private static boolean isLowerHex(String token) {
+        if (token.length() != HEX_TOKEN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= capacity) {
+            return;
+        }
+        capacity = Math.max(rows, capacity * 2);
+        tokenKinds = Arrays.copyOf(tokenKinds, capacity);
+        tokenOffsets = Arrays.copyOf(tokenOffsets, capacity + 1);
+        identifierOffsets = Arrays.copyOf(identifierOffsets, capacity + 1);
+        exclusionKeys = Arrays.copyOf(exclusionKeys, capacity * dimensions);
+    }
+
+    private static byte[] appendBytes(byte[] pool, int[] offsets, int row, byte[] bytes) {
+        int start = offsets[row];
+        int end = start + bytes.length;
+        if (end > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(end, pool.length * 2));
+        }
+        System.arraycopy(bytes, 0, pool, start, bytes.length);
+        offsets[row + 1] = end;
+        return pool;
+    }
+
+    private static final class PrizeTally {
+
+        private final Map<String, Integer> prizeIdByName = new HashMap<>();
+        private final List<String> prizeNames = new ArrayList<>();
+        private long[] counts = new long[8];
+
+        void accept(LotteryParticipant participant) {
+            var spec = participant.getSpec();
+            if (spec == null || !Boolean.TRUE.equals(spec.getIsWinner()) || spec.getPrizeName() == null) {
+                return;
+            }
+            int prizeId = prizeIdByName.computeIfAbsent(spec.getPrizeName(), name -> {
+                prizeNames.add(name);
+                return prizeNames.size() - 1;
+            });
+            if (prizeId >= counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+            }
+            counts[prizeId]++;
+        }
+
+        Map<String, Long> toMap() {
+            var result = new HashMap<String, Long>(prizeNames.size() * 2);
+            for (int i = 0; i < prizeNames.size(); i++) {
+                result.put(prizeNames.get(i), counts[i]);
+            }
+            return result;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.xhhao.lottery.service.RedisConfigService;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -99,6 +100,16 @@ public class RedisConfigServiceImpl implements RedisConfigService {
                     .orElseGet(Mono::empty)));
     }
 
+    @Override
+    public Mono<StatefulRedisPubSubConnection<String, String>> getPubSubConnection() {
+        return loadPluginConfig()
+            .flatMap(pluginConfig -> getEffectiveConfig(pluginConfig)
+                .flatMap(optionalConfig -> optionalConfig
+                    .filter(config -> isVerificationValid(pluginConfig, config))
+                    .map(config -> Mono.fromCallable(() -> getOrCreateConnection(config).pubSubConnection()))
+                    .orElseGet(Mono::empty)));
+    }
+
     private Mono<PluginRedisConfig> loadPluginConfig() {
         return settingFetcher.fetch(REDIS_GROUP, PluginRedisConfig.class)
             .map(this::normalizePluginConfig)
@@ -211,7 +222,8 @@ public class RedisConfigServiceImpl implements RedisConfigService {
             var redisClient = RedisClient.create(buildRedisUri(config));
             redisClient.setDefaultTimeout(Duration.ofSeconds(3));
             var connection = redisClient.connect();
-            cachedConnection = new CachedConnection(config, redisClient, connection);
+            var pubSubConnection = redisClient.connectPubSub();
+            cachedConnection = new CachedConnection(config, redisClient, connection, pubSubConnection);
             return cachedConnection;
         }
     }
@@ -321,7 +333,8 @@ public class RedisConfigServiceImpl implements RedisConfigService {
     private record CachedConnection(
         EffectiveRedisConfig config,
         RedisClient client,
-        StatefulRedisConnection<String, String> connection
+        StatefulRedisConnection<String, String> connection,
+        StatefulRedisPubSubConnection<String, String> pubSubConnection
     ) {
         boolean matches(EffectiveRedisConfig candidate) {
             return Objects.equals(config.getSource(), candidate.getSource())
@@ -332,6 +345,7 @@ public class RedisConfigServiceImpl implements RedisConfigService {
         }
 
         void destroy() {
+            pubSubConnection.close();
             connection.close();
             client.shutdown();
         }
@@ -0,0 +1,149 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.service.DrawLockService;
+import com.xhhao.lottery.service.RedisConfigService;
+import io.lettuce.core.ScriptOutputType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisDrawLockService implements DrawLockService {
+
+    private static final String LOCK_KEY_PREFIX = "plugin:lottery:draw-lock";
+    private static final String FENCE_KEY_PREFIX = "plugin:lottery:draw-fence";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(2);
+    private static final Duration RENEW_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration FENCE_TTL = Duration.ofDays(30);
+    private static final String ACQUIRE_SCRIPT = """
+        if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', tonumber(ARGV[2])) then
+            local token = math.max(tonumber(redis.call('GET', KEYS[2]) or '0') + 1, tonumber(ARGV[4]))
+            redis.call('SET', KEYS[2], string.format('%d', token), 'PX', tonumber(ARGV[3]))
+            return token
+        end
+        return 0
+        """;
+    private static final String RENEW_SCRIPT = """
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('PEXPIRE', KEYS[1], tonumber(ARGV[2]))
+        end
+        return 0
+        """;
+    private static final String RELEASE_SCRIPT = """
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """;
+
+    private final RedisConfigService redisConfigService;
+
+    private final Map<String, DrawLease> localLeases = new ConcurrentHashMap<>();
+    private final Map<String, Disposable> renewals = new ConcurrentHashMap<>();
+    private final AtomicLong localFence = new AtomicLong();
+
+    @Override
+    public Mono<DrawLease> tryAcquire(String activityName) {
+        var owner = UUID.randomUUID().toString();
+        return redisConfigService.getRedisConnection()
+            .flatMap(connection -> Mono.fromFuture(connection.async()
+                    .eval(
+                        ACQUIRE_SCRIPT,
+                        ScriptOutputType.INTEGER,
+                        new String[]{lockKey(activityName), fenceKey(activityName)},
+                        owner,
+                        Long.toString(LOCK_TTL.toMillis()),
+                        Long.toString(FENCE_TTL.toMillis()),
+                        Long.toString(System.currentTimeMillis())
+                    )
+                    .toCompletableFuture())
+                .map(Number.class::cast)
+                .flatMap(token -> token.longValue() > 0
+                    ? Mono.just(new DrawLease(activityName, owner, token.longValue()))
+                    : Mono.<DrawLease>empty())
+                .doOnNext(this::scheduleRenewal)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty()))
+            // Redis 不可用时仅在本节点互斥
+            .switchIfEmpty(Mono.fromSupplier(() -> Optional.ofNullable(acquireLocal(activityName, owner))))
+            .flatMap(Mono::justOrEmpty);
+    }
+
+    @Override
+    public Mono<Void> release(DrawLease lease) {
+        var renewal = renewals.remove(lease.owner());
+        if (renewal != null) {
+            renewal.dispose();
+        }
+        localLeases.remove(lease.activityName(), lease);
+        return redisConfigService.getRedisConnection()
+            .flatMap(connection -> Mono.fromFuture(connection.async()
+                    .eval(
+                        RELEASE_SCRIPT,
+                        ScriptOutputType.INTEGER,
+                        new String[]{lockKey(lease.activityName())},
+                        lease.owner()
+                    )
+                    .toCompletableFuture()))
+            .onErrorResume(throwable -> {
+                log.warn("Failed to release draw lock for activity {}", lease.activityName(), throwable);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private DrawLease acquireLocal(String activityName, String owner) {
+        long now = System.currentTimeMillis();
+        long token = localFence.updateAndGet(previous -> Math.max(previous + 1, now));
+        var lease = new DrawLease(activityName, owner, token);
+        return localLeases.putIfAbsent(activityName, lease) == null ? lease : null;
+    }
+
+    private void scheduleRenewal(DrawLease lease) {
+        var renewal = Flux.interval(RENEW_INTERVAL)
+            .concatMap(tick -> redisConfigService.getRedisConnection()
+                .flatMap(connection -> Mono.fromFuture(connection.async()
+                        .eval(
+                            RENEW_SCRIPT,
+                            ScriptOutputType.INTEGER,
+                            new String[]{lockKey(lease.activityName())},
+                            lease.owner(),
+                            Long.toString(LOCK_TTL.toMillis())
+                        )
+                        .toCompletableFuture()))
+                .onErrorResume(throwable -> {
+                    log.warn("Failed to renew draw lock for activity {}", lease.activityName(), throwable);
+                    return Mono.empty();
+                }))
+            .subscribe();
+        renewals.put(lease.owner(), renewal);
+    }
+
+    private String lockKey(String activityName) {
+        return LOCK_KEY_PREFIX + ":" + encode(activityName);
+    }
+
+    private String fenceKey(String activityName) {
+        return FENCE_KEY_PREFIX + ":" + encode(activityName);
+    }
+
+    private String encode(String activityName) {
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(activityName.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -2,6 +2,7 @@ package com.xhhao.lottery.service.impl;
 
 import com.xhhao.lottery.entity.LotteryActivity;
 import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.ActivityClosedFlagService;
 import com.xhhao.lottery.service.InstantLotteryStockService;
 import com.xhhao.lottery.service.RedisConfigService;
 import io.lettuce.core.ScriptOutputType;
@@ -9,6 +10,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 import run.halo.app.extension.ListOptions;
 import run.halo.app.extension.ReactiveExtensionClient;
 
@@ -17,67 +20,198 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static run.halo.app.extension.index.query.Queries.and;
 import static run.halo.app.extension.index.query.Queries.equal;
+import static run.halo.app.extension.index.query.Queries.in;
 
 @Slf4j
 @Service
 public class RedisInstantLotteryStockService implements InstantLotteryStockService {
 
     private static final String STOCK_KEY_PREFIX = "plugin:lottery:instant:stock";
+    private static final String LEASE_KEY = "plugin:lottery:instant:leases";
+    private static final String RELEASED_LEASE_KEY = "plugin:lottery:instant:released-leases";
+    private static final Duration RESERVATION_LEASE = Duration.ofMinutes(2);
+    private static final Duration RELEASED_LEASE_RETENTION = Duration.ofDays(1);
+    private static final int SWEEP_BATCH_SIZE = 200;
     private static final Duration REDIS_KEY_RETENTION = Duration.ofDays(7);
     private static final Duration REDIS_KEY_FALLBACK_TTL = Duration.ofDays(30);
     private static final String RESERVE_SCRIPT = """
-        local rand = tonumber(ARGV[1])
-        local total = 0
-        local available = {}
-
-        for i = 1, #KEYS do
-            local stock = tonumber(redis.call('GET', KEYS[i]) or '0')
-            local probability = tonumber(ARGV[i + 1]) or 0
-            if stock > 0 and probability > 0 then
-                total = total + probability
-                table.insert(available, i)
+        local count = tonumber(ARGV[1]) or 1
+        local prizeCount = #KEYS - 1
+        local leaseKey = KEYS[#KEYS]
+        local base = count + 1
+        local tail = base + 3 * prizeCount
+        local deadline = tonumber(ARGV[tail + 1]) or 0
+        local leasePrefix = ARGV[tail + 2]
+        local startAt = tonumber(ARGV[tail + 3]) or 0
+        local now = tonumber(ARGV[tail + 4]) or 0
+        local elapsedBuckets = math.floor(math.max(0, now - startAt) / 3600000) + 1
+        local stocks = {}
+        local taken = {}
+        local probabilities = {}
+        local quantities = {}
+        local allowances = {}
+
+        for i = 1, prizeCount do
+            stocks[i] = tonumber(redis.call('GET', KEYS[i]) or '0')
+            taken[i] = 0
+            probabilities[i] = tonumber(ARGV[base + i]) or 0
+            quantities[i] = tonumber(ARGV[base + prizeCount + i]) or 0
+            local pace = tonumber(ARGV[base + 2 * prizeCount + i]) or 0
+            if pace > 0 then
+                allowances[i] = math.min(quantities[i], pace * elapsedBuckets)
             end
         end
 
-        if total <= 0 or rand >= total then
-            return 0
+        local function releasable(i)
+            if stocks[i] <= 0 or probabilities[i] <= 0 then
+                return false
+            end
+            local allowance = allowances[i]
+            return allowance == nil or (quantities[i] - stocks[i]) < allowance
         end
 
-        local cumulative = 0
-        for _, index in ipairs(available) do
-            cumulative = cumulative + (tonumber(ARGV[index + 1]) or 0)
-            if rand < cumulative then
-                local current = tonumber(redis.call('GET', KEYS[index]) or '0')
-                if current <= 0 then
-                    return 0
+        local results = {}
+        for n = 1, count do
+            local rand = tonumber(ARGV[n + 1]) or 0
+            local total = 0
+            local available = {}
+
+            for i = 1, prizeCount do
+                if releasable(i) then
+                    total = total + probabilities[i]
+                    table.insert(available, i)
                 end
-                redis.call('DECR', KEYS[index])
-                return index
             end
+
+            local picked = 0
+            if total > 0 and rand < total then
+                local cumulative = 0
+                for _, index in ipairs(available) do
+                    cumulative = cumulative + probabilities[index]
+                    if rand < cumulative then
+                        picked = index
+                        break
+                    end
+                end
+            end
+
+            if picked > 0 then
+                stocks[picked] = stocks[picked] - 1
+                taken[picked] = taken[picked] + 1
+                redis.call('ZADD', leaseKey, deadline, KEYS[picked] .. '|' .. leasePrefix .. ':' .. n)
+            end
+            results[n] = picked
         end
 
-        return 0
+        local soldOut = 1
+        for i = 1, prizeCount do
+            if taken[i] > 0 then
+                redis.call('DECRBY', KEYS[i], taken[i])
+            end
+            if stocks[i] > 0 and probabilities[i] > 0 then
+                soldOut = 0
+            end
+        end
+
+        results[count + 1] = soldOut
+        return results
+        """;
+    /**
+     * 确认全部成立或全部不变：已被回收的租约只有在库存仍足够时才重新扣减，否则返回 -1，
+     * 租约保持原样由后台回收。既不在待确认也不在已回收集合中的租约视为已确认。
+     */
+    private static final String CONFIRM_SCRIPT = """
+        local stockKeys = {}
+        local needed = {}
+        local late = {}
+        for i = 1, #ARGV do
+            local member = ARGV[i]
+            if not redis.call('ZSCORE', KEYS[1], member) and redis.call('ZSCORE', KEYS[2], member) then
+                local sep = string.find(member, '|', 1, true)
+                if sep then
+                    local stockKey = string.sub(member, 1, sep - 1)
+                    if not needed[stockKey] then
+                        needed[stockKey] = 0
+                        table.insert(stockKeys, stockKey)
+                    end
+                    needed[stockKey] = needed[stockKey] + 1
+                    table.insert(late, member)
+                end
+            end
+        end
+        for _, stockKey in ipairs(stockKeys) do
+            if tonumber(redis.call('GET', stockKey) or '0') < needed[stockKey] then
+                return -1
+            end
+        end
+        for _, stockKey in ipairs(stockKeys) do
+            redis.call('DECRBY', stockKey, needed[stockKey])
+        end
+        for _, member in ipairs(late) do
+            redis.call('ZREM', KEYS[2], member)
+        end
+        for i = 1, #ARGV do
+            redis.call('ZREM', KEYS[1], ARGV[i])
+        end
+        return #late
+        """;
+    private static final String EXPIRED_SCRIPT = """
+        return redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        """;
+    /**
+     * ARGV[4] 起为过期租约，其中前 ARGV[2] 个已有参与记录，只移除不归还库存；
+     * 其余归还库存并记入已回收集合，供迟到的确认重新扣减。已回收集合保留 ARGV[3] 毫秒。
+     */
+    private static final String SWEEP_SCRIPT = """
+        local now = tonumber(ARGV[1])
+        local persisted = tonumber(ARGV[2]) or 0
+        local released = {}
+        redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', now - tonumber(ARGV[3]))
+        for i = 4, #ARGV do
+            local member = ARGV[i]
+            if redis.call('ZREM', KEYS[1], member) == 1 and i > persisted + 3 then
+                local sep = string.find(member, '|', 1, true)
+                if sep then
+                    local stockKey = string.sub(member, 1, sep - 1)
+                    if redis.call('EXISTS', stockKey) == 1 then
+                        redis.call('INCR', stockKey)
+                        redis.call('ZADD', KEYS[2], now, member)
+                        table.insert(released, stockKey)
+                    end
+                end
+            end
+        end
+        return released
         """;
 
     private final ReactiveExtensionClient client;
     private final RedisConfigService redisConfigService;
+    private final ActivityClosedFlagService closedFlagService;
 
     public RedisInstantLotteryStockService(
         ReactiveExtensionClient client,
-        RedisConfigService redisConfigService
+        RedisConfigService redisConfigService,
+        ActivityClosedFlagService closedFlagService
     ) {
         this.client = client;
         this.redisConfigService = redisConfigService;
+        this.closedFlagService = closedFlagService;
     }
 
     @Override
@@ -88,13 +222,23 @@ public class RedisInstantLotteryStockService implements InstantLotteryStockServi
     }
 
     @Override
-    public Mono<Optional<LotteryActivity.Prize>> reservePrize(LotteryActivity activity) {
+    public Mono<Optional<PrizeReservation>> reservePrize(LotteryActivity activity) {
+        return reservePrizes(activity, 1)
+            .map(results -> results.isEmpty() ? Optional.<PrizeReservation>empty() : results.get(0));
+    }
+
+    @Override
+    public Mono<List<Optional<PrizeReservation>>> reservePrizes(LotteryActivity activity, int count) {
+        if (count <= 0) {
+            return Mono.just(List.of());
+        }
+
         var prizes = Optional.ofNullable(activity.getSpec())
             .map(LotteryActivity.LotteryActivitySpec::getPrizes)
             .orElse(List.of());
 
-        if (prizes.isEmpty()) {
-            return Mono.just(Optional.empty());
+        if (prizes.isEmpty() || closedFlagService.isSoldOut(activity.getMetadata().getName())) {
+            return Mono.just(Collections.nCopies(count, Optional.empty()));
         }
 
         return redisConfigService.getRedisConnection()
@@ -102,7 +246,8 @@ public class RedisInstantLotteryStockService implements InstantLotteryStockServi
                 "即时开奖依赖 Redis 原子扣库存，当前未检测到 Redis 配置，请改用定时开奖。"
             )))
             .flatMap(connection -> ensureStockKeys(connection, activity, prizes)
-                .then(executeReserve(connection, activity, prizes)))
+                // 命令在组装时即发出，延迟到库存键初始化之后再执行脚本
+                .then(Mono.defer(() -> executeReserve(connection, activity, prizes, count))))
             .onErrorMap(throwable -> {
                 if (throwable instanceof IllegalStateException) {
                     return throwable;
@@ -114,26 +259,103 @@ public class RedisInstantLotteryStockService implements InstantLotteryStockServi
     }
 
     @Override
-    public Mono<Void> releasePrize(LotteryActivity activity, String prizeName) {
-        if (prizeName == null || prizeName.isBlank()) {
+    public Mono<Void> confirmReservations(LotteryActivity activity, Collection<PrizeReservation> reservations) {
+        var leaseIds = reservations.stream()
+            .map(PrizeReservation::leaseId)
+            .filter(Objects::nonNull)
+            .toArray(String[]::new);
+        if (leaseIds.length == 0) {
             return Mono.empty();
         }
 
+        var activityName = activity.getMetadata().getName();
+        return redisConfigService.getRedisConnection()
+            .switchIfEmpty(Mono.error(new IllegalStateException("即时开奖库存服务不可用，请检查 Redis 配置。")))
+            .flatMap(connection -> Mono.fromFuture(connection.async()
+                    .eval(
+                        CONFIRM_SCRIPT,
+                        ScriptOutputType.INTEGER,
+                        new String[]{LEASE_KEY, RELEASED_LEASE_KEY},
+                        leaseIds
+                    )
+                    .toCompletableFuture()))
+            .cast(Number.class)
+            .retryWhen(Retry.backoff(3, Duration.ofMillis(100))
+                .filter(throwable -> !(throwable instanceof IllegalStateException)))
+            .onErrorMap(throwable -> {
+                if (throwable instanceof IllegalStateException) {
+                    return throwable;
+                }
+                log.error("Failed to confirm instant lottery leases for activity {}", activityName, throwable);
+                return new IllegalStateException("即时开奖库存服务不可用，请检查 Redis 配置。", throwable);
+            })
+            .flatMap(late -> {
+                if (late.longValue() < 0) {
+                    log.warn("Expired instant lottery leases of activity {} can no longer be honored", activityName);
+                    return Mono.error(new IllegalStateException("奖品已被抽完，请重新抽奖"));
+                }
+                if (late.longValue() > 0) {
+                    log.warn("Confirmed {} expired instant lottery leases for activity {}, stock re-deducted",
+                        late, activityName);
+                }
+                return Mono.empty();
+            });
+    }
+
+    @Override
+    public Mono<Long> releaseExpiredReservations() {
         return redisConfigService.getRedisConnection()
             .flatMap(connection -> {
-                var key = stockKey(activity.getMetadata().getName(), prizeName);
-                var ttlSeconds = redisTtlSeconds(activity);
+                var now = Long.toString(System.currentTimeMillis());
                 return Mono.fromFuture(connection.async()
-                        .incr(key)
+                        .<List<Object>>eval(
+                            EXPIRED_SCRIPT,
+                            ScriptOutputType.MULTI,
+                            new String[]{LEASE_KEY},
+                            now,
+                            Integer.toString(SWEEP_BATCH_SIZE)
+                        )
                         .toCompletableFuture())
-                    .then(Mono.fromFuture(connection.async().expire(key, ttlSeconds).toCompletableFuture()))
-                    .then();
+                    .map(expired -> expired.stream().map(String::valueOf).toList())
+                    .filter(expired -> !expired.isEmpty())
+                    .flatMap(expired -> persistedLeaseIds(expired)
+                        .flatMap(persisted -> {
+                            var args = new ArrayList<String>(expired.size() + 3);
+                            args.add(now);
+                            args.add(Integer.toString(persisted.size()));
+                            args.add(Long.toString(RELEASED_LEASE_RETENTION.toMillis()));
+                            args.addAll(persisted);
+                            expired.stream().filter(leaseId -> !persisted.contains(leaseId)).forEach(args::add);
+                            return Mono.fromFuture(connection.async()
+                                .<List<Object>>eval(
+                                    SWEEP_SCRIPT,
+                                    ScriptOutputType.MULTI,
+                                    new String[]{LEASE_KEY, RELEASED_LEASE_KEY},
+                                    args.toArray(String[]::new)
+                                )
+                                .toCompletableFuture());
+                        }));
             })
-            .onErrorResume(throwable -> {
-                log.warn("Failed to release instant lottery stock for activity {} prize {}",
-                    activity.getMetadata().getName(), prizeName, throwable);
-                return Mono.empty();
-            });
+            .map(releasedKeys -> {
+                releasedKeys.stream()
+                    .map(String::valueOf)
+                    .map(this::activityNameOfStockKey)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(closedFlagService::reopen);
+                return (long) releasedKeys.size();
+            })
+            .defaultIfEmpty(0L);
+    }
+
+    /**
+     * 过期租约中已写入参与记录的部分：确认只是没来得及执行，库存已属于该记录，不能归还。
+     */
+    private Mono<Set<String>> persistedLeaseIds(List<String> leaseIds) {
+        return client.listAll(LotteryParticipant.class,
+                ListOptions.builder().fieldQuery(in("spec.leaseId", List.<Object>copyOf(leaseIds))).build(), null)
+            .map(participant -> participant.getSpec().getLeaseId())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     private Mono<Void> ensureStockKeys(
@@ -151,57 +373,93 @@ public class RedisInstantLotteryStockService implements InstantLotteryStockServi
                     return Mono.fromFuture(connection.async()
                             .setnx(key, Integer.toString(initialRemaining(prize, winnerCounts)))
                             .toCompletableFuture())
-                        .then(Mono.fromFuture(connection.async().expire(key, ttlSeconds).toCompletableFuture()))
+                        .then(Mono.defer(() -> Mono.fromFuture(
+                            connection.async().expire(key, ttlSeconds).toCompletableFuture())))
                         .then();
                 }))
             .then();
     }
 
-    private Mono<Optional<LotteryActivity.Prize>> executeReserve(
+    private Mono<List<Optional<PrizeReservation>>> executeReserve(
         io.lettuce.core.api.StatefulRedisConnection<String, String> connection,
         LotteryActivity activity,
-        List<LotteryActivity.Prize> prizes
+        List<LotteryActivity.Prize> prizes,
+        int count
     ) {
         var activityName = activity.getMetadata().getName();
-        List<String> keys = prizes.stream()
-            .map(prize -> stockKey(activityName, prize.getName()))
-            .toList();
+        var keys = new ArrayList<String>(prizes.size() + 1);
+        prizes.forEach(prize -> keys.add(stockKey(activityName, prize.getName())));
+        keys.add(LEASE_KEY);
 
-        var args = new ArrayList<String>(prizes.size() + 1);
-        args.add(Integer.toString(ThreadLocalRandom.current().nextInt(100)));
+        var random = ThreadLocalRandom.current();
+        var leasePrefix = UUID.randomUUID().toString();
+        var now = Instant.now();
+        var args = new ArrayList<String>(count + prizes.size() * 3 + 5);
+        args.add(Integer.toString(count));
+        for (int i = 0; i < count; i++) {
+            args.add(Integer.toString(random.nextInt(100)));
+        }
         prizes.forEach(prize -> args.add(Integer.toString(
             Objects.requireNonNullElse(prize.getProbability(), 0)
         )));
+        prizes.forEach(prize -> args.add(Integer.toString(
+            Objects.requireNonNullElse(prize.getQuantity(), 0)
+        )));
+        prizes.forEach(prize -> args.add(Integer.toString(
+            Objects.requireNonNullElse(prize.getReleasePerHour(), 0)
+        )));
+        args.add(Long.toString(now.plus(RESERVATION_LEASE).toEpochMilli()));
+        args.add(leasePrefix);
+        args.add(Long.toString(pacingStart(activity).toEpochMilli()));
+        args.add(Long.toString(now.toEpochMilli()));
 
         return Mono.fromFuture(connection.async()
-                .eval(
+                .<List<Object>>eval(
                     RESERVE_SCRIPT,
-                    ScriptOutputType.INTEGER,
+                    ScriptOutputType.MULTI,
                     keys.toArray(String[]::new),
                     args.toArray(String[]::new)
                 )
                 .toCompletableFuture())
-            .cast(Number.class)
-            .defaultIfEmpty(0L)
-            .map(index -> {
-                int prizeIndex = index.intValue();
-                if (prizeIndex <= 0 || prizeIndex > prizes.size()) {
-                    return Optional.empty();
+            .defaultIfEmpty(List.of())
+            .map(indexes -> {
+                if (indexes.size() > count && indexes.get(count) instanceof Number flag
+                    && flag.intValue() == 1) {
+                    closedFlagService.markSoldOut(activityName);
+                }
+                var results = new ArrayList<Optional<PrizeReservation>>(count);
+                for (int i = 0; i < count; i++) {
+                    int prizeIndex = i < indexes.size() && indexes.get(i) instanceof Number number
+                        ? number.intValue()
+                        : 0;
+                    if (prizeIndex <= 0 || prizeIndex > prizes.size()) {
+                        results.add(Optional.empty());
+                        continue;
+                    }
+                    var leaseId = keys.get(prizeIndex - 1) + "|" + leasePrefix + ":" + (i + 1);
+                    results.add(Optional.of(new PrizeReservation(prizes.get(prizeIndex - 1), leaseId)));
                 }
-                return Optional.of(prizes.get(prizeIndex - 1));
+                return results;
             });
     }
 
+    /**
+     * 每次预留都可能经过这里，属于请求路径，不占用有界的开奖计算线程池。
+     */
     private Mono<Map<String, Long>> getWinnerCounts(String activityName) {
-        return client.listAll(
-                LotteryParticipant.class,
-                ListOptions.builder().fieldQuery(equal("spec.activityName", activityName)).build(),
-                null
-            )
-            .filter(participant -> Boolean.TRUE.equals(participant.getSpec().getIsWinner()))
-            .map(participant -> participant.getSpec().getPrizeName())
-            .filter(Objects::nonNull)
-            .collect(Collectors.groupingBy(prizeName -> prizeName, Collectors.counting()));
+        return ParticipantColumns.countWinnersByPrize(client.listAll(
+            LotteryParticipant.class,
+            ListOptions.builder()
+                .fieldQuery(and(equal("spec.activityName", activityName), equal("spec.isWinner", "true")))
+                .build(),
+            null
+        ), Schedulers.boundedElastic());
+    }
+
+    private Instant pacingStart(LotteryActivity activity) {
+        return Optional.ofNullable(activity.getSpec().getStartTime())
+            .or(() -> Optional.ofNullable(activity.getMetadata().getCreationTimestamp()))
+            .orElse(Instant.EPOCH);
     }
 
     private int initialRemaining(LotteryActivity.Prize prize, Map<String, Long> winnerCounts) {
@@ -218,6 +476,15 @@ public class RedisInstantLotteryStockService implements InstantLotteryStockServi
         return STOCK_KEY_PREFIX + ":" + activityName + ":" + encodedPrizeName;
     }
 
+    private String activityNameOfStockKey(String stockKey) {
+        var prefix = STOCK_KEY_PREFIX + ":";
+        int separator = stockKey.lastIndexOf(':');
+        if (!stockKey.startsWith(prefix) || separator <= prefix.length()) {
+            return null;
+        }
+        return stockKey.substring(prefix.length(), separator);
+    }
+
     private long redisTtlSeconds(LotteryActivity activity) {
         var now = Instant.now();
         var spec = activity.getSpec();
@@ -0,0 +1,129 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.service.LotteryEventBus;
+import com.xhhao.lottery.service.RedisConfigService;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisLotteryEventBus implements LotteryEventBus, SmartLifecycle {
+
+    private static final String CHANNEL = "plugin:lottery:events";
+    private static final Duration SUBSCRIPTION_CHECK_INTERVAL = Duration.ofSeconds(30);
+
+    private final RedisConfigService redisConfigService;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<LotteryEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final RedisPubSubAdapter<String, String> messageListener = new RedisPubSubAdapter<>() {
+        @Override
+        public void message(String channel, String message) {
+            if (CHANNEL.equals(channel)) {
+                onRemoteMessage(message);
+            }
+        }
+    };
+
+    private volatile StatefulRedisPubSubConnection<String, String> subscribedConnection;
+    private volatile Disposable subscriptionKeeper;
+
+    @Override
+    public Mono<Void> publish(LotteryEvent event) {
+        dispatch(event);
+        var payload = String.join("|", nodeId, event.type().name(), event.activityName());
+        return redisConfigService.getRedisConnection()
+            .flatMap(connection -> Mono.fromFuture(connection.async()
+                .publish(CHANNEL, payload)
+                .toCompletableFuture()))
+            .onErrorResume(throwable -> {
+                log.warn("Failed to broadcast lottery event {}", event, throwable);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    @Override
+    public void subscribe(Consumer<LotteryEvent> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void start() {
+        subscriptionKeeper = Flux.interval(Duration.ZERO, SUBSCRIPTION_CHECK_INTERVAL)
+            .onBackpressureDrop()
+            .concatMap(tick -> ensureSubscribed()
+                .onErrorResume(throwable -> {
+                    log.warn("Failed to subscribe lottery event channel", throwable);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        var keeper = subscriptionKeeper;
+        if (keeper != null) {
+            keeper.dispose();
+            subscriptionKeeper = null;
+        }
+        var connection = subscribedConnection;
+        if (connection != null && connection.isOpen()) {
+            connection.removeListener(messageListener);
+            connection.async().unsubscribe(CHANNEL);
+        }
+        subscribedConnection = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscriptionKeeper != null && !subscriptionKeeper.isDisposed();
+    }
+
+    private Mono<Void> ensureSubscribed() {
+        return redisConfigService.getPubSubConnection()
+            .filter(connection -> connection != subscribedConnection || !connection.isOpen())
+            .flatMap(connection -> {
+                connection.addListener(messageListener);
+                return Mono.fromFuture(connection.async().subscribe(CHANNEL).toCompletableFuture())
+                    .doOnSuccess(ignored -> subscribedConnection = connection);
+            })
+            .then();
+    }
+
+    private void onRemoteMessage(String message) {
+        var parts = message.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            dispatch(new LotteryEvent(EventType.valueOf(parts[1]), parts[2]));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignored unknown lottery event {}", message);
+        }
+    }
+
+    private void dispatch(LotteryEvent event) {
+        for (var listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Lottery event listener failed for {}", event, e);
+            }
+        }
+    }
+}
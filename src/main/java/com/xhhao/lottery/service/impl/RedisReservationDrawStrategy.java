@@ -0,0 +1,56 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.InstantLotteryStockService;
+import com.xhhao.lottery.service.InstantLotteryStockService.PrizeReservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 默认的即时开奖策略：参与时通过 Redis 脚本按概率原子扣减库存。
+ * 活动到期后的统一开奖沿用打乱抽取，与之前的行为保持一致。
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class RedisReservationDrawStrategy implements DrawStrategy {
+
+    public static final String NAME = "redis-reservation";
+
+    private final InstantLotteryStockService instantLotteryStockService;
+    private final ShuffleDrawStrategy shuffleDrawStrategy;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(LotteryType lotteryType) {
+        return lotteryType == LotteryType.WHEEL || lotteryType == LotteryType.DRAW;
+    }
+
+    @Override
+    public Mono<List<Optional<PrizeReservation>>> reserve(LotteryActivity activity, int count) {
+        return instantLotteryStockService.reservePrizes(activity, count);
+    }
+
+    @Override
+    public Mono<Void> confirm(LotteryActivity activity, Collection<PrizeReservation> reservations) {
+        return instantLotteryStockService.confirmReservations(activity, reservations);
+    }
+
+    @Override
+    public Mono<List<Winner>> drawWinners(DrawRequest request) {
+        return shuffleDrawStrategy.drawWinners(request);
+    }
+}
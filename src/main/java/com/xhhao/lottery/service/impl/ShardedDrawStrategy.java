@@ -0,0 +1,173 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.service.DrawStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * 可重放的定时开奖策略。
+ * <p>
+ * 候选人按 token 哈希分片（分片数只取决于人数），分片内按 token 排序得到与读取顺序无关的规范顺序，
+ * 各分片使用同一种子依次派生的 {@link SplittableRandom} 并行做部分 Fisher–Yates 抽样，
+ * 最后按各分片剩余人数加权逐个选取分片合并，与在全体候选人中无放回抽取同分布。
+ * 相同的候选集合、名额与种子总能得到相同的中奖名单。
+ */
+@Component
+@Order(10)
+public class ShardedDrawStrategy implements DrawStrategy {
+
+    public static final String NAME = "sharded";
+
+    private static final int SHARD_SIZE = 50_000;
+    private static final int MAX_SHARDS = 64;
+
+    private final LotteryComputeScheduler computeScheduler;
+    private final int shardSize;
+
+    @Autowired
+    public ShardedDrawStrategy(LotteryComputeScheduler computeScheduler) {
+        this(computeScheduler, SHARD_SIZE);
+    }
+
+    /**
+     * 分片数属于可重放结果的一部分，只在测试中调小分片大小。
+     */
+    ShardedDrawStrategy(LotteryComputeScheduler computeScheduler, int shardSize) {
+        this.computeScheduler = computeScheduler;
+        this.shardSize = shardSize;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(LotteryType lotteryType) {
+        return lotteryType == LotteryType.SCHEDULED;
+    }
+
+    @Override
+    public boolean isReproducible() {
+        return true;
+    }
+
+    @Override
+    public Mono<List<Winner>> drawWinners(DrawRequest request) {
+        var prizes = Objects.requireNonNullElse(request.activity().getSpec().getPrizes(), List.<Prize>of());
+        int slots = DrawSupport.totalSlots(prizes, request.remaining());
+        if (slots == 0) {
+            return Mono.just(List.of());
+        }
+
+        var excludedTokens = request.excludedTokens();
+        var exclusion = request.exclusion();
+        // 有互斥约束时冲突者会被跳过，各分片需完整洗牌以便继续往后取；前 k 个的顺序与无约束时相同
+        int depth = exclusion.isActive() ? Integer.MAX_VALUE : slots;
+        return request.candidates()
+            .filter(participant -> participant.getSpec() != null
+                && !excludedTokens.contains(participant.getSpec().getToken()))
+            .collect(() -> new ParticipantColumns(exclusion), ParticipantColumns::append)
+            .flatMap(columns -> draw(columns, depth, request.seed())
+                .map(order -> DrawSupport.deal(prizes, request.remaining(), columns, order)));
+    }
+
+    private Mono<IntSupplier> draw(ParticipantColumns columns, int depth, long seed) {
+        var shards = partition(columns);
+        var root = new SplittableRandom(seed);
+        var shardRandoms = new SplittableRandom[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            shardRandoms[i] = root.split();
+        }
+        var mergeRandom = root.split();
+
+        var samples = new int[shards.length][];
+        return Flux.range(0, shards.length)
+            .flatMap(index -> Mono.fromRunnable(() -> samples[index] =
+                    sampleShard(columns, shards[index], depth, shardRandoms[index]))
+                .subscribeOn(computeScheduler.get()))
+            .then(Mono.fromCallable(() -> merge(shards, samples, mergeRandom)));
+    }
+
+    private int[][] partition(ParticipantColumns columns) {
+        int size = columns.size();
+        int shardCount = Math.max(1, Math.min(MAX_SHARDS, (size + shardSize - 1) / shardSize));
+        var shardOf = new int[size];
+        var counts = new int[shardCount];
+        for (int row = 0; row < size; row++) {
+            shardOf[row] = Math.floorMod(columns.tokenHash(row), shardCount);
+            counts[shardOf[row]]++;
+        }
+
+        var shards = new int[shardCount][];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new int[counts[i]];
+        }
+        var filled = new int[shardCount];
+        for (int row = 0; row < size; row++) {
+            int shard = shardOf[row];
+            shards[shard][filled[shard]++] = row;
+        }
+        return shards;
+    }
+
+    /**
+     * 将分片按 token 排序后做部分 Fisher–Yates，返回按抽取顺序排列的前 min(k, n) 个行号。
+     */
+    private int[] sampleShard(ParticipantColumns columns, int[] rows, int depth, SplittableRandom random) {
+        DrawSupport.sortRows(rows, columns::compareTokens);
+        int take = Math.min(depth, rows.length);
+        for (int i = 0; i < take; i++) {
+            int j = i + random.nextInt(rows.length - i);
+            int swap = rows[i];
+            rows[i] = rows[j];
+            rows[j] = swap;
+        }
+        return Arrays.copyOf(rows, take);
+    }
+
+    /**
+     * 每次以各分片剩余人数为权重选取分片，再取该分片样本中的下一个，等价于在全体候选人中无放回抽取。
+     * 按需逐个给出，样本取完时返回 -1。
+     */
+    private IntSupplier merge(int[][] shards, int[][] samples, SplittableRandom random) {
+        var remaining = new long[shards.length];
+        long initialTotal = 0;
+        for (int i = 0; i < shards.length; i++) {
+            remaining[i] = shards[i].length;
+            initialTotal += remaining[i];
+        }
+
+        var total = new long[]{initialTotal};
+        var taken = new int[shards.length];
+        return () -> {
+            if (total[0] == 0) {
+                return -1;
+            }
+            long pick = random.nextLong(total[0]);
+            int shard = 0;
+            while (pick >= remaining[shard]) {
+                pick -= remaining[shard];
+                shard++;
+            }
+            if (taken[shard] >= samples[shard].length) {
+                return -1;
+            }
+            remaining[shard]--;
+            total[0]--;
+            return samples[shard][taken[shard]++];
+        };
+    }
+}
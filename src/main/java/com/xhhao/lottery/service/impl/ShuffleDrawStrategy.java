@@ -0,0 +1,113 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.WinnerExclusion;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * 默认的定时开奖策略：流式抽取与剩余名额数相同的随机样本，打乱后按奖品顺序依次发放。
+ * 时间 O(n)，内存 O(k)，与奖品数量无关。
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ShuffleDrawStrategy implements DrawStrategy {
+
+    public static final String NAME = "shuffle";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(LotteryType lotteryType) {
+        return lotteryType == LotteryType.SCHEDULED;
+    }
+
+    @Override
+    public Mono<List<Winner>> drawWinners(DrawRequest request) {
+        var prizes = Objects.requireNonNullElse(request.activity().getSpec().getPrizes(), List.<Prize>of());
+        int slots = DrawSupport.totalSlots(prizes, request.remaining());
+        if (slots == 0) {
+            return Mono.just(List.of());
+        }
+
+        var excludedTokens = request.excludedTokens();
+        var exclusion = request.exclusion();
+        // 有互斥约束时冲突者会被跳过，需保留全部候选人以便继续往后取
+        int capacity = exclusion.isActive() ? Integer.MAX_VALUE : slots;
+        return request.candidates()
+            .filter(participant -> participant.getSpec() != null
+                && !excludedTokens.contains(participant.getSpec().getToken()))
+            .collect(() -> new Reservoir(capacity, exclusion), Reservoir::offer)
+            .map(reservoir -> DrawSupport.deal(prizes, request.remaining(), reservoir.columns, reservoir.order()));
+    }
+
+    /**
+     * 容量为 k 的蓄水池抽样（Algorithm R），取出时再对样本做 Fisher–Yates 洗牌，
+     * 结果与对全部候选人洗牌后取前 k 个同分布。
+     * 只有进入蓄水池的参与者才会投影到 {@link ParticipantColumns}，期望行数约为 k·(1 + ln(n/k))。
+     */
+    private static final class Reservoir {
+
+        private final ParticipantColumns columns;
+        private final int capacity;
+        private int[] rows;
+        private int filled;
+        private long seen;
+
+        Reservoir(int capacity, WinnerExclusion exclusion) {
+            this.capacity = capacity;
+            this.columns = new ParticipantColumns(exclusion);
+            this.rows = new int[Math.min(capacity, 1024)];
+        }
+
+        void offer(LotteryParticipant participant) {
+            seen++;
+            if (filled < capacity) {
+                if (filled == rows.length) {
+                    rows = Arrays.copyOf(rows, (int) Math.min(capacity, rows.length * 2L));
+                }
+                rows[filled++] = columns.append(participant);
+                return;
+            }
+            long index = ThreadLocalRandom.current().nextLong(seen);
+            if (index < capacity) {
+                rows[(int) index] = columns.append(participant);
+            }
+        }
+
+        /**
+         * 按需进行的 Fisher–Yates：每取一个才交换一次，只取前 k 个时代价为 O(k)。
+         */
+        IntSupplier order() {
+            var random = ThreadLocalRandom.current();
+            var next = new int[1];
+            return () -> {
+                int i = next[0];
+                if (i >= filled) {
+                    return -1;
+                }
+                int j = i + random.nextInt(filled - i);
+                int swap = rows[i];
+                rows[i] = rows[j];
+                rows[j] = swap;
+                next[0]++;
+                return rows[i];
+            };
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.WinnerExclusion;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * 按参与者权重（奖券数）抽取的定时开奖策略，需通过 {@code spec.drawStrategy: weighted} 启用。
+ * <p>
+ * 使用 Efraimidis–Spirakis 加权无放回抽样：每位候选人取键 {@code ln(u) / weight}，
+ * 流式遍历时用容量为 k 的小顶堆保留键最大的 k 人，时间 O(n log k)，内存 O(k)，
+ * 不需要把奖券展开成多条参与记录。按键从大到小依次发奖，等价于逐个按权重无放回抽取。
+ * {@code u} 由种子与 token 决定，结果与候选人读取顺序无关，可重放。
+ * <p>
+ * 配置了中奖互斥约束时冲突者会被跳过，无法预知需要多少人，此时保留全部键，
+ * 线性建堆后按需弹出，时间 O(n + m log n)，m 为实际检查到的人数。
+ */
+@Component
+@Order(20)
+public class WeightedDrawStrategy implements DrawStrategy {
+
+    public static final String NAME = "weighted";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(LotteryType lotteryType) {
+        return lotteryType == LotteryType.SCHEDULED;
+    }
+
+    @Override
+    public boolean isReproducible() {
+        return true;
+    }
+
+    @Override
+    public Mono<List<Winner>> drawWinners(DrawRequest request) {
+        var prizes = Objects.requireNonNullElse(request.activity().getSpec().getPrizes(), List.<Prize>of());
+        int slots = DrawSupport.totalSlots(prizes, request.remaining());
+        if (slots == 0) {
+            return Mono.just(List.of());
+        }
+
+        var excludedTokens = request.excludedTokens();
+        long seed = request.seed();
+        return request.candidates()
+            .filter(participant -> participant.getSpec() != null
+                && participant.getSpec().getToken() != null
+                && !excludedTokens.contains(participant.getSpec().getToken()))
+            .collect(() -> new KeyHeap(slots, request.exclusion()), (heap, participant) -> heap.offer(participant, seed))
+            .map(heap -> DrawSupport.deal(prizes, request.remaining(), heap.columns, heap.order()));
+    }
+
+    /**
+     * 小顶堆，堆顶为当前保留的最小键。只有进入堆的候选人才会投影到 {@link ParticipantColumns}。
+     * 不限容量时保留全部候选人并存入键的相反数，取出时小顶堆即按原键从大到小弹出。
+     */
+    private static final class KeyHeap {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final ParticipantColumns columns;
+        private final boolean bounded;
+        private double[] keys;
+        private int[] rows;
+        private int size;
+
+        KeyHeap(int capacity, WinnerExclusion exclusion) {
+            this.columns = new ParticipantColumns(exclusion);
+            this.bounded = !exclusion.isActive();
+            int initial = bounded ? capacity : INITIAL_CAPACITY;
+            this.keys = new double[initial];
+            this.rows = new int[initial];
+        }
+
+        void offer(LotteryParticipant participant, long seed) {
+            int weight = weightOf(participant);
+            if (weight <= 0) {
+                return;
+            }
+            double key = Math.log(uniform(participant.getSpec().getToken(), seed)) / weight;
+            if (!bounded) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    rows = Arrays.copyOf(rows, size * 2);
+                }
+                keys[size] = -key;
+                rows[size++] = columns.append(participant);
+                return;
+            }
+            if (size < keys.length) {
+                keys[size] = key;
+                rows[size] = columns.append(participant);
+                siftUp(size++);
+                return;
+            }
+            if (key > keys[0]) {
+                keys[0] = key;
+                rows[0] = columns.append(participant);
+                siftDown(0, size);
+            }
+        }
+
+        /**
+         * 按键从大到小依次给出保留的行，取完时返回 -1。
+         */
+        IntSupplier order() {
+            if (bounded) {
+                var drained = drain();
+                var next = new int[1];
+                return () -> next[0] < drained.length ? drained[next[0]++] : -1;
+            }
+            for (int index = (size >>> 1) - 1; index >= 0; index--) {
+                siftDown(index, size);
+            }
+            var end = new int[]{size};
+            return () -> {
+                if (end[0] == 0) {
+                    return -1;
+                }
+                int row = rows[0];
+                swap(0, --end[0]);
+                siftDown(0, end[0]);
+                return row;
+            };
+        }
+
+        private int[] drain() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(rows, size);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (keys[parent] <= keys[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int limit) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= limit) {
+                    return;
+                }
+                int smallest = left + 1 < limit && keys[left + 1] < keys[left] ? left + 1 : left;
+                if (keys[index] <= keys[smallest]) {
+                    return;
+                }
+                swap(index, smallest);
+                index = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            double key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+        }
+    }
+
+    private static int weightOf(LotteryParticipant participant) {
+        return Objects.requireNonNullElse(participant.getSpec().getWeight(), 1);
+    }
+
+    /**
+     * 由种子与 token 确定的 (0, 1] 区间均匀随机数。
+     */
+    private static double uniform(String token, long seed) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash = (hash ^ token.charAt(i)) * 0x100000001b3L;
+        }
+        return 1.0 - new SplittableRandom(seed ^ hash).nextDouble();
+    }
+}
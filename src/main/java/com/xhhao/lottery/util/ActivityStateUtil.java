@@ -0,0 +1,58 @@
+package com.xhhao.lottery.util;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * 活动生命周期状态的计算。持久化的状态由 {@code LotteryActivityStateReconciler} 在边界时刻写入，
+ * 读取路径只在内存中按当前时间计算，避免读请求触发写入。
+ */
+public class ActivityStateUtil {
+
+    /**
+     * 按当前时间计算活动状态，已开奖的活动保持 {@link State#DRAWN}。
+     */
+    public static State effectiveState(LotteryActivity activity, Instant now) {
+        var status = activity.getStatus();
+        if (status != null && status.getState() == State.DRAWN) {
+            return State.DRAWN;
+        }
+        var spec = activity.getSpec();
+        var startTime = Objects.requireNonNullElse(spec.getStartTime(), Instant.EPOCH);
+        if (now.isBefore(startTime)) {
+            return State.PENDING;
+        }
+        if (spec.getEndTime() != null && now.isAfter(spec.getEndTime())) {
+            return State.ENDED;
+        }
+        return State.RUNNING;
+    }
+
+    /**
+     * 下一次状态变化的时刻（开始时间或结束时间之后），没有后续变化时返回 null。
+     */
+    public static Instant nextTransition(LotteryActivity activity, Instant now) {
+        var spec = activity.getSpec();
+        if (spec.getStartTime() != null && now.isBefore(spec.getStartTime())) {
+            return spec.getStartTime();
+        }
+        if (spec.getEndTime() != null && !now.isAfter(spec.getEndTime())) {
+            return spec.getEndTime().plusMillis(1);
+        }
+        return null;
+    }
+
+    /**
+     * 在内存中把活动状态替换为当前的有效状态，不持久化。
+     */
+    public static LotteryActivity withEffectiveState(LotteryActivity activity) {
+        if (activity.getStatus() == null) {
+            activity.setStatus(new LotteryActivity.LotteryActivityStatus());
+        }
+        activity.getStatus().setState(effectiveState(activity, Instant.now()));
+        return activity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.xhhao.lottery.util;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 合并同一个键上并发的相同读取：执行期间到达的请求共享同一次计算的结果（包括错误），
+ * 计算结束后立即移除，之后的请求重新计算。结果会被多个请求共用，调用方不应修改。
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> {
+            var self = new AtomicReference<Mono<V>>();
+            var shared = loader.get()
+                .doFinally(signal -> inFlight.remove(k, self.get()))
+                .cache();
+            self.set(shared);
+            return shared;
+        }));
+    }
+}
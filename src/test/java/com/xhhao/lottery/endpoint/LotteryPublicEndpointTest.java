@@ -0,0 +1,133 @@
+package com.xhhao.lottery.endpoint;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivitySpec;
+import com.xhhao.lottery.service.EmailVerificationService;
+import com.xhhao.lottery.service.LotteryService;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import com.xhhao.lottery.service.SettingConfigGetter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.Metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LotteryPublicEndpointTest {
+
+    private static final String ACTIVITY = "activity-test";
+
+    private LotteryService lotteryService;
+    private WebTestClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        lotteryService = mock(LotteryService.class);
+        var endpoint = new LotteryPublicEndpoint(lotteryService, mock(EmailVerificationService.class),
+            mock(SettingConfigGetter.class), mock(LotteryWinnerService.class));
+        webClient = WebTestClient.bindToRouterFunction(endpoint.endpoint()).build();
+
+        when(lotteryService.getActivityRevision(ACTIVITY)).thenReturn(Mono.just("7-RUNNING-3-0"));
+        when(lotteryService.getActivity(ACTIVITY)).thenReturn(Mono.fromSupplier(() -> activity("幸运抽奖")));
+    }
+
+    @Test
+    void activityCarriesRevisionETag() {
+        webClient.get().uri("/lotteries/{name}", ACTIVITY)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"7-RUNNING-3-0\"")
+            .expectHeader().cacheControl(CacheControl.noCache().cachePublic())
+            .expectBody()
+            .jsonPath("$.name").isEqualTo(ACTIVITY)
+            .jsonPath("$.title").isEqualTo("幸运抽奖");
+    }
+
+    /**
+     * 修订标识未变时直接返回 304，不再读取活动。
+     */
+    @Test
+    void matchingETagReturnsNotModifiedWithoutLoading() {
+        webClient.get().uri("/lotteries/{name}", ACTIVITY)
+            .header("If-None-Match", "\"7-RUNNING-3-0\"")
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals("ETag", "\"7-RUNNING-3-0\"")
+            .expectBody().isEmpty();
+
+        verify(lotteryService, never()).getActivity(anyString());
+    }
+
+    @Test
+    void staleETagReturnsFreshBody() {
+        webClient.get().uri("/lotteries/{name}", ACTIVITY)
+            .header("If-None-Match", "\"6-RUNNING-2-0\"")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals("ETag", "\"7-RUNNING-3-0\"")
+            .expectBody().jsonPath("$.name").isEqualTo(ACTIVITY);
+    }
+
+    /**
+     * 修订不变时重复写出缓存的序列化结果，每次响应的内容完整且一致。
+     */
+    @Test
+    void sameRevisionReusesSerializedBody() {
+        var first = getActivityBody();
+        var second = getActivityBody();
+
+        assertEquals(first, second);
+        verify(lotteryService, times(1)).getActivity(ACTIVITY);
+    }
+
+    @Test
+    void newRevisionReserializes() {
+        var first = getActivityBody();
+        when(lotteryService.getActivityRevision(ACTIVITY)).thenReturn(Mono.just("8-RUNNING-4-0"));
+        when(lotteryService.getActivity(ACTIVITY)).thenReturn(Mono.fromSupplier(() -> activity("新的标题")));
+
+        var second = getActivityBody();
+
+        assertNotEquals(first, second);
+        assertTrue(second.contains("新的标题"), second);
+        verify(lotteryService, times(2)).getActivity(ACTIVITY);
+    }
+
+    @Test
+    void missingActivityReturnsNotFound() {
+        when(lotteryService.getActivityRevision("missing")).thenReturn(Mono.empty());
+
+        webClient.get().uri("/lotteries/{name}", "missing")
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    private String getActivityBody() {
+        return webClient.get().uri("/lotteries/{name}", ACTIVITY)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private static LotteryActivity activity(String title) {
+        var spec = new LotteryActivitySpec();
+        spec.setTitle(title);
+        var activity = new LotteryActivity();
+        activity.setMetadata(new Metadata());
+        activity.getMetadata().setName(ACTIVITY);
+        activity.setSpec(spec);
+        return activity;
+    }
+}
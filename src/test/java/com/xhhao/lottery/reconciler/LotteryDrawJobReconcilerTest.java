@@ -0,0 +1,213 @@
+package com.xhhao.lottery.reconciler;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryDrawJob;
+import com.xhhao.lottery.entity.LotteryDrawJob.DrawJobSpec;
+import com.xhhao.lottery.entity.LotteryDrawJob.DrawJobStatus;
+import com.xhhao.lottery.entity.LotteryDrawJob.Phase;
+import com.xhhao.lottery.entity.LotteryDrawRound.DrawRoundSpec;
+import com.xhhao.lottery.service.DrawLockService;
+import com.xhhao.lottery.service.DrawLockService.DrawLease;
+import com.xhhao.lottery.service.DrawNotificationService;
+import com.xhhao.lottery.service.DrawNotificationService.NotifyProgress;
+import com.xhhao.lottery.service.LotteryService;
+import com.xhhao.lottery.service.LotteryService.DrawResult;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.controller.Reconciler.Request;
+import run.halo.app.extension.controller.Reconciler.Result;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LotteryDrawJobReconcilerTest {
+
+    private static final String ACTIVITY = "activity-test";
+    private static final String JOB = "draw-job-test";
+
+    private ExtensionClient client;
+    private LotteryService lotteryService;
+    private DrawNotificationService drawNotificationService;
+    private DrawLockService drawLockService;
+    private LotteryWinnerService winnerService;
+    private LotteryDrawJobReconciler reconciler;
+    private LotteryActivity activity;
+    private Winner winner;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ExtensionClient.class);
+        lotteryService = mock(LotteryService.class);
+        drawNotificationService = mock(DrawNotificationService.class);
+        drawLockService = mock(DrawLockService.class);
+        winnerService = mock(LotteryWinnerService.class);
+        reconciler = new LotteryDrawJobReconciler(client, lotteryService, drawNotificationService, drawLockService,
+            winnerService);
+
+        activity = new LotteryActivity();
+        activity.setMetadata(new Metadata());
+        activity.getMetadata().setName(ACTIVITY);
+        winner = new Winner();
+        winner.setIdentifier("alice@example.com");
+        winner.setPrizeName("prize-0");
+        winner.setSourceToken("token-alice");
+
+        when(client.fetch(LotteryActivity.class, ACTIVITY)).thenReturn(Optional.of(activity));
+        when(drawLockService.release(any())).thenReturn(Mono.empty());
+        when(lotteryService.claimDrawFence(eq(ACTIVITY), anyLong())).thenReturn(Mono.empty());
+        when(winnerService.streamWinners(ACTIVITY, 1)).thenReturn(Flux.just(winner));
+        when(drawNotificationService.notifyDrawResults(eq(activity), any(), any()))
+            .thenAnswer(invocation -> {
+                NotifyProgress from = invocation.getArgument(2);
+                return Flux.just(new NotifyProgress(from.winnersNotified() + 1, 0, null, 0));
+            });
+    }
+
+    /**
+     * 抽样完成后中断：续跑以新的锁令牌写入任务中保存的抽样结果，不重新加载或抽取。
+     */
+    @Test
+    void resumeAfterSamplingPersistsStoredWinners() {
+        var job = job(Phase.SAMPLING);
+        job.getStatus().setWinners(List.of(winner));
+        job.getStatus().setDrawSeed(42L);
+        job.getStatus().setDrawStrategy("sharded");
+        job.getStatus().setRound(round());
+        var lease = new DrawLease(ACTIVITY, "owner", 9L);
+        when(drawLockService.tryAcquire(ACTIVITY)).thenReturn(Mono.just(lease));
+        when(lotteryService.persistWinners(eq(ACTIVITY), any(), eq(9L))).thenReturn(Mono.just(activity));
+
+        var result = reconciler.reconcile(new Request(JOB));
+
+        assertEquals(Result.doNotRetry(), result);
+        verify(lotteryService).claimDrawFence(ACTIVITY, 9L);
+        verify(lotteryService, never()).prepareDraw(anyString());
+        verify(lotteryService, never()).sampleWinners(anyString());
+        var persisted = ArgumentCaptor.forClass(DrawResult.class);
+        verify(lotteryService).persistWinners(eq(ACTIVITY), persisted.capture(), eq(9L));
+        assertEquals(List.of(winner), persisted.getValue().winners());
+        assertEquals(42L, persisted.getValue().seed());
+        assertEquals(1, persisted.getValue().round().getRound());
+        verify(drawLockService).release(lease);
+
+        var status = job.getStatus();
+        assertEquals(Phase.SUCCEEDED, status.getPhase());
+        assertEquals(Phase.NOTIFYING, status.getLastCompletedPhase());
+        assertNull(status.getWinners());
+        assertEquals(1, status.getNotifiedCount());
+        assertNotNull(status.getFinishTime());
+    }
+
+    /**
+     * 结果已落库后中断：不再获取开奖锁，从记录的通知进度继续。
+     */
+    @Test
+    void resumeAfterPersistingContinuesNotificationWithoutLock() {
+        var job = job(Phase.PERSISTING);
+        job.getStatus().setRound(round());
+        job.getStatus().setNotifiedCount(3);
+
+        var result = reconciler.reconcile(new Request(JOB));
+
+        assertEquals(Result.doNotRetry(), result);
+        verify(drawLockService, never()).tryAcquire(anyString());
+        verify(lotteryService, never()).persistWinners(anyString(), any(), anyLong());
+        var from = ArgumentCaptor.forClass(NotifyProgress.class);
+        verify(drawNotificationService).notifyDrawResults(eq(activity), any(), from.capture());
+        assertEquals(3, from.getValue().winnersNotified());
+        assertEquals(4, job.getStatus().getNotifiedCount());
+        assertEquals(Phase.SUCCEEDED, job.getStatus().getPhase());
+    }
+
+    @Test
+    void busyLockRequeuesWithoutCountingAttempt() {
+        var job = job(Phase.PENDING);
+        when(drawLockService.tryAcquire(ACTIVITY)).thenReturn(Mono.empty());
+
+        var result = reconciler.reconcile(new Request(JOB));
+
+        assertEquals(Result.requeue(Duration.ofSeconds(5)), result);
+        assertNull(job.getStatus().getAttempts());
+        verify(lotteryService, never()).prepareDraw(anyString());
+    }
+
+    /**
+     * 锁被其他节点接管后写入被拒绝，属于不可重试的错误，任务直接失败。
+     */
+    @Test
+    void supersededFenceFailsJobWithoutRetry() {
+        var job = job(Phase.SAMPLING);
+        job.getStatus().setWinners(List.of(winner));
+        job.getStatus().setRound(round());
+        var lease = new DrawLease(ACTIVITY, "owner", 9L);
+        when(drawLockService.tryAcquire(ACTIVITY)).thenReturn(Mono.just(lease));
+        when(lotteryService.persistWinners(eq(ACTIVITY), any(), eq(9L)))
+            .thenReturn(Mono.error(new IllegalStateException("开奖锁已被其他节点接管，本次开奖结果未写入")));
+
+        var result = reconciler.reconcile(new Request(JOB));
+
+        assertEquals(Result.doNotRetry(), result);
+        assertEquals(Phase.FAILED, job.getStatus().getPhase());
+        assertEquals("开奖锁已被其他节点接管，本次开奖结果未写入", job.getStatus().getError());
+        verify(drawLockService).release(lease);
+        verify(drawNotificationService, never()).notifyDrawResults(any(), any(), any());
+    }
+
+    @Test
+    void transientFailureRetriesWithBackoff() {
+        var job = job(Phase.PENDING);
+        var lease = new DrawLease(ACTIVITY, "owner", 9L);
+        when(drawLockService.tryAcquire(ACTIVITY)).thenReturn(Mono.just(lease));
+        when(lotteryService.prepareDraw(ACTIVITY)).thenReturn(Mono.error(new RuntimeException("connection reset")));
+
+        var result = reconciler.reconcile(new Request(JOB));
+
+        assertEquals(Result.requeue(Duration.ofSeconds(10)), result);
+        assertEquals(Phase.LOADING, job.getStatus().getPhase());
+        assertEquals(1, job.getStatus().getAttempts());
+        assertEquals("connection reset", job.getStatus().getError());
+        verify(drawLockService).release(lease);
+    }
+
+    private LotteryDrawJob job(Phase lastCompleted) {
+        var spec = new DrawJobSpec();
+        spec.setActivityName(ACTIVITY);
+        var status = new DrawJobStatus();
+        status.setPhase(lastCompleted);
+        status.setLastCompletedPhase(lastCompleted == Phase.PENDING ? null : lastCompleted);
+        var job = new LotteryDrawJob();
+        job.setMetadata(new Metadata());
+        job.getMetadata().setName(JOB);
+        job.setSpec(spec);
+        job.setStatus(status);
+        when(client.fetch(LotteryDrawJob.class, JOB)).thenReturn(Optional.of(job));
+        return job;
+    }
+
+    private static DrawRoundSpec round() {
+        var round = new DrawRoundSpec();
+        round.setActivityName(ACTIVITY);
+        round.setRound(1);
+        return round;
+    }
+}
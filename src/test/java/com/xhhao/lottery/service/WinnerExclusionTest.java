@@ -0,0 +1,87 @@
+package com.xhhao.lottery.service;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivitySpec;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WinnerExclusionTest {
+
+    @Test
+    void noDimensionsMeansNoConstraint() {
+        var exclusion = WinnerExclusion.of(activity());
+
+        assertSame(WinnerExclusion.none(), exclusion);
+        assertFalse(exclusion.isActive());
+        assertTrue(exclusion.claim(new long[0], 0));
+        assertTrue(exclusion.claim(new long[0], 0));
+    }
+
+    @Test
+    void emailIgnoresCaseAndPlusTag() {
+        var exclusion = WinnerExclusion.of(activity(WinnerExclusivity.EMAIL));
+
+        assertTrue(claim(exclusion, spec("A.B+x@Mail.com", null, null)));
+        assertFalse(claim(exclusion, spec("a.b@mail.com", null, null)));
+        assertTrue(claim(exclusion, spec("a.c@mail.com", null, null)));
+    }
+
+    @Test
+    void emailDomainConflictsAcrossMailboxes() {
+        var exclusion = WinnerExclusion.of(activity(WinnerExclusivity.EMAIL_DOMAIN));
+
+        assertTrue(claim(exclusion, spec("one@Example.com", null, null)));
+        assertFalse(claim(exclusion, spec("two@example.com", null, null)));
+        assertTrue(claim(exclusion, spec("three@example.org", null, null)));
+    }
+
+    @Test
+    void missingValuesNeverConflict() {
+        var exclusion = WinnerExclusion.of(activity(WinnerExclusivity.IP_ADDRESS));
+
+        assertTrue(claim(exclusion, spec(null, null, null)));
+        assertTrue(claim(exclusion, spec(null, null, " ")));
+    }
+
+    /**
+     * 任一维度冲突时整行不占用，其余维度的键仍可被后续候选人使用。
+     */
+    @Test
+    void conflictingClaimLeavesOtherDimensionsFree() {
+        var exclusion = WinnerExclusion.of(activity(WinnerExclusivity.IP_ADDRESS, WinnerExclusivity.USERNAME));
+        exclusion.occupy(spec(null, "alice", "10.0.0.1"));
+
+        assertFalse(claim(exclusion, spec(null, "bob", "10.0.0.1")));
+        assertTrue(claim(exclusion, spec(null, "bob", "10.0.0.2")));
+        assertFalse(claim(exclusion, spec(null, "Alice", "10.0.0.3")));
+    }
+
+    private static boolean claim(WinnerExclusion exclusion, LotteryParticipantSpec spec) {
+        var keys = new long[exclusion.dimensionCount()];
+        exclusion.keysOf(spec, keys, 0);
+        return exclusion.claim(keys, 0);
+    }
+
+    private static LotteryActivity activity(WinnerExclusivity... dimensions) {
+        var spec = new LotteryActivitySpec();
+        spec.setWinnerExclusivity(List.of(dimensions));
+        var activity = new LotteryActivity();
+        activity.setSpec(spec);
+        return activity;
+    }
+
+    private static LotteryParticipantSpec spec(String email, String username, String ipAddress) {
+        var spec = new LotteryParticipantSpec();
+        spec.setEmail(email);
+        spec.setUsername(username);
+        spec.setIpAddress(ipAddress);
+        return spec;
+    }
+}
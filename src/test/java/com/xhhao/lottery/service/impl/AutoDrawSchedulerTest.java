@@ -0,0 +1,80 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.service.LotteryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AutoDrawSchedulerTest {
+
+    private ReactiveExtensionClient client;
+    private LotteryService lotteryService;
+    private LotteryActivity activity;
+    private AutoDrawScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ReactiveExtensionClient.class);
+        lotteryService = mock(LotteryService.class);
+        activity = activity(ShardedDrawStrategy.NAME, 1);
+        activity.getSpec().setDrawTime(Instant.now().minusSeconds(60));
+        when(client.listAll(eq(LotteryActivity.class), any(ListOptions.class), isNull()))
+            .thenReturn(Flux.just(activity));
+        when(client.fetch(LotteryActivity.class, activity.getMetadata().getName())).thenReturn(Mono.just(activity));
+        when(client.update(any(LotteryActivity.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        scheduler = new AutoDrawScheduler(client, lotteryService, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    /**
+     * 配置错误等无法恢复的失败重试有限次后放弃，错误记录到活动状态。
+     */
+    @Test
+    void permanentFailureGivesUpAndRecordsError() {
+        when(lotteryService.autoDraw(activity.getMetadata().getName()))
+            .thenReturn(Mono.error(new IllegalStateException("开奖策略不支持该活动类型")));
+
+        scheduler.start();
+
+        verify(client, timeout(2000)).update(activity);
+        verify(lotteryService, after(300).times(AutoDrawScheduler.MAX_ATTEMPTS))
+            .autoDraw(activity.getMetadata().getName());
+        assertEquals("开奖策略不支持该活动类型", activity.getStatus().getDrawError());
+    }
+
+    @Test
+    void transientFailureKeepsRetrying() {
+        when(lotteryService.autoDraw(activity.getMetadata().getName()))
+            .thenReturn(Mono.error(new RuntimeException("connection reset")));
+
+        scheduler.start();
+
+        verify(lotteryService, timeout(2000).atLeast(AutoDrawScheduler.MAX_ATTEMPTS + 2))
+            .autoDraw(activity.getMetadata().getName());
+        verify(client, never()).update(any(LotteryActivity.class));
+    }
+}
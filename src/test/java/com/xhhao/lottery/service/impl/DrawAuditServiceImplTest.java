@@ -0,0 +1,180 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import com.xhhao.lottery.service.DrawAuditService.DrawVerification;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.DrawStrategy.DrawRequest;
+import com.xhhao.lottery.service.WinnerExclusion;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import run.halo.app.plugin.PluginContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static com.xhhao.lottery.service.impl.DrawFixtures.participants;
+import static com.xhhao.lottery.service.impl.DrawFixtures.remaining;
+import static com.xhhao.lottery.service.impl.DrawFixtures.withExclusivity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrawAuditServiceImplTest {
+
+    private static LotteryComputeScheduler scheduler;
+    private static DrawStrategyResolver resolver;
+
+    @TempDir
+    Path root;
+
+    private DrawAuditServiceImpl auditService;
+
+    @BeforeAll
+    static void setUpStrategies() {
+        scheduler = DrawFixtures.computeScheduler();
+        var beans = new StaticListableBeanFactory();
+        beans.addBean(ShardedDrawStrategy.NAME, new ShardedDrawStrategy(scheduler, 16));
+        beans.addBean(WeightedDrawStrategy.NAME, new WeightedDrawStrategy());
+        beans.addBean(ShuffleDrawStrategy.NAME, new ShuffleDrawStrategy());
+        resolver = new DrawStrategyResolver(beans.getBeanProvider(DrawStrategy.class));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        scheduler.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        auditService = new DrawAuditServiceImpl(() -> root.resolve("plugins"),
+            PluginContext.builder().name("lottery").build(), resolver, scheduler);
+    }
+
+    @Test
+    void shardedDrawReplaysFromSnapshot() {
+        var activity = activity(ShardedDrawStrategy.NAME, 3, 5);
+        var candidates = participants(200);
+
+        var verification = drawAndVerify(activity, candidates, Set.of(), List.of(), 1);
+
+        assertTrue(verification.checksumValid());
+        assertTrue(verification.winnersInCandidates());
+        assertEquals(Boolean.TRUE, verification.replayMatched());
+        assertEquals(200, verification.candidateCount());
+        assertEquals(8, verification.winnerCount());
+    }
+
+    /**
+     * 快照记录排除后的候选人与预先占用的互斥键，重放时不访问存储也能得到相同结果。
+     */
+    @Test
+    void weightedDrawWithExclusionReplaysFromSnapshot() {
+        var activity = withExclusivity(activity(WeightedDrawStrategy.NAME, 10), WinnerExclusivity.EMAIL_DOMAIN);
+        var candidates = participants(300, 12);
+        var excluded = Set.of(candidates.get(0).getSpec().getToken(), candidates.get(1).getSpec().getToken());
+        var awarded = List.of(candidates.get(0).getSpec());
+
+        var verification = drawAndVerify(activity, candidates, excluded, awarded, 2);
+
+        assertTrue(verification.checksumValid());
+        assertEquals(Boolean.TRUE, verification.replayMatched());
+        assertEquals(298, verification.candidateCount());
+        assertEquals(10, verification.winnerCount());
+    }
+
+    /**
+     * 打乱抽取不可重放，不记录候选人，也不写快照。
+     */
+    @Test
+    void shuffleDrawWritesNoSnapshot() {
+        var activity = activity(ShuffleDrawStrategy.NAME, 4);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> drawAndVerify(activity, participants(50), Set.of(), List.of(), 1));
+        assertFalse(Files.exists(snapshotDirectory()));
+    }
+
+    /**
+     * 快照只保存匿名化的互斥字段，不含原始邮箱，重放时互斥关系不变。
+     */
+    @Test
+    void snapshotDoesNotStoreRawEmails() throws IOException {
+        var activity = withExclusivity(activity(ShardedDrawStrategy.NAME, 6), WinnerExclusivity.EMAIL,
+            WinnerExclusivity.EMAIL_DOMAIN);
+        var candidates = participants(120, 5);
+
+        var verification = drawAndVerify(activity, candidates, Set.of(), List.of(candidates.get(3).getSpec()), 1);
+
+        assertEquals(Boolean.TRUE, verification.replayMatched());
+        assertEquals(4, verification.winnerCount());
+        var content = new String(Files.readAllBytes(snapshotDirectory().resolve("round-1.snap")),
+            StandardCharsets.ISO_8859_1);
+        assertFalse(content.contains("@d0.test"));
+        assertFalse(content.contains("user3"));
+    }
+
+    @Test
+    void deletingActivitySnapshotsRemovesDirectory() {
+        drawAndVerify(activity(ShardedDrawStrategy.NAME, 2), participants(30), Set.of(), List.of(), 1);
+        drawAndVerify(activity(ShardedDrawStrategy.NAME, 2), participants(30), Set.of(), List.of(), 2);
+
+        auditService.deleteSnapshots("activity-test").block();
+
+        assertFalse(Files.exists(snapshotDirectory()));
+        assertThrows(IllegalArgumentException.class, () -> auditService.verify("activity-test", 1).block());
+    }
+
+    @Test
+    void corruptedSnapshotFailsChecksum() throws IOException {
+        drawAndVerify(activity(ShardedDrawStrategy.NAME, 2), participants(30), Set.of(), List.of(), 1);
+        var snapshot = snapshotDirectory().resolve("round-1.snap");
+        var bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshot, bytes);
+
+        var verification = auditService.verify("activity-test", 1).block();
+
+        assertFalse(verification.checksumValid());
+        assertNull(verification.replayMatched());
+    }
+
+    @Test
+    void missingSnapshotIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> auditService.verify("activity-test", 9).block());
+    }
+
+    private DrawVerification drawAndVerify(LotteryActivity activity, List<LotteryParticipant> candidates,
+                                           Set<String> excludedTokens, List<LotteryParticipantSpec> awarded,
+                                           int round) {
+        var exclusion = WinnerExclusion.of(activity);
+        awarded.forEach(exclusion::occupy);
+        var request = new DrawRequest(activity, Flux.fromIterable(candidates), remaining(activity),
+            excludedTokens, 1234L, exclusion);
+        var strategy = resolver.resolve(activity);
+
+        var recording = auditService.begin(strategy, request, round, awarded);
+        var winners = strategy.drawWinners(recording.request()).block();
+        recording.complete(strategy, winners).block();
+
+        return auditService.verify(activity.getMetadata().getName(), round).block();
+    }
+
+    private Path snapshotDirectory() {
+        return root.resolve("plugins-data/lottery/draw-audit/activity-test");
+    }
+}
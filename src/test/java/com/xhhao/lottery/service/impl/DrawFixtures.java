@@ -0,0 +1,119 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivitySpec;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import com.xhhao.lottery.service.DrawStrategy.DrawRequest;
+import com.xhhao.lottery.service.WinnerExclusion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import run.halo.app.extension.Metadata;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * 开奖策略测试共用的活动、参与者与请求构造。
+ */
+final class DrawFixtures {
+
+    private DrawFixtures() {
+    }
+
+    static LotteryComputeScheduler computeScheduler() {
+        return new LotteryComputeScheduler(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    /**
+     * 奖品按传入顺序排列，{@code quantities} 依次为各奖品名额。
+     */
+    static LotteryActivity activity(String drawStrategy, int... quantities) {
+        var spec = new LotteryActivitySpec();
+        spec.setLotteryType(LotteryType.SCHEDULED);
+        spec.setDrawStrategy(drawStrategy);
+        var prizes = new ArrayList<Prize>();
+        for (int i = 0; i < quantities.length; i++) {
+            var prize = new Prize();
+            prize.setName("prize-" + i);
+            prize.setQuantity(quantities[i]);
+            prizes.add(prize);
+        }
+        spec.setPrizes(prizes);
+        var activity = new LotteryActivity();
+        activity.setMetadata(new Metadata());
+        activity.getMetadata().setName("activity-test");
+        activity.setSpec(spec);
+        return activity;
+    }
+
+    static LotteryActivity withExclusivity(LotteryActivity activity, WinnerExclusivity... dimensions) {
+        activity.getSpec().setWinnerExclusivity(List.of(dimensions));
+        return activity;
+    }
+
+    static Map<String, Integer> remaining(LotteryActivity activity) {
+        var remaining = new LinkedHashMap<String, Integer>();
+        activity.getSpec().getPrizes().forEach(prize -> remaining.put(prize.getName(), prize.getQuantity()));
+        return remaining;
+    }
+
+    /**
+     * 与正式参与记录相同的 64 位十六进制 token，邮箱按 {@code i % domains} 分布在不同域名下。
+     */
+    static List<LotteryParticipant> participants(int count, int domains) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> participant(i, 1, "user" + i + "@d" + (i % domains) + ".test"))
+            .toList();
+    }
+
+    static List<LotteryParticipant> participants(int count) {
+        return participants(count, count);
+    }
+
+    static LotteryParticipant participant(int index, Integer weight, String email) {
+        var spec = new LotteryParticipantSpec();
+        spec.setToken(token("participant-" + index));
+        spec.setEmail(email);
+        spec.setWeight(weight);
+        var participant = new LotteryParticipant();
+        participant.setSpec(spec);
+        return participant;
+    }
+
+    static DrawRequest request(LotteryActivity activity, List<LotteryParticipant> candidates, long seed) {
+        return request(activity, candidates, Set.of(), seed);
+    }
+
+    static DrawRequest request(LotteryActivity activity, List<LotteryParticipant> candidates,
+                               Set<String> excludedTokens, long seed) {
+        return new DrawRequest(activity, Flux.fromIterable(candidates), remaining(activity),
+            excludedTokens, seed, WinnerExclusion.of(activity));
+    }
+
+    static List<String> tokens(List<Winner> winners) {
+        return winners.stream().map(Winner::getSourceToken).toList();
+    }
+
+    static String token(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
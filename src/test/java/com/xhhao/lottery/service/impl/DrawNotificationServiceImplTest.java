@@ -0,0 +1,135 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivityStatus;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryWinner;
+import com.xhhao.lottery.entity.LotteryWinner.LotteryWinnerSpec;
+import com.xhhao.lottery.service.DrawNotificationService.NotifyProgress;
+import com.xhhao.lottery.service.LotteryNotificationService;
+import com.xhhao.lottery.service.SettingConfigGetter;
+import com.xhhao.lottery.service.SettingConfigGetter.NotificationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ListResult;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.PageRequest;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.util.List;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.participants;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DrawNotificationServiceImplTest {
+
+    private ReactiveExtensionClient client;
+    private LotteryNotificationService notificationService;
+    private DrawNotificationServiceImpl drawNotificationService;
+    private List<LotteryParticipant> participants;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ReactiveExtensionClient.class);
+        notificationService = mock(LotteryNotificationService.class);
+        var settingConfigGetter = mock(SettingConfigGetter.class);
+        var config = new NotificationConfig();
+        config.setNotifyNonWinners(true);
+        config.setDrawNotificationRatePerSecond(0);
+        when(settingConfigGetter.getNotificationConfig()).thenReturn(Mono.just(config));
+        when(notificationService.sendWinningNotification(any(), any(), any())).thenReturn(Mono.empty());
+        when(notificationService.sendDrawNoPrizeNotification(any(), any())).thenReturn(Mono.empty());
+        drawNotificationService = new DrawNotificationServiceImpl(client, notificationService, settingConfigGetter,
+            new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+        participants = participants(5);
+        for (int i = 0; i < participants.size(); i++) {
+            participants.get(i).setMetadata(new Metadata());
+            participants.get(i).getMetadata().setName("participant-" + i);
+        }
+        when(client.listBy(eq(LotteryParticipant.class), any(ListOptions.class), any(PageRequest.class)))
+            .thenReturn(Mono.just(new ListResult<>(1, 200, participants.size(), participants)));
+        // 第一轮与最后一轮的中奖者都有中奖记录，参与记录上没有中奖标记
+        when(client.listAll(eq(LotteryWinner.class), any(ListOptions.class), isNull()))
+            .thenReturn(Flux.just(winnerRecord(participants.get(1)), winnerRecord(participants.get(3))));
+        when(client.listAll(eq(LotteryParticipant.class), any(ListOptions.class), isNull()))
+            .thenReturn(Flux.just(participants.get(3)));
+    }
+
+    /**
+     * 最后一轮之后通知本轮中奖者，其余参与者中排除各轮有中奖记录的人，使用定时开奖的未中奖模板。
+     */
+    @Test
+    void finalRoundNotifiesEveryNonWinnerOnce() {
+        var activity = activity(State.DRAWN);
+
+        var progress = drawNotificationService.notifyDrawResults(activity, Flux.just(winner(participants.get(3))),
+            new NotifyProgress(0, 0, null, 0)).blockLast();
+
+        verify(notificationService).sendWinningNotification(participants.get(3), activity, "prize-0");
+        verify(notificationService).sendDrawNoPrizeNotification(participants.get(0), activity);
+        verify(notificationService).sendDrawNoPrizeNotification(participants.get(2), activity);
+        verify(notificationService).sendDrawNoPrizeNotification(participants.get(4), activity);
+        verify(notificationService, never()).sendDrawNoPrizeNotification(participants.get(1), activity);
+        verify(notificationService, never()).sendDrawNoPrizeNotification(participants.get(3), activity);
+        verify(notificationService, never()).sendInstantNoPrizeNotification(any(), any());
+        assertEquals(new NotifyProgress(1, 3, "participant-4", 0), progress);
+    }
+
+    /**
+     * 多轮开奖的中间轮次只通知本轮中奖者，后续轮次还可能中奖的参与者不收到未中奖通知。
+     */
+    @Test
+    void intermediateRoundOnlyNotifiesWinners() {
+        var activity = activity(State.RUNNING);
+
+        var progress = drawNotificationService.notifyDrawResults(activity, Flux.just(winner(participants.get(3))),
+            new NotifyProgress(0, 0, null, 0)).blockLast();
+
+        verify(notificationService).sendWinningNotification(participants.get(3), activity, "prize-0");
+        verify(notificationService, never()).sendDrawNoPrizeNotification(any(), any());
+        verify(client, never()).listBy(eq(LotteryParticipant.class), any(ListOptions.class), any(PageRequest.class));
+        assertEquals(new NotifyProgress(1, 0, null, 0), progress);
+    }
+
+    private static LotteryActivity activity(State state) {
+        var activity = DrawFixtures.activity(ShuffleDrawStrategy.NAME, 1);
+        activity.getSpec().setMultiRound(true);
+        var status = new LotteryActivityStatus();
+        status.setState(state);
+        activity.setStatus(status);
+        return activity;
+    }
+
+    private static Winner winner(LotteryParticipant participant) {
+        var winner = new Winner();
+        winner.setIdentifier(participant.getSpec().getEmail());
+        winner.setPrizeName("prize-0");
+        winner.setSourceToken(participant.getSpec().getToken());
+        return winner;
+    }
+
+    private static LotteryWinner winnerRecord(LotteryParticipant participant) {
+        var spec = new LotteryWinnerSpec();
+        spec.setActivityName("activity-test");
+        spec.setSourceToken(participant.getSpec().getToken());
+        var record = new LotteryWinner();
+        record.setMetadata(new Metadata());
+        record.setSpec(spec);
+        return record;
+    }
+}
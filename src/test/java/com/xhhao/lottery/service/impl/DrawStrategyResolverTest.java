@@ -0,0 +1,72 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.service.DrawStrategy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DrawStrategyResolverTest {
+
+    private static LotteryComputeScheduler scheduler;
+    private static DrawStrategyResolver resolver;
+
+    @BeforeAll
+    static void setUp() {
+        scheduler = DrawFixtures.computeScheduler();
+        var shuffle = new ShuffleDrawStrategy();
+        var beans = new StaticListableBeanFactory();
+        beans.addBean(RedisReservationDrawStrategy.NAME, new RedisReservationDrawStrategy(null, shuffle));
+        beans.addBean(ShardedDrawStrategy.NAME, new ShardedDrawStrategy(scheduler));
+        beans.addBean(WeightedDrawStrategy.NAME, new WeightedDrawStrategy());
+        beans.addBean(ShuffleDrawStrategy.NAME, shuffle);
+        resolver = new DrawStrategyResolver(beans.getBeanProvider(DrawStrategy.class));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void resolvesByTypeWhenNoStrategyIsNamed() {
+        assertInstanceOf(ShardedDrawStrategy.class, resolver.resolve(activity(null)));
+        var wheel = activity(null);
+        wheel.getSpec().setLotteryType(LotteryType.WHEEL);
+        assertInstanceOf(RedisReservationDrawStrategy.class, resolver.resolve(wheel));
+    }
+
+    @Test
+    void rejectsStrategyThatDoesNotSupportType() {
+        for (var name : List.of(ShuffleDrawStrategy.NAME, WeightedDrawStrategy.NAME, ShardedDrawStrategy.NAME)) {
+            var activity = activity(name);
+            activity.getSpec().setLotteryType(LotteryType.DRAW);
+            assertThrows(IllegalStateException.class, () -> resolver.resolve(activity));
+        }
+        var scheduled = activity(RedisReservationDrawStrategy.NAME);
+        assertThrows(IllegalStateException.class, () -> resolver.resolve(scheduled));
+        assertThrows(IllegalStateException.class, () -> resolver.resolve(activity("missing")));
+    }
+
+    @Test
+    void describesSupportedTypes() {
+        var described = resolver.describe();
+
+        assertEquals(List.of(LotteryType.SCHEDULED), find(described, ShuffleDrawStrategy.NAME).lotteryTypes());
+        assertEquals(List.of(LotteryType.WHEEL, LotteryType.DRAW),
+            find(described, RedisReservationDrawStrategy.NAME).lotteryTypes());
+    }
+
+    private static DrawStrategyResolver.StrategyInfo find(List<DrawStrategyResolver.StrategyInfo> described,
+                                                          String name) {
+        return described.stream().filter(info -> info.name().equals(name)).findFirst().orElseThrow();
+    }
+}
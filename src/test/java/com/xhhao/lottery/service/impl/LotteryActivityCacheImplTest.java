@@ -0,0 +1,118 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.service.LotteryEventBus;
+import com.xhhao.lottery.service.LotteryEventBus.EventType;
+import com.xhhao.lottery.service.LotteryEventBus.LotteryEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.extension.Watcher;
+
+import java.util.function.Consumer;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LotteryActivityCacheImplTest {
+
+    private ReactiveExtensionClient client;
+    private LotteryEventBus eventBus;
+    private LotteryActivityCacheImpl cache;
+    private LotteryActivity activity;
+    private String name;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ReactiveExtensionClient.class);
+        eventBus = mock(LotteryEventBus.class);
+        when(eventBus.publish(any())).thenReturn(Mono.empty());
+        cache = new LotteryActivityCacheImpl(client, eventBus);
+
+        activity = activity(ShardedDrawStrategy.NAME, 1);
+        activity.getMetadata().setVersion(3L);
+        name = activity.getMetadata().getName();
+        when(client.get(LotteryActivity.class, name)).thenReturn(Mono.just(activity));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    /**
+     * 命中缓存时不再读取，每次返回独立的副本，调用方修改不影响缓存中的活动。
+     */
+    @Test
+    void hitReturnsCopyWithoutReading() {
+        var first = cache.get(name).block();
+        first.getSpec().setTitle("changed by caller");
+        var second = cache.get(name).block();
+
+        verify(client, times(1)).get(LotteryActivity.class, name);
+        assertNotSame(first, second);
+        assertNotSame(activity, second);
+        assertNotEquals("changed by caller", second.getSpec().getTitle());
+    }
+
+    /**
+     * 加载期间发生失效时，失效前读到的版本不写入缓存，下一次读取重新加载。
+     */
+    @Test
+    void invalidationDuringLoadSkipsStore() {
+        Sinks.One<LotteryActivity> pending = Sinks.one();
+        when(client.get(LotteryActivity.class, name)).thenReturn(pending.asMono())
+            .thenReturn(Mono.just(activity));
+
+        var loading = cache.get(name).toFuture();
+        cache.invalidate(name);
+        pending.tryEmitValue(activity);
+
+        assertEquals(name, loading.join().getMetadata().getName());
+        cache.get(name).block();
+        verify(client, times(2)).get(LotteryActivity.class, name);
+    }
+
+    @Test
+    void changedEventInvalidatesEntry() {
+        cache.start();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<LotteryEvent>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(eventBus).subscribe(listener.capture());
+
+        cache.get(name).block();
+        listener.getValue().accept(new LotteryEvent(EventType.ACTIVITY_FULL, name));
+        cache.get(name).block();
+        verify(client, times(1)).get(LotteryActivity.class, name);
+
+        listener.getValue().accept(new LotteryEvent(EventType.ACTIVITY_CHANGED, name));
+        cache.get(name).block();
+        verify(client, times(2)).get(LotteryActivity.class, name);
+    }
+
+    /**
+     * 本节点监听到活动修改或删除时广播变更事件，由各节点的订阅者清除缓存。
+     */
+    @Test
+    void watcherBroadcastsChanges() {
+        cache.start();
+        var watcher = ArgumentCaptor.forClass(Watcher.class);
+        verify(client).watch(watcher.capture());
+
+        watcher.getValue().onUpdate(activity, activity);
+        watcher.getValue().onDelete(activity);
+
+        verify(eventBus, times(2)).publish(new LotteryEvent(EventType.ACTIVITY_CHANGED, name));
+    }
+}
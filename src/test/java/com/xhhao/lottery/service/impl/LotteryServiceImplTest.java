@@ -0,0 +1,217 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivityStatus;
+import com.xhhao.lottery.entity.LotteryActivity.State;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryDrawRound;
+import com.xhhao.lottery.entity.LotteryDrawRound.DrawRoundSpec;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.ActivityClosedFlagService;
+import com.xhhao.lottery.service.DrawAuditService;
+import com.xhhao.lottery.service.DrawAuditService.DrawRecording;
+import com.xhhao.lottery.service.DrawLockService;
+import com.xhhao.lottery.service.DrawStrategy;
+import com.xhhao.lottery.service.DrawStrategy.DrawRequest;
+import com.xhhao.lottery.service.LotteryActivityCache;
+import com.xhhao.lottery.service.LotteryDrawJobService;
+import com.xhhao.lottery.service.LotteryNotificationService;
+import com.xhhao.lottery.service.LotteryService.DrawResult;
+import com.xhhao.lottery.service.LotteryWinnerService;
+import com.xhhao.lottery.service.RedisConfigService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static com.xhhao.lottery.service.impl.DrawFixtures.participants;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LotteryServiceImplTest {
+
+    private static final String ACTIVITY = "activity-test";
+
+    private ReactiveExtensionClient client;
+    private LotteryWinnerService winnerService;
+    private DrawStrategyResolver drawStrategyResolver;
+    private DrawAuditService drawAuditService;
+    private LotteryComputeScheduler computeScheduler;
+    private LotteryServiceImpl lotteryService;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ReactiveExtensionClient.class);
+        winnerService = mock(LotteryWinnerService.class);
+        drawStrategyResolver = mock(DrawStrategyResolver.class);
+        drawAuditService = mock(DrawAuditService.class);
+        computeScheduler = mock(LotteryComputeScheduler.class);
+        when(computeScheduler.get()).thenReturn(Schedulers.immediate());
+        when(client.update(any(LotteryDrawRound.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(winnerService.revokeWinners(anyString(), anyList(), anyLong())).thenReturn(Mono.empty());
+        lotteryService = new LotteryServiceImpl(client, mock(LotteryNotificationService.class),
+            drawStrategyResolver, mock(RedisConfigService.class), mock(ActivityClosedFlagService.class),
+            mock(DrawLockService.class), winnerService, computeScheduler,
+            drawAuditService, mock(LotteryDrawJobService.class), mock(LotteryActivityCache.class));
+    }
+
+    /**
+     * 节点在汇总更新之后、任务记录落库阶段完成之前中断：续跑以新令牌接管，本轮记录仍是旧令牌，
+     * 结果应被接受为本任务的结果，而不是当作被更新的持有者取代。
+     */
+    @Test
+    void resumedJobAcceptsRoundCommittedBeforeCrash() {
+        var activity = drawnActivity(7L);
+        var round = round(5L);
+        when(client.get(LotteryActivity.class, ACTIVITY)).thenReturn(Mono.just(activity));
+        when(client.fetch(LotteryDrawRound.class, ACTIVITY + "-round-1")).thenReturn(Mono.just(round));
+
+        var persisted = lotteryService.persistWinners(ACTIVITY, result(), 7L).block();
+
+        assertSame(activity, persisted);
+        assertEquals(7L, round.getSpec().getDrawFence());
+        verify(winnerService, never()).revokeWinners(anyString(), anyList(), anyLong());
+    }
+
+    @Test
+    void supersededHolderIsRejectedAndRevoked() {
+        var activity = drawnActivity(9L);
+        when(client.get(LotteryActivity.class, ACTIVITY)).thenReturn(Mono.just(activity));
+        when(client.fetch(LotteryDrawRound.class, ACTIVITY + "-round-1")).thenReturn(Mono.just(round(5L)));
+
+        assertThrows(IllegalStateException.class,
+            () -> lotteryService.persistWinners(ACTIVITY, result(), 7L).block());
+        verify(winnerService).revokeWinners(eq(ACTIVITY), anyList(), eq(7L));
+        verify(client, never()).update(any(LotteryDrawRound.class));
+    }
+
+    @Test
+    void roundCommittedByLaterHolderIsNotTakenOver() {
+        var activity = drawnActivity(7L);
+        var round = round(8L);
+        when(client.get(LotteryActivity.class, ACTIVITY)).thenReturn(Mono.just(activity));
+        when(client.fetch(LotteryDrawRound.class, ACTIVITY + "-round-1")).thenReturn(Mono.just(round));
+
+        assertThrows(IllegalStateException.class,
+            () -> lotteryService.persistWinners(ACTIVITY, result(), 7L).block());
+        assertEquals(8L, round.getSpec().getDrawFence());
+    }
+
+    /**
+     * 第二轮从全部参与者中抽取：上一轮的全部未中奖者都有资格，不受抽样上限影响，上一轮中奖者被排除。
+     */
+    @Test
+    void laterRoundDrawsFromEveryEarlierNonWinner() {
+        int entrants = 3000;
+        var activity = activity(ShuffleDrawStrategy.NAME, entrants);
+        activity.getSpec().setMultiRound(true);
+        var status = new LotteryActivityStatus();
+        status.setState(State.RUNNING);
+        status.setDrawRound(1);
+        status.setPrizeWinnerCounts(Map.of("prize-0", 1));
+        activity.setStatus(status);
+        var participants = participants(entrants);
+        var start = Instant.parse("2024-06-01T00:00:00Z");
+        for (int i = 0; i < entrants; i++) {
+            participants.get(i).setMetadata(new Metadata());
+            participants.get(i).getMetadata().setName("participant-" + i);
+            // 每 10 人共用一个创建时间，游标按名称区分同一时间的记录
+            participants.get(i).getMetadata().setCreationTimestamp(start.plusSeconds(i / 10));
+        }
+        var previousWinner = new Winner();
+        previousWinner.setSourceToken(participants.getFirst().getSpec().getToken());
+
+        when(client.get(LotteryActivity.class, ACTIVITY)).thenReturn(Mono.just(activity));
+        when(client.fetch(LotteryDrawRound.class, ACTIVITY + "-round-1")).thenReturn(Mono.just(round(5L)));
+        when(client.listAll(eq(LotteryParticipant.class), any(ListOptions.class), isNull()))
+            .thenReturn(Flux.fromIterable(participants));
+        when(winnerService.streamWinners(ACTIVITY)).thenReturn(Flux.just(previousWinner));
+        when(drawStrategyResolver.resolve(activity)).thenReturn(new ShuffleDrawStrategy());
+        when(drawAuditService.begin(any(), any(), anyInt(), anyList())).thenAnswer(invocation -> recording(
+            invocation.getArgument(1)));
+
+        var result = lotteryService.sampleWinners(ACTIVITY).block();
+
+        var expected = participants.subList(1, entrants).stream()
+            .map(participant -> participant.getSpec().getToken())
+            .collect(Collectors.toSet());
+        assertEquals(expected, new HashSet<>(DrawFixtures.tokens(result.winners())));
+        assertEquals(2, result.round().getRound());
+        assertEquals(entrants, result.round().getCandidateCount());
+        assertEquals(start.plusSeconds((entrants - 1) / 10), result.round().getCursor());
+        assertEquals("participant-2999", result.round().getCursorName());
+    }
+
+    private static DrawRecording recording(DrawRequest request) {
+        return new DrawRecording() {
+            @Override
+            public DrawRequest request() {
+                return request;
+            }
+
+            @Override
+            public Mono<Void> complete(DrawStrategy strategy, List<Winner> winners) {
+                return Mono.empty();
+            }
+        };
+    }
+
+    private static LotteryActivity drawnActivity(long drawFence) {
+        var activity = activity(ShardedDrawStrategy.NAME, 1);
+        var status = new LotteryActivityStatus();
+        status.setState(State.DRAWN);
+        status.setDrawRound(1);
+        status.setDrawFence(drawFence);
+        activity.setStatus(status);
+        return activity;
+    }
+
+    private static LotteryDrawRound round(long drawFence) {
+        var spec = roundSpec();
+        spec.setDrawFence(drawFence);
+        var round = new LotteryDrawRound();
+        round.setMetadata(new Metadata());
+        round.getMetadata().setName(ACTIVITY + "-round-1");
+        round.setSpec(spec);
+        return round;
+    }
+
+    private static DrawRoundSpec roundSpec() {
+        var spec = new DrawRoundSpec();
+        spec.setActivityName(ACTIVITY);
+        spec.setRound(1);
+        return spec;
+    }
+
+    private static DrawResult result() {
+        var winner = new Winner();
+        winner.setIdentifier("alice@example.com");
+        winner.setPrizeName("prize-0");
+        winner.setSourceToken("token-alice");
+        return new DrawResult(List.of(winner), 42L, ShardedDrawStrategy.NAME, roundSpec());
+    }
+}
@@ -0,0 +1,139 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.service.LotterySimulationService.SimulationOptions;
+import com.xhhao.lottery.service.LotterySimulationService.SimulationResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LotterySimulationServiceImplTest {
+
+    private static LotteryComputeScheduler scheduler;
+
+    private LotterySimulationServiceImpl simulationService;
+
+    @BeforeAll
+    static void setUpScheduler() {
+        scheduler = DrawFixtures.computeScheduler();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        scheduler.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        var client = mock(ReactiveExtensionClient.class);
+        when(client.get(LotteryActivity.class, "activity-test"))
+            .thenReturn(Mono.just(activity(ShardedDrawStrategy.NAME, 1)));
+        simulationService = new LotterySimulationServiceImpl(client, scheduler);
+    }
+
+    /**
+     * 概率 100% 时每次抽奖都会命中尚有额度的奖品：10 小时内均匀分布 1000 次抽奖，每小时 100 次。
+     * 每小时放量 2 个，第 5 小时开始时累计额度达到 10，该小时的前两次抽奖（第 400、401 次）发完全部库存，
+     * 之后的抽奖不再中奖。
+     */
+    @Test
+    void pacingCapsAwardsByElapsedHours() {
+        var result = simulate(options(1000, 8, 7L, Duration.ofHours(10), prize("paced", 10, 100, 2)));
+
+        var soldOutAt = 401 * Duration.ofHours(10).toMillis() / 1000 / 1000.0;
+        assertEquals(8, result.soldOutRuns());
+        assertEquals(soldOutAt, result.soldOutSeconds().min());
+        assertEquals(soldOutAt, result.soldOutSeconds().max());
+        assertEquals(0.01, result.winRate().mean(), 1e-12);
+        assertEquals(10.0, result.prizes().getFirst().meanAwarded());
+    }
+
+    /**
+     * 放量额度不超过库存：额度在第 1 小时就达到上限时与未配置放量相同，第 10 次抽奖即抽完。
+     */
+    @Test
+    void allowanceIsCappedByQuantity() {
+        var result = simulate(options(1000, 4, 7L, Duration.ofHours(10), prize("capped", 10, 100, 50)));
+
+        assertEquals(4, result.soldOutRuns());
+        assertEquals(9 * Duration.ofHours(10).toMillis() / 1000 / 1000.0, result.soldOutSeconds().max());
+    }
+
+    @Test
+    void unpacedPrizeSellsOutEveryRunAndOthersMayNot() {
+        var result = simulate(options(2000, 50, 11L, Duration.ofHours(1),
+            prize("scarce", 5, 50, 0), prize("plenty", 100_000, 10, 0)));
+
+        var scarce = result.prizes().get(0);
+        var plenty = result.prizes().get(1);
+        assertEquals(50, scarce.soldOutRuns());
+        assertEquals(5.0, scarce.meanAwarded());
+        assertEquals(0, plenty.soldOutRuns());
+        assertNull(plenty.soldOutSeconds());
+        assertEquals(0, result.soldOutRuns());
+        // 稀缺奖品抽完后只剩 10% 的中奖概率
+        assertTrue(Math.abs(plenty.meanAwarded() - 200) < 20, () -> "plenty awarded " + plenty.meanAwarded());
+    }
+
+    /**
+     * 各轮在多个线程上执行，相同种子的结果与完成顺序无关。
+     */
+    @Test
+    void sameSeedReproducesResult() {
+        var prizes = new Prize[] {prize("first", 100_000, 20, 0), prize("second", 500, 5, 0)};
+
+        var first = simulate(options(20_000, 64, 20240601L, Duration.ofDays(1), prizes));
+        var second = simulate(options(20_000, 64, 20240601L, Duration.ofDays(1), prizes));
+        var other = simulate(options(20_000, 64, 20240602L, Duration.ofDays(1), prizes));
+
+        assertEquals(first.winRate(), second.winRate());
+        assertEquals(first.soldOutSeconds(), second.soldOutSeconds());
+        assertEquals(first.prizes(), second.prizes());
+        assertNotEquals(first.winRate(), other.winRate());
+    }
+
+    @Test
+    void rejectsOversizedSimulation() {
+        assertThrows(IllegalArgumentException.class,
+            () -> simulate(options(10_000_000, 1000, 1L, Duration.ofDays(1), prize("any", 1, 1, 0))));
+    }
+
+    private SimulationResult simulate(SimulationOptions options) {
+        return simulationService.simulate("activity-test", options).block();
+    }
+
+    private static SimulationOptions options(int spins, int runs, long seed, Duration duration, Prize... prizes) {
+        var options = new SimulationOptions();
+        options.setSpins(spins);
+        options.setRuns(runs);
+        options.setSeed(seed);
+        options.setDurationSeconds(duration.toSeconds());
+        options.setPrizes(List.of(prizes));
+        return options;
+    }
+
+    private static Prize prize(String name, int quantity, int probability, int releasePerHour) {
+        var prize = new Prize();
+        prize.setName(name);
+        prize.setQuantity(quantity);
+        prize.setProbability(probability);
+        prize.setReleasePerHour(releasePerHour);
+        return prize;
+    }
+}
@@ -0,0 +1,82 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryWinner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LotteryWinnerServiceImplTest {
+
+    private ReactiveExtensionClient client;
+    private LotteryWinnerServiceImpl winnerService;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ReactiveExtensionClient.class);
+        winnerService = new LotteryWinnerServiceImpl(client);
+    }
+
+    /**
+     * 记录并发创建，后提交的可能先完成；每条记录仍按其在开奖结果中的位置编号。
+     */
+    @Test
+    void savedWinnersKeepDrawPosition() {
+        var created = new ConcurrentLinkedQueue<LotteryWinner>();
+        when(client.fetch(eq(LotteryWinner.class), anyString())).thenReturn(Mono.empty());
+        when(client.create(any(LotteryWinner.class))).thenAnswer(invocation -> {
+            LotteryWinner winner = invocation.getArgument(0);
+            created.add(winner);
+            // 越靠前的记录越晚完成
+            return Mono.just(winner).delayElement(Duration.ofMillis(20 - winner.getSpec().getPosition()));
+        });
+        var winners = IntStream.range(0, 12).mapToObj(i -> winner("user" + i, i < 2 ? "一等奖" : "二等奖")).toList();
+
+        winnerService.saveWinners("activity-test", winners, 3, 7L).block();
+
+        var ordered = created.stream()
+            .sorted(Comparator.comparing(winner -> winner.getSpec().getPosition()))
+            .map(winner -> winner.getSpec().getIdentifier())
+            .toList();
+        assertEquals(winners.stream().map(Winner::getIdentifier).toList(), ordered);
+        created.forEach(winner -> assertEquals(3, winner.getSpec().getRound()));
+    }
+
+    @Test
+    void winnersAreReadInRoundAndPositionOrder() {
+        when(client.listAll(eq(LotteryWinner.class), any(ListOptions.class), any(Sort.class)))
+            .thenReturn(Flux.empty());
+        when(client.fetch(eq(LotteryActivity.class), anyString())).thenReturn(Mono.empty());
+
+        winnerService.streamWinners("activity-test").collectList().block();
+
+        verify(client).listAll(eq(LotteryWinner.class), any(ListOptions.class), eq(Sort.by(
+            Sort.Order.asc("spec.round"), Sort.Order.asc("spec.position"), Sort.Order.asc("metadata.name"))));
+    }
+
+    private static Winner winner(String identifier, String prizeName) {
+        var winner = new Winner();
+        winner.setIdentifier(identifier);
+        winner.setPrizeName(prizeName);
+        winner.setSourceToken("token-" + identifier);
+        return winner;
+    }
+}
@@ -0,0 +1,107 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.token;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ParticipantColumnsTest {
+
+    @Test
+    void projectsTokensAndIdentifiers() {
+        var columns = new ParticipantColumns();
+        var hex = token("a");
+        int hexRow = columns.append(participant(hex, "alice", "alice@example.com"));
+        int textRow = columns.append(participant("legacy-token", null, "bob@example.com"));
+        int emptyRow = columns.append(participant(null, null, null));
+
+        assertEquals(3, columns.size());
+        assertEquals(hex, columns.token(hexRow));
+        assertEquals("legacy-token", columns.token(textRow));
+        assertNull(columns.token(emptyRow));
+        assertEquals("alice", columns.identifier(hexRow));
+        assertEquals("bob@example.com", columns.identifier(textRow));
+        assertEquals("", columns.identifier(emptyRow));
+    }
+
+    /**
+     * 十六进制 token 按原始字节存放，比较结果需与字符串顺序一致，分片内的规范顺序依赖这一点。
+     */
+    @Test
+    void rawTokensCompareLikeStrings() {
+        var columns = new ParticipantColumns();
+        var tokens = new String[50];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = token("t" + i);
+            columns.append(participant(tokens[i], null, null));
+        }
+
+        for (int i = 0; i < tokens.length; i++) {
+            for (int j = 0; j < tokens.length; j++) {
+                assertEquals(Integer.signum(tokens[i].compareTo(tokens[j])),
+                    Integer.signum(columns.compareTokens(i, j)));
+            }
+        }
+    }
+
+    @Test
+    void writtenTokensReadBack() throws IOException {
+        var columns = new ParticipantColumns();
+        var hex = token("b");
+        columns.append(participant(hex, null, null));
+        columns.append(participant("中文-token", null, null));
+        columns.append(participant(null, null, null));
+
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        for (int row = 0; row < columns.size(); row++) {
+            columns.writeToken(row, out);
+        }
+        out.flush();
+
+        var buffer = ByteBuffer.wrap(bytes.toByteArray());
+        assertEquals(hex, ParticipantColumns.readToken(buffer));
+        assertEquals("中文-token", ParticipantColumns.readToken(buffer));
+        assertNull(ParticipantColumns.readToken(buffer));
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void countsWinnersByPrize() {
+        var participants = Flux.just(
+            winner("一等奖"), winner("二等奖"), winner("二等奖"),
+            participant(token("x"), null, null), winner(null));
+
+        var counts = ParticipantColumns.countWinnersByPrize(participants, Schedulers.immediate()).block();
+
+        assertEquals(Map.of("一等奖", 1L, "二等奖", 2L), counts);
+    }
+
+    private static LotteryParticipant winner(String prizeName) {
+        var participant = participant(token(String.valueOf(prizeName)), null, null);
+        participant.getSpec().setIsWinner(true);
+        participant.getSpec().setPrizeName(prizeName);
+        return participant;
+    }
+
+    private static LotteryParticipant participant(String token, String username, String email) {
+        var spec = new LotteryParticipantSpec();
+        spec.setToken(token);
+        spec.setUsername(username);
+        spec.setEmail(email);
+        var participant = new LotteryParticipant();
+        participant.setSpec(spec);
+        return participant;
+    }
+}
@@ -0,0 +1,278 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.LotteryActivitySpec;
+import com.xhhao.lottery.entity.LotteryActivity.Prize;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.entity.LotteryParticipant.LotteryParticipantSpec;
+import com.xhhao.lottery.service.ActivityClosedFlagService;
+import com.xhhao.lottery.service.InstantLotteryStockService.PrizeReservation;
+import com.xhhao.lottery.service.RedisConfigService;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import redis.embedded.RedisServer;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 在嵌入式 Redis 上执行预留、确认与回收脚本。
+ */
+class RedisInstantLotteryStockServiceTest {
+
+    private static final String LEASE_KEY = "plugin:lottery:instant:leases";
+    private static final String RELEASED_LEASE_KEY = "plugin:lottery:instant:released-leases";
+
+    private static RedisServer server;
+    private static RedisClient redisClient;
+    private static StatefulRedisConnection<String, String> connection;
+
+    private ReactiveExtensionClient client;
+    private ActivityClosedFlagService closedFlagService;
+    private RedisInstantLotteryStockService stockService;
+    private RedisCommands<String, String> redis;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (var socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        redisClient = RedisClient.create("redis://localhost:" + port);
+        connection = redisClient.connect();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connection.close();
+        redisClient.shutdown();
+        server.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redis = connection.sync();
+        redis.flushall();
+        client = mock(ReactiveExtensionClient.class);
+        when(client.listAll(eq(LotteryParticipant.class), any(ListOptions.class), isNull()))
+            .thenReturn(Flux.empty());
+        var redisConfigService = mock(RedisConfigService.class);
+        when(redisConfigService.getRedisConnection()).thenReturn(Mono.just(connection));
+        closedFlagService = mock(ActivityClosedFlagService.class);
+        stockService = new RedisInstantLotteryStockService(client, redisConfigService, closedFlagService);
+    }
+
+    /**
+     * 首次预留先初始化库存键再执行脚本；预留扣减库存并登记租约，确认只移除租约，库存保持扣减。
+     */
+    @Test
+    void confirmKeepsReservedStock() {
+        var activity = activity(null, prize("first", 3, 100, 0));
+
+        var reservation = reserve(activity);
+        assertEquals(2, stock(reservation));
+        assertTrue(redis.ttl(stockKey(reservation)) > 0);
+        assertEquals(1, redis.zcard(LEASE_KEY));
+
+        stockService.confirmReservations(activity, List.of(reservation)).block();
+
+        assertEquals(2, stock(reservation));
+        assertEquals(0, redis.zcard(LEASE_KEY));
+        assertEquals(0, redis.zcard(RELEASED_LEASE_KEY));
+    }
+
+    @Test
+    void takingLastStockMarksSoldOut() {
+        var activity = activity(null, prize("only", 1, 100, 0));
+
+        var results = stockService.reservePrizes(activity, 2).block();
+
+        assertTrue(results.get(0).isPresent());
+        assertTrue(results.get(1).isEmpty());
+        verify(closedFlagService).markSoldOut(activity.getMetadata().getName());
+    }
+
+    /**
+     * 过期未确认的租约归还库存并记入已回收集合，活动重新开放。
+     */
+    @Test
+    void sweepReturnsStockOfExpiredLease() {
+        var activity = activity(null, prize("first", 3, 100, 0));
+        var reservation = reserve(activity);
+        expire(reservation);
+
+        assertEquals(1L, stockService.releaseExpiredReservations().block());
+
+        assertEquals(3, stock(reservation));
+        assertEquals(0, redis.zcard(LEASE_KEY));
+        assertNotNull(redis.zscore(RELEASED_LEASE_KEY, reservation.leaseId()));
+        verify(closedFlagService).reopen(activity.getMetadata().getName());
+    }
+
+    /**
+     * 已写入参与记录的过期租约只是确认还没执行，回收时不归还库存。
+     */
+    @Test
+    void sweepKeepsStockOfPersistedLease() {
+        var activity = activity(null, prize("first", 3, 100, 0));
+        var reservation = reserve(activity);
+        expire(reservation);
+        when(client.listAll(eq(LotteryParticipant.class), any(ListOptions.class), isNull()))
+            .thenReturn(Flux.just(participant(reservation.leaseId())));
+
+        assertEquals(0L, stockService.releaseExpiredReservations().block());
+
+        assertEquals(2, stock(reservation));
+        assertEquals(0, redis.zcard(LEASE_KEY));
+        assertEquals(0, redis.zcard(RELEASED_LEASE_KEY));
+        verify(closedFlagService, never()).reopen(anyString());
+    }
+
+    @Test
+    void lateConfirmReDeductsReleasedStock() {
+        var activity = activity(null, prize("first", 3, 100, 0));
+        var reservation = reserve(activity);
+        expire(reservation);
+        stockService.releaseExpiredReservations().block();
+
+        stockService.confirmReservations(activity, List.of(reservation)).block();
+
+        assertEquals(2, stock(reservation));
+        assertEquals(0, redis.zcard(RELEASED_LEASE_KEY));
+    }
+
+    /**
+     * 回收后的库存已被他人抽走时，迟到的确认整体失败，不会超发。
+     */
+    @Test
+    void lateConfirmFailsWhenStockIsGone() {
+        var activity = activity(null, prize("first", 1, 100, 0));
+        var late = reserve(activity);
+        expire(late);
+        stockService.releaseExpiredReservations().block();
+        var other = reserve(activity);
+        assertEquals(0, stock(other));
+
+        assertThrows(IllegalStateException.class,
+            () -> stockService.confirmReservations(activity, List.of(late)).block());
+
+        assertEquals(0, stock(other));
+        assertNotNull(redis.zscore(RELEASED_LEASE_KEY, late.leaseId()));
+    }
+
+    /**
+     * 放量额度按开始后经过的小时累计，当前小时的额度用完后不再中奖，但活动不视为抽完。
+     */
+    @Test
+    void pacingLimitsAwardsToElapsedHours() {
+        var activity = activity(Instant.now().minus(Duration.ofMinutes(150)), prize("paced", 10, 100, 2));
+
+        var results = stockService.reservePrizes(activity, 10).block();
+
+        assertEquals(6, results.stream().filter(Optional::isPresent).count());
+        assertEquals(4, stock(results.getFirst().orElseThrow()));
+        verify(closedFlagService, never()).markSoldOut(anyString());
+    }
+
+    @Test
+    void pacingAllowanceIsCappedByQuantity() {
+        var activity = activity(Instant.now().minus(Duration.ofHours(100)), prize("paced", 10, 100, 2));
+
+        var results = stockService.reservePrizes(activity, 12).block();
+
+        assertEquals(10, results.stream().filter(Optional::isPresent).count());
+        verify(closedFlagService).markSoldOut(activity.getMetadata().getName());
+    }
+
+    /**
+     * 已发放的数量按初始库存与当前库存之差计算，回收的租约重新计入当前小时的额度。
+     */
+    @Test
+    void releasedLeaseRestoresPacingAllowance() {
+        var activity = activity(Instant.now().minus(Duration.ofMinutes(30)), prize("paced", 10, 100, 2));
+        var results = stockService.reservePrizes(activity, 3).block();
+        assertEquals(2, results.stream().filter(Optional::isPresent).count());
+
+        expire(results.getFirst().orElseThrow());
+        stockService.releaseExpiredReservations().block();
+
+        assertTrue(stockService.reservePrize(activity).block().isPresent());
+        assertTrue(stockService.reservePrize(activity).block().isEmpty());
+    }
+
+    private PrizeReservation reserve(LotteryActivity activity) {
+        return stockService.reservePrize(activity).block().orElseThrow();
+    }
+
+    private int stock(PrizeReservation reservation) {
+        return Integer.parseInt(redis.get(stockKey(reservation)));
+    }
+
+    private void expire(PrizeReservation reservation) {
+        redis.zadd(LEASE_KEY, 0, reservation.leaseId());
+    }
+
+    private static String stockKey(PrizeReservation reservation) {
+        return reservation.leaseId().substring(0, reservation.leaseId().indexOf('|'));
+    }
+
+    private static LotteryActivity activity(Instant startTime, Prize... prizes) {
+        var spec = new LotteryActivitySpec();
+        spec.setLotteryType(LotteryActivity.LotteryType.WHEEL);
+        spec.setStartTime(startTime);
+        spec.setEndTime(Instant.now().plus(Duration.ofDays(1)));
+        spec.setPrizes(List.of(prizes));
+        var activity = new LotteryActivity();
+        activity.setMetadata(new Metadata());
+        activity.getMetadata().setName("activity-test");
+        activity.setSpec(spec);
+        return activity;
+    }
+
+    private static Prize prize(String name, int quantity, int probability, int releasePerHour) {
+        var prize = new Prize();
+        prize.setName(name);
+        prize.setQuantity(quantity);
+        prize.setProbability(probability);
+        prize.setReleasePerHour(releasePerHour);
+        return prize;
+    }
+
+    private static LotteryParticipant participant(String leaseId) {
+        var spec = new LotteryParticipantSpec();
+        spec.setLeaseId(leaseId);
+        var participant = new LotteryParticipant();
+        participant.setMetadata(new Metadata());
+        participant.setSpec(spec);
+        return participant;
+    }
+}
@@ -0,0 +1,178 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.DrawStrategy.DrawRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static com.xhhao.lottery.service.impl.DrawFixtures.participants;
+import static com.xhhao.lottery.service.impl.DrawFixtures.request;
+import static com.xhhao.lottery.service.impl.DrawFixtures.token;
+import static com.xhhao.lottery.service.impl.DrawFixtures.tokens;
+import static com.xhhao.lottery.service.impl.DrawFixtures.withExclusivity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedDrawStrategyTest {
+
+    private static final int SMALL_SHARD = 16;
+    private static final int SINGLE_SHARD = 1_000_000;
+
+    private static LotteryComputeScheduler scheduler;
+
+    @BeforeAll
+    static void setUp() {
+        scheduler = DrawFixtures.computeScheduler();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        scheduler.destroy();
+    }
+
+    @Test
+    void sameSeedGivesSameWinners() {
+        var strategy = new ShardedDrawStrategy(scheduler, 64);
+        var activity = activity(ShardedDrawStrategy.NAME, 3, 7);
+        var candidates = participants(1000);
+
+        var first = draw(strategy, request(activity, candidates, 42L));
+        var second = draw(strategy, request(activity, candidates, 42L));
+
+        assertEquals(tokens(first), tokens(second));
+        assertEquals(10, first.size());
+        assertEquals(10, new HashSet<>(tokens(first)).size());
+        assertEquals(List.of("prize-0", "prize-0", "prize-0"),
+            first.subList(0, 3).stream().map(Winner::getPrizeName).toList());
+        assertNotEquals(tokens(first), tokens(draw(strategy, request(activity, candidates, 43L))));
+    }
+
+    @Test
+    void resultDoesNotDependOnReadOrder() {
+        var strategy = new ShardedDrawStrategy(scheduler, 64);
+        var activity = activity(ShardedDrawStrategy.NAME, 5, 5);
+        var candidates = participants(1000);
+        var shuffled = new ArrayList<>(candidates);
+        Collections.shuffle(shuffled, new Random(7));
+
+        assertEquals(tokens(draw(strategy, request(activity, candidates, 99L))),
+            tokens(draw(strategy, request(activity, shuffled, 99L))));
+    }
+
+    /**
+     * 审计快照按种子重放，算法改动会让历史快照无法核验，这里固定一组结果。
+     */
+    @Test
+    void pinnedSeedKeepsHistoricalResult() {
+        var strategy = new ShardedDrawStrategy(scheduler);
+        var winners = draw(strategy, request(activity(ShardedDrawStrategy.NAME, 1, 2), participants(20), 20240601L));
+
+        assertEquals(List.of(token("participant-1"), token("participant-17"), token("participant-16")),
+            tokens(winners));
+    }
+
+    /**
+     * 分片合并与单分片抽样的中奖顺序不同（分片数参与重放），但分布相同：
+     * 固定的一组种子下，每位候选人中奖与中头奖的次数都落在理论期望附近。
+     */
+    @Test
+    void shardedDrawMatchesUnshardedDistribution() {
+        int candidates = 200;
+        int trials = 2000;
+        var activity = activity(ShardedDrawStrategy.NAME, 5, 15);
+        var people = participants(candidates);
+
+        var sharded = tally(new ShardedDrawStrategy(scheduler, SMALL_SHARD), activity, people, trials);
+        var unsharded = tally(new ShardedDrawStrategy(scheduler, SINGLE_SHARD), activity, people, trials);
+
+        for (var tally : List.of(sharded, unsharded)) {
+            assertWithin(tally.wins(), people, trials * 20.0 / candidates, 20.0 / candidates, trials);
+            assertWithin(tally.firstPrize(), people, trials * 5.0 / candidates, 5.0 / candidates, trials);
+        }
+    }
+
+    @Test
+    void exclusionSkipsConflictingCandidates() {
+        var strategy = new ShardedDrawStrategy(scheduler, SMALL_SHARD);
+        var activity = withExclusivity(activity(ShardedDrawStrategy.NAME, 20), WinnerExclusivity.EMAIL_DOMAIN);
+        var candidates = participants(300, 8);
+
+        var winners = draw(strategy, request(activity, candidates, 5L));
+
+        assertEquals(8, winners.size());
+        var domains = new HashSet<String>();
+        winners.forEach(winner -> assertTrue(domains.add(domainOf(candidates, winner.getSourceToken()))));
+    }
+
+    @Test
+    void excludedTokensNeverWin() {
+        var strategy = new ShardedDrawStrategy(scheduler, SMALL_SHARD);
+        var candidates = participants(50);
+        var excluded = new HashSet<String>();
+        candidates.subList(0, 45).forEach(participant -> excluded.add(participant.getSpec().getToken()));
+
+        var winners = draw(strategy, request(activity(ShardedDrawStrategy.NAME, 10), candidates, excluded, 1L));
+
+        assertEquals(5, winners.size());
+        winners.forEach(winner -> assertFalse(excluded.contains(winner.getSourceToken())));
+    }
+
+    private record Tally(Map<String, Integer> wins, Map<String, Integer> firstPrize) {
+    }
+
+    private static Tally tally(ShardedDrawStrategy strategy, LotteryActivity activity,
+                               List<LotteryParticipant> people, int trials) {
+        var wins = new HashMap<String, Integer>();
+        var firstPrize = new HashMap<String, Integer>();
+        for (long seed = 0; seed < trials; seed++) {
+            for (var winner : draw(strategy, request(activity, people, seed))) {
+                wins.merge(winner.getSourceToken(), 1, Integer::sum);
+                if ("prize-0".equals(winner.getPrizeName())) {
+                    firstPrize.merge(winner.getSourceToken(), 1, Integer::sum);
+                }
+            }
+        }
+        return new Tally(wins, firstPrize);
+    }
+
+    /**
+     * 每位候选人的次数与期望相差不超过 6 个标准差。
+     */
+    private static void assertWithin(Map<String, Integer> counts, List<LotteryParticipant> people,
+                                     double expected, double probability, int trials) {
+        double bound = 6 * Math.sqrt(trials * probability * (1 - probability));
+        for (var participant : people) {
+            int count = counts.getOrDefault(participant.getSpec().getToken(), 0);
+            assertTrue(Math.abs(count - expected) <= bound,
+                () -> "count " + count + " is too far from " + expected);
+        }
+    }
+
+    private static String domainOf(List<LotteryParticipant> candidates, String token) {
+        return candidates.stream()
+            .filter(participant -> participant.getSpec().getToken().equals(token))
+            .map(participant -> participant.getSpec().getEmail())
+            .map(email -> email.substring(email.indexOf('@')))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static List<Winner> draw(ShardedDrawStrategy strategy, DrawRequest request) {
+        return strategy.drawWinners(request).block();
+    }
+}
@@ -0,0 +1,96 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.LotteryType;
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.DrawStrategy.DrawRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static com.xhhao.lottery.service.impl.DrawFixtures.participants;
+import static com.xhhao.lottery.service.impl.DrawFixtures.request;
+import static com.xhhao.lottery.service.impl.DrawFixtures.tokens;
+import static com.xhhao.lottery.service.impl.DrawFixtures.withExclusivity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 打乱抽取不可重放，这里只校验蓄水池与按需 Fisher–Yates 的结构性质。
+ */
+class ShuffleDrawStrategyTest {
+
+    private final ShuffleDrawStrategy strategy = new ShuffleDrawStrategy();
+
+    @Test
+    void supportsScheduledOnly() {
+        assertTrue(strategy.supports(LotteryType.SCHEDULED));
+        assertFalse(strategy.supports(LotteryType.WHEEL));
+        assertFalse(strategy.supports(LotteryType.DRAW));
+    }
+
+    @Test
+    void dealsDistinctWinnersInPrizeOrder() {
+        var candidates = participants(5000);
+
+        var winners = draw(request(activity(ShuffleDrawStrategy.NAME, 2, 3, 5), candidates, 0L));
+
+        assertEquals(10, winners.size());
+        assertEquals(10, new HashSet<>(tokens(winners)).size());
+        assertTrue(candidateTokens(candidates).containsAll(tokens(winners)));
+        assertEquals(List.of("prize-0", "prize-0", "prize-1", "prize-1", "prize-1",
+                "prize-2", "prize-2", "prize-2", "prize-2", "prize-2"),
+            winners.stream().map(Winner::getPrizeName).toList());
+    }
+
+    @Test
+    void everyoneWinsWhenSlotsExceedCandidates() {
+        var candidates = participants(7);
+
+        var winners = draw(request(activity(ShuffleDrawStrategy.NAME, 10), candidates, 0L));
+
+        assertEquals(candidateTokens(candidates), new HashSet<>(tokens(winners)));
+    }
+
+    @Test
+    void excludedTokensNeverWin() {
+        var candidates = participants(100);
+        var excluded = candidateTokens(candidates.subList(0, 90));
+
+        var winners = draw(request(activity(ShuffleDrawStrategy.NAME, 20), candidates, excluded, 0L));
+
+        assertEquals(candidateTokens(candidates.subList(90, 100)), new HashSet<>(tokens(winners)));
+    }
+
+    @Test
+    void exclusionKeepsOneWinnerPerDomain() {
+        var candidates = participants(400, 6);
+        var activity = withExclusivity(activity(ShuffleDrawStrategy.NAME, 30), WinnerExclusivity.EMAIL_DOMAIN);
+
+        var winners = draw(request(activity, candidates, 0L));
+
+        assertEquals(6, winners.size());
+        var emailByToken = candidates.stream()
+            .collect(Collectors.toMap(participant -> participant.getSpec().getToken(),
+                participant -> participant.getSpec().getEmail()));
+        var domains = winners.stream()
+            .map(winner -> emailByToken.get(winner.getSourceToken()))
+            .map(email -> email.substring(email.indexOf('@')))
+            .collect(Collectors.toSet());
+        assertEquals(6, domains.size());
+    }
+
+    private List<Winner> draw(DrawRequest request) {
+        return strategy.drawWinners(request).block();
+    }
+
+    private static Set<String> candidateTokens(List<LotteryParticipant> candidates) {
+        return candidates.stream().map(participant -> participant.getSpec().getToken()).collect(Collectors.toSet());
+    }
+}
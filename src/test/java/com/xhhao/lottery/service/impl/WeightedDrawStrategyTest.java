@@ -0,0 +1,138 @@
+package com.xhhao.lottery.service.impl;
+
+import com.xhhao.lottery.entity.LotteryActivity.WinnerExclusivity;
+import com.xhhao.lottery.entity.LotteryActivity.Winner;
+import com.xhhao.lottery.entity.LotteryParticipant;
+import com.xhhao.lottery.service.DrawStrategy.DrawRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static com.xhhao.lottery.service.impl.DrawFixtures.activity;
+import static com.xhhao.lottery.service.impl.DrawFixtures.participant;
+import static com.xhhao.lottery.service.impl.DrawFixtures.request;
+import static com.xhhao.lottery.service.impl.DrawFixtures.token;
+import static com.xhhao.lottery.service.impl.DrawFixtures.tokens;
+import static com.xhhao.lottery.service.impl.DrawFixtures.withExclusivity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedDrawStrategyTest {
+
+    private final WeightedDrawStrategy strategy = new WeightedDrawStrategy();
+
+    /**
+     * 有界堆按键从大到小给出中奖者，与对全部候选人按 ln(u) / weight 降序排序后取前 k 个一致。
+     */
+    @Test
+    void heapReturnsWinnersInKeyOrder() {
+        var candidates = weightedParticipants(500);
+        long seed = 31L;
+
+        var winners = draw(request(activity(WeightedDrawStrategy.NAME, 4, 8), candidates, seed));
+
+        assertEquals(referenceOrder(candidates, seed).subList(0, 12), tokens(winners));
+    }
+
+    /**
+     * 有互斥约束时改为保留全部键并线性建堆，无冲突时结果与有界堆相同。
+     */
+    @Test
+    void unboundedHeapMatchesBoundedHeap() {
+        var candidates = weightedParticipants(500);
+        var bounded = draw(request(activity(WeightedDrawStrategy.NAME, 4, 8), candidates, 77L));
+        var unbounded = draw(request(withExclusivity(activity(WeightedDrawStrategy.NAME, 4, 8),
+            WinnerExclusivity.EMAIL), candidates, 77L));
+
+        assertEquals(tokens(bounded), tokens(unbounded));
+    }
+
+    @Test
+    void resultDoesNotDependOnReadOrder() {
+        var candidates = weightedParticipants(300);
+        var shuffled = new ArrayList<>(candidates);
+        Collections.shuffle(shuffled, new Random(3));
+        var activity = activity(WeightedDrawStrategy.NAME, 10);
+
+        assertEquals(tokens(draw(request(activity, candidates, 5L))), tokens(draw(request(activity, shuffled, 5L))));
+    }
+
+    /**
+     * 审计快照按种子重放，算法改动会让历史快照无法核验，这里固定一组结果。
+     */
+    @Test
+    void pinnedSeedKeepsHistoricalResult() {
+        var winners = draw(request(activity(WeightedDrawStrategy.NAME, 1, 2), weightedParticipants(20), 20240601L));
+
+        assertEquals(List.of(token("participant-17"), token("participant-8"), token("participant-4")),
+            tokens(winners));
+    }
+
+    @Test
+    void nonPositiveWeightNeverWins() {
+        var candidates = IntStream.range(0, 40)
+            .mapToObj(i -> participant(i, i % 2 == 0 ? 0 : -1, "user" + i + "@d.test"))
+            .collect(ArrayList<LotteryParticipant>::new, ArrayList::add, ArrayList::addAll);
+        candidates.add(participant(100, 1, "winner@d.test"));
+
+        var winners = draw(request(activity(WeightedDrawStrategy.NAME, 5), candidates, 9L));
+
+        assertEquals(List.of(token("participant-100")), tokens(winners));
+    }
+
+    /**
+     * 奖券数 10 的候选人对 10 个奖券数 1 的候选人，头奖概率为 1/2。
+     */
+    @Test
+    void heavierWeightWinsProportionally() {
+        var candidates = new ArrayList<LotteryParticipant>();
+        IntStream.range(0, 10).forEach(i -> candidates.add(participant(i, 1, "user" + i + "@d.test")));
+        candidates.add(participant(100, 10, "heavy@d.test"));
+        var heavy = token("participant-100");
+        int trials = 2000;
+
+        long heavyFirst = IntStream.range(0, trials)
+            .filter(seed -> heavy.equals(draw(request(activity(WeightedDrawStrategy.NAME, 1), candidates, seed))
+                .getFirst().getSourceToken()))
+            .count();
+
+        double bound = 6 * Math.sqrt(trials * 0.25);
+        assertTrue(Math.abs(heavyFirst - trials / 2.0) <= bound, () -> "heavy won " + heavyFirst + " times");
+    }
+
+    private List<Winner> draw(DrawRequest request) {
+        return strategy.drawWinners(request).block();
+    }
+
+    private static List<LotteryParticipant> weightedParticipants(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> participant(i, 1 + i % 5, "user" + i + "@d" + i + ".test"))
+            .toList();
+    }
+
+    /**
+     * 独立于堆实现的参照：按 Efraimidis–Spirakis 键降序排列全部候选人。
+     */
+    private static List<String> referenceOrder(List<LotteryParticipant> candidates, long seed) {
+        return candidates.stream()
+            .sorted(Comparator.comparingDouble((LotteryParticipant participant) -> key(participant, seed)).reversed())
+            .map(participant -> participant.getSpec().getToken())
+            .toList();
+    }
+
+    private static double key(LotteryParticipant participant, long seed) {
+        var token = participant.getSpec().getToken();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < token.length(); i++) {
+            hash = (hash ^ token.charAt(i)) * 0x100000001b3L;
+        }
+        double u = 1.0 - new SplittableRandom(seed ^ hash).nextDouble();
+        return Math.log(u) / participant.getSpec().getWeight();
+    }
+}
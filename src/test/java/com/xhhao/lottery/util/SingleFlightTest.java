@@ -0,0 +1,79 @@
+package com.xhhao.lottery.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    /**
+     * 计算完成前到达的请求共用同一次订阅，结束后的请求重新计算。
+     */
+    @Test
+    void concurrentCallersShareOneLoad() {
+        var loads = new AtomicInteger();
+        Sinks.One<String> pending = Sinks.one();
+
+        var first = singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return pending.asMono();
+        }).toFuture();
+        var second = singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return Mono.just("unused");
+        }).toFuture();
+        assertFalse(first.isDone());
+        pending.tryEmitValue("value");
+
+        assertEquals("value", first.join());
+        assertEquals("value", second.join());
+        assertEquals(1, loads.get());
+
+        var after = singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return Mono.just("reloaded");
+        }).block();
+        assertEquals("reloaded", after);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        Sinks.One<String> pending = Sinks.one();
+
+        var first = singleFlight.execute("a", pending::asMono).toFuture();
+        var other = singleFlight.execute("b", () -> Mono.just("b")).block();
+
+        assertEquals("b", other);
+        assertFalse(first.isDone());
+        pending.tryEmitValue("a");
+        assertEquals("a", first.join());
+    }
+
+    /**
+     * 错误同样由进行中的请求共享，之后的请求不会拿到缓存的错误。
+     */
+    @Test
+    void errorIsSharedThenCleared() {
+        var failure = new IllegalStateException("boom");
+        Sinks.One<String> pending = Sinks.one();
+
+        var first = singleFlight.execute("key", pending::asMono).toFuture();
+        var second = singleFlight.execute("key", () -> Mono.just("unused")).toFuture();
+        pending.tryEmitError(failure);
+
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals("recovered", singleFlight.execute("key", () -> Mono.just("recovered")).block());
+    }
+}
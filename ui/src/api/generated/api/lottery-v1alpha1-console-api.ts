@@ -24,11 +24,21 @@ import { BASE_PATH, COLLECTION_FORMATS, type RequestArgs, BaseAPI, RequiredError
 // @ts-ignore
 import type { DrawResponse } from '../models';
 // @ts-ignore
+import type { DrawVerification } from '../models';
+// @ts-ignore
 import type { ListResult } from '../models';
 // @ts-ignore
+import type { LotteryDrawJob } from '../models';
+// @ts-ignore
 import type { RedisConfigStatus } from '../models';
 // @ts-ignore
 import type { RedisConnectionTestResult } from '../models';
+// @ts-ignore
+import type { SimulationOptions } from '../models';
+// @ts-ignore
+import type { SimulationResult } from '../models';
+// @ts-ignore
+import type { StrategyInfo } from '../models';
 /**
  * LotteryV1alpha1ConsoleApi - axios parameter creator
  * @export
@@ -70,6 +80,88 @@ export const LotteryV1alpha1ConsoleApiAxiosParamCreator = function (configuratio
 
 
     
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
+        /**
+         * 查询开奖任务进度
+         * @param {string} name 
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        getDrawJob: async (name: string, options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            // verify required parameter 'name' is not null or undefined
+            assertParamExists('getDrawJob', 'name', name)
+            const localVarPath = `/apis/console.api.lottery.xhhao.com/v1alpha1/draw-jobs/{name}`
+                .replace(`{${"name"}}`, encodeURIComponent(String(name)));
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+
+    
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
+        /**
+         * 查询活动最近一次开奖任务
+         * @param {string} name 
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        getLatestDrawJob: async (name: string, options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            // verify required parameter 'name' is not null or undefined
+            assertParamExists('getLatestDrawJob', 'name', name)
+            const localVarPath = `/apis/console.api.lottery.xhhao.com/v1alpha1/lotteries/{name}/draw-job`
+                .replace(`{${"name"}}`, encodeURIComponent(String(name)));
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+
+    
             setSearchParams(localVarUrlObj, localVarQueryParameter);
             let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
             localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
@@ -107,6 +199,43 @@ export const LotteryV1alpha1ConsoleApiAxiosParamCreator = function (configuratio
 
 
     
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
+        /**
+         * 列出可用的开奖策略及其支持的开奖方式
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        listDrawStrategies: async (options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            const localVarPath = `/apis/console.api.lottery.xhhao.com/v1alpha1/draw-strategies`;
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+
+    
             setSearchParams(localVarUrlObj, localVarQueryParameter);
             let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
             localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
@@ -244,6 +373,102 @@ export const LotteryV1alpha1ConsoleApiAxiosParamCreator = function (configuratio
                 options: localVarRequestOptions,
             };
         },
+        /**
+         * 分页查询活动中奖名单
+         * @param {string} name 
+         * @param {string} [page] 页码
+         * @param {string} [size] 每页数量
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        listWinners: async (name: string, page?: string, size?: string, options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            // verify required parameter 'name' is not null or undefined
+            assertParamExists('listWinners', 'name', name)
+            const localVarPath = `/apis/console.api.lottery.xhhao.com/v1alpha1/lotteries/{name}/winners`
+                .replace(`{${"name"}}`, encodeURIComponent(String(name)));
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+            if (page !== undefined) {
+                localVarQueryParameter['page'] = page;
+            }
+
+            if (size !== undefined) {
+                localVarQueryParameter['size'] = size;
+            }
+
+
+    
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
+        /**
+         * 按即时开奖的扣库存规则离线模拟奖品配置，统计中奖率与奖品抽完时间的分布
+         * @param {string} name 
+         * @param {SimulationOptions} [simulationOptions] 
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        simulateLottery: async (name: string, simulationOptions?: SimulationOptions, options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            // verify required parameter 'name' is not null or undefined
+            assertParamExists('simulateLottery', 'name', name)
+            const localVarPath = `/apis/console.api.lottery.xhhao.com/v1alpha1/lotteries/{name}/simulation`
+                .replace(`{${"name"}}`, encodeURIComponent(String(name)));
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'POST', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+
+    
+            localVarHeaderParameter['Content-Type'] = 'application/json';
+
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+            localVarRequestOptions.data = serializeDataIfNeeded(simulationOptions, localVarRequestOptions, configuration)
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
         /**
          * 测试抽奖插件当前表单或当前生效的 Redis 配置
          * @param {*} [options] Override http request option.
@@ -272,6 +497,52 @@ export const LotteryV1alpha1ConsoleApiAxiosParamCreator = function (configuratio
 
 
     
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
+        /**
+         * 读取开奖审计快照并重放校验
+         * @param {string} name 
+         * @param {string} [round] 开奖轮次，默认最近一轮
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        verifyDrawAudit: async (name: string, round?: string, options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            // verify required parameter 'name' is not null or undefined
+            assertParamExists('verifyDrawAudit', 'name', name)
+            const localVarPath = `/apis/console.api.lottery.xhhao.com/v1alpha1/lotteries/{name}/draw-audit`
+                .replace(`{${"name"}}`, encodeURIComponent(String(name)));
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+            if (round !== undefined) {
+                localVarQueryParameter['round'] = round;
+            }
+
+
+    
             setSearchParams(localVarUrlObj, localVarQueryParameter);
             let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
             localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
@@ -303,6 +574,30 @@ export const LotteryV1alpha1ConsoleApiFp = function(configuration?: Configuratio
             const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.drawLottery']?.[localVarOperationServerIndex]?.url;
             return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
         },
+        /**
+         * 查询开奖任务进度
+         * @param {string} name 
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async getDrawJob(name: string, options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<LotteryDrawJob>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.getDrawJob(name, options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.getDrawJob']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
+        /**
+         * 查询活动最近一次开奖任务
+         * @param {string} name 
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async getLatestDrawJob(name: string, options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<LotteryDrawJob>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.getLatestDrawJob(name, options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.getLatestDrawJob']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
         /**
          * 获取抽奖插件 Redis 配置与当前生效来源
          * @param {*} [options] Override http request option.
@@ -314,6 +609,17 @@ export const LotteryV1alpha1ConsoleApiFp = function(configuration?: Configuratio
             const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.getLotteryRedisConfig']?.[localVarOperationServerIndex]?.url;
             return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
         },
+        /**
+         * 列出可用的开奖策略及其支持的开奖方式
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async listDrawStrategies(options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<Array<StrategyInfo>>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.listDrawStrategies(options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.listDrawStrategies']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
         /**
          * 查询抽奖活动列表
          * @param {number} [page] Page number. Default is 0.
@@ -347,6 +653,33 @@ export const LotteryV1alpha1ConsoleApiFp = function(configuration?: Configuratio
             const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.listParticipants']?.[localVarOperationServerIndex]?.url;
             return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
         },
+        /**
+         * 分页查询活动中奖名单
+         * @param {string} name 
+         * @param {string} [page] 页码
+         * @param {string} [size] 每页数量
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async listWinners(name: string, page?: string, size?: string, options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<ListResult>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.listWinners(name, page, size, options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.listWinners']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
+        /**
+         * 按即时开奖的扣库存规则离线模拟奖品配置，统计中奖率与奖品抽完时间的分布
+         * @param {string} name 
+         * @param {SimulationOptions} [simulationOptions] 
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async simulateLottery(name: string, simulationOptions?: SimulationOptions, options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<SimulationResult>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.simulateLottery(name, simulationOptions, options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.simulateLottery']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
         /**
          * 测试抽奖插件当前表单或当前生效的 Redis 配置
          * @param {*} [options] Override http request option.
@@ -358,6 +691,19 @@ export const LotteryV1alpha1ConsoleApiFp = function(configuration?: Configuratio
             const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.testLotteryRedisConfig']?.[localVarOperationServerIndex]?.url;
             return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
         },
+        /**
+         * 读取开奖审计快照并重放校验
+         * @param {string} name 
+         * @param {string} [round] 开奖轮次，默认最近一轮
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async verifyDrawAudit(name: string, round?: string, options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<DrawVerification>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.verifyDrawAudit(name, round, options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1ConsoleApi.verifyDrawAudit']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
     }
 };
 
@@ -377,6 +723,24 @@ export const LotteryV1alpha1ConsoleApiFactory = function (configuration?: Config
         drawLottery(requestParameters: LotteryV1alpha1ConsoleApiDrawLotteryRequest, options?: RawAxiosRequestConfig): AxiosPromise<DrawResponse> {
             return localVarFp.drawLottery(requestParameters.name, options).then((request) => request(axios, basePath));
         },
+        /**
+         * 查询开奖任务进度
+         * @param {LotteryV1alpha1ConsoleApiGetDrawJobRequest} requestParameters Request parameters.
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        getDrawJob(requestParameters: LotteryV1alpha1ConsoleApiGetDrawJobRequest, options?: RawAxiosRequestConfig): AxiosPromise<LotteryDrawJob> {
+            return localVarFp.getDrawJob(requestParameters.name, options).then((request) => request(axios, basePath));
+        },
+        /**
+         * 查询活动最近一次开奖任务
+         * @param {LotteryV1alpha1ConsoleApiGetLatestDrawJobRequest} requestParameters Request parameters.
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        getLatestDrawJob(requestParameters: LotteryV1alpha1ConsoleApiGetLatestDrawJobRequest, options?: RawAxiosRequestConfig): AxiosPromise<LotteryDrawJob> {
+            return localVarFp.getLatestDrawJob(requestParameters.name, options).then((request) => request(axios, basePath));
+        },
         /**
          * 获取抽奖插件 Redis 配置与当前生效来源
          * @param {*} [options] Override http request option.
@@ -385,6 +749,14 @@ export const LotteryV1alpha1ConsoleApiFactory = function (configuration?: Config
         getLotteryRedisConfig(options?: RawAxiosRequestConfig): AxiosPromise<RedisConfigStatus> {
             return localVarFp.getLotteryRedisConfig(options).then((request) => request(axios, basePath));
         },
+        /**
+         * 列出可用的开奖策略及其支持的开奖方式
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        listDrawStrategies(options?: RawAxiosRequestConfig): AxiosPromise<Array<StrategyInfo>> {
+            return localVarFp.listDrawStrategies(options).then((request) => request(axios, basePath));
+        },
         /**
          * 查询抽奖活动列表
          * @param {LotteryV1alpha1ConsoleApiListLotteriesRequest} requestParameters Request parameters.
@@ -403,6 +775,24 @@ export const LotteryV1alpha1ConsoleApiFactory = function (configuration?: Config
         listParticipants(requestParameters: LotteryV1alpha1ConsoleApiListParticipantsRequest, options?: RawAxiosRequestConfig): AxiosPromise<ListResult> {
             return localVarFp.listParticipants(requestParameters.name, requestParameters.page, requestParameters.size, options).then((request) => request(axios, basePath));
         },
+        /**
+         * 分页查询活动中奖名单
+         * @param {LotteryV1alpha1ConsoleApiListWinnersRequest} requestParameters Request parameters.
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        listWinners(requestParameters: LotteryV1alpha1ConsoleApiListWinnersRequest, options?: RawAxiosRequestConfig): AxiosPromise<ListResult> {
+            return localVarFp.listWinners(requestParameters.name, requestParameters.page, requestParameters.size, options).then((request) => request(axios, basePath));
+        },
+        /**
+         * 按即时开奖的扣库存规则离线模拟奖品配置，统计中奖率与奖品抽完时间的分布
+         * @param {LotteryV1alpha1ConsoleApiSimulateLotteryRequest} requestParameters Request parameters.
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        simulateLottery(requestParameters: LotteryV1alpha1ConsoleApiSimulateLotteryRequest, options?: RawAxiosRequestConfig): AxiosPromise<SimulationResult> {
+            return localVarFp.simulateLottery(requestParameters.name, requestParameters.simulationOptions, options).then((request) => request(axios, basePath));
+        },
         /**
          * 测试抽奖插件当前表单或当前生效的 Redis 配置
          * @param {*} [options] Override http request option.
@@ -411,6 +801,15 @@ export const LotteryV1alpha1ConsoleApiFactory = function (configuration?: Config
         testLotteryRedisConfig(options?: RawAxiosRequestConfig): AxiosPromise<RedisConnectionTestResult> {
             return localVarFp.testLotteryRedisConfig(options).then((request) => request(axios, basePath));
         },
+        /**
+         * 读取开奖审计快照并重放校验
+         * @param {LotteryV1alpha1ConsoleApiVerifyDrawAuditRequest} requestParameters Request parameters.
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        verifyDrawAudit(requestParameters: LotteryV1alpha1ConsoleApiVerifyDrawAuditRequest, options?: RawAxiosRequestConfig): AxiosPromise<DrawVerification> {
+            return localVarFp.verifyDrawAudit(requestParameters.name, requestParameters.round, options).then((request) => request(axios, basePath));
+        },
     };
 };
 
@@ -428,6 +827,34 @@ export interface LotteryV1alpha1ConsoleApiDrawLotteryRequest {
     readonly name: string
 }
 
+/**
+ * Request parameters for getDrawJob operation in LotteryV1alpha1ConsoleApi.
+ * @export
+ * @interface LotteryV1alpha1ConsoleApiGetDrawJobRequest
+ */
+export interface LotteryV1alpha1ConsoleApiGetDrawJobRequest {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiGetDrawJob
+     */
+    readonly name: string
+}
+
+/**
+ * Request parameters for getLatestDrawJob operation in LotteryV1alpha1ConsoleApi.
+ * @export
+ * @interface LotteryV1alpha1ConsoleApiGetLatestDrawJobRequest
+ */
+export interface LotteryV1alpha1ConsoleApiGetLatestDrawJobRequest {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiGetLatestDrawJob
+     */
+    readonly name: string
+}
+
 /**
  * Request parameters for listLotteries operation in LotteryV1alpha1ConsoleApi.
  * @export
@@ -519,6 +946,76 @@ export interface LotteryV1alpha1ConsoleApiListParticipantsRequest {
     readonly size?: string
 }
 
+/**
+ * Request parameters for listWinners operation in LotteryV1alpha1ConsoleApi.
+ * @export
+ * @interface LotteryV1alpha1ConsoleApiListWinnersRequest
+ */
+export interface LotteryV1alpha1ConsoleApiListWinnersRequest {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiListWinners
+     */
+    readonly name: string
+
+    /**
+     * 页码
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiListWinners
+     */
+    readonly page?: string
+
+    /**
+     * 每页数量
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiListWinners
+     */
+    readonly size?: string
+}
+
+/**
+ * Request parameters for simulateLottery operation in LotteryV1alpha1ConsoleApi.
+ * @export
+ * @interface LotteryV1alpha1ConsoleApiSimulateLotteryRequest
+ */
+export interface LotteryV1alpha1ConsoleApiSimulateLotteryRequest {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiSimulateLottery
+     */
+    readonly name: string
+
+    /**
+     * 
+     * @type {SimulationOptions}
+     * @memberof LotteryV1alpha1ConsoleApiSimulateLottery
+     */
+    readonly simulationOptions?: SimulationOptions
+}
+
+/**
+ * Request parameters for verifyDrawAudit operation in LotteryV1alpha1ConsoleApi.
+ * @export
+ * @interface LotteryV1alpha1ConsoleApiVerifyDrawAuditRequest
+ */
+export interface LotteryV1alpha1ConsoleApiVerifyDrawAuditRequest {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiVerifyDrawAudit
+     */
+    readonly name: string
+
+    /**
+     * 开奖轮次，默认最近一轮
+     * @type {string}
+     * @memberof LotteryV1alpha1ConsoleApiVerifyDrawAudit
+     */
+    readonly round?: string
+}
+
 /**
  * LotteryV1alpha1ConsoleApi - object-oriented interface
  * @export
@@ -537,6 +1034,28 @@ export class LotteryV1alpha1ConsoleApi extends BaseAPI {
         return LotteryV1alpha1ConsoleApiFp(this.configuration).drawLottery(requestParameters.name, options).then((request) => request(this.axios, this.basePath));
     }
 
+    /**
+     * 查询开奖任务进度
+     * @param {LotteryV1alpha1ConsoleApiGetDrawJobRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1ConsoleApi
+     */
+    public getDrawJob(requestParameters: LotteryV1alpha1ConsoleApiGetDrawJobRequest, options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1ConsoleApiFp(this.configuration).getDrawJob(requestParameters.name, options).then((request) => request(this.axios, this.basePath));
+    }
+
+    /**
+     * 查询活动最近一次开奖任务
+     * @param {LotteryV1alpha1ConsoleApiGetLatestDrawJobRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1ConsoleApi
+     */
+    public getLatestDrawJob(requestParameters: LotteryV1alpha1ConsoleApiGetLatestDrawJobRequest, options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1ConsoleApiFp(this.configuration).getLatestDrawJob(requestParameters.name, options).then((request) => request(this.axios, this.basePath));
+    }
+
     /**
      * 获取抽奖插件 Redis 配置与当前生效来源
      * @param {*} [options] Override http request option.
@@ -547,6 +1066,16 @@ export class LotteryV1alpha1ConsoleApi extends BaseAPI {
         return LotteryV1alpha1ConsoleApiFp(this.configuration).getLotteryRedisConfig(options).then((request) => request(this.axios, this.basePath));
     }
 
+    /**
+     * 列出可用的开奖策略及其支持的开奖方式
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1ConsoleApi
+     */
+    public listDrawStrategies(options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1ConsoleApiFp(this.configuration).listDrawStrategies(options).then((request) => request(this.axios, this.basePath));
+    }
+
     /**
      * 查询抽奖活动列表
      * @param {LotteryV1alpha1ConsoleApiListLotteriesRequest} requestParameters Request parameters.
@@ -569,6 +1098,28 @@ export class LotteryV1alpha1ConsoleApi extends BaseAPI {
         return LotteryV1alpha1ConsoleApiFp(this.configuration).listParticipants(requestParameters.name, requestParameters.page, requestParameters.size, options).then((request) => request(this.axios, this.basePath));
     }
 
+    /**
+     * 分页查询活动中奖名单
+     * @param {LotteryV1alpha1ConsoleApiListWinnersRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1ConsoleApi
+     */
+    public listWinners(requestParameters: LotteryV1alpha1ConsoleApiListWinnersRequest, options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1ConsoleApiFp(this.configuration).listWinners(requestParameters.name, requestParameters.page, requestParameters.size, options).then((request) => request(this.axios, this.basePath));
+    }
+
+    /**
+     * 按即时开奖的扣库存规则离线模拟奖品配置，统计中奖率与奖品抽完时间的分布
+     * @param {LotteryV1alpha1ConsoleApiSimulateLotteryRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1ConsoleApi
+     */
+    public simulateLottery(requestParameters: LotteryV1alpha1ConsoleApiSimulateLotteryRequest, options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1ConsoleApiFp(this.configuration).simulateLottery(requestParameters.name, requestParameters.simulationOptions, options).then((request) => request(this.axios, this.basePath));
+    }
+
     /**
      * 测试抽奖插件当前表单或当前生效的 Redis 配置
      * @param {*} [options] Override http request option.
@@ -578,5 +1129,16 @@ export class LotteryV1alpha1ConsoleApi extends BaseAPI {
     public testLotteryRedisConfig(options?: RawAxiosRequestConfig) {
         return LotteryV1alpha1ConsoleApiFp(this.configuration).testLotteryRedisConfig(options).then((request) => request(this.axios, this.basePath));
     }
+
+    /**
+     * 读取开奖审计快照并重放校验
+     * @param {LotteryV1alpha1ConsoleApiVerifyDrawAuditRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1ConsoleApi
+     */
+    public verifyDrawAudit(requestParameters: LotteryV1alpha1ConsoleApiVerifyDrawAuditRequest, options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1ConsoleApiFp(this.configuration).verifyDrawAudit(requestParameters.name, requestParameters.round, options).then((request) => request(this.axios, this.basePath));
+    }
 }
 
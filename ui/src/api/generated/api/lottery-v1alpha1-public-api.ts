@@ -22,6 +22,8 @@ import { DUMMY_BASE_URL, assertParamExists, setApiKeyToObject, setBasicAuthToObj
 // @ts-ignore
 import { BASE_PATH, COLLECTION_FORMATS, type RequestArgs, BaseAPI, RequiredError, operationServerMap } from '../base';
 // @ts-ignore
+import type { ListResult } from '../models';
+// @ts-ignore
 import type { ParticipateRequest } from '../models';
 // @ts-ignore
 import type { RecoverRequest } from '../models';
@@ -238,6 +240,57 @@ export const LotteryV1alpha1PublicApiAxiosParamCreator = function (configuration
 
 
     
+            setSearchParams(localVarUrlObj, localVarQueryParameter);
+            let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
+            localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
+
+            return {
+                url: toPathString(localVarUrlObj),
+                options: localVarRequestOptions,
+            };
+        },
+        /**
+         * 分页查询中奖名单
+         * @param {string} name 
+         * @param {string} [page] 页码
+         * @param {string} [size] 每页数量
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        listLotteryWinners: async (name: string, page?: string, size?: string, options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+            // verify required parameter 'name' is not null or undefined
+            assertParamExists('listLotteryWinners', 'name', name)
+            const localVarPath = `/apis/api.lottery.xhhao.com/v1alpha1/lotteries/{name}/winners`
+                .replace(`{${"name"}}`, encodeURIComponent(String(name)));
+            // use dummy base URL string because the URL constructor only accepts absolute URLs.
+            const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL);
+            let baseOptions;
+            if (configuration) {
+                baseOptions = configuration.baseOptions;
+            }
+
+            const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options};
+            const localVarHeaderParameter = {} as any;
+            const localVarQueryParameter = {} as any;
+
+            // authentication basicAuth required
+            // http basic authentication required
+            setBasicAuthToObject(localVarRequestOptions, configuration)
+
+            // authentication bearerAuth required
+            // http bearer authentication required
+            await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+            if (page !== undefined) {
+                localVarQueryParameter['page'] = page;
+            }
+
+            if (size !== undefined) {
+                localVarQueryParameter['size'] = size;
+            }
+
+
+    
             setSearchParams(localVarUrlObj, localVarQueryParameter);
             let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {};
             localVarRequestOptions.headers = {...localVarHeaderParameter, ...headersFromBaseOptions, ...options.headers};
@@ -580,6 +633,20 @@ export const LotteryV1alpha1PublicApiFp = function(configuration?: Configuration
             const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1PublicApi.getPublicSettings']?.[localVarOperationServerIndex]?.url;
             return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
         },
+        /**
+         * 分页查询中奖名单
+         * @param {string} name 
+         * @param {string} [page] 页码
+         * @param {string} [size] 每页数量
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        async listLotteryWinners(name: string, page?: string, size?: string, options?: RawAxiosRequestConfig): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<ListResult>> {
+            const localVarAxiosArgs = await localVarAxiosParamCreator.listLotteryWinners(name, page, size, options);
+            const localVarOperationServerIndex = configuration?.serverIndex ?? 0;
+            const localVarOperationServerBasePath = operationServerMap['LotteryV1alpha1PublicApi.listLotteryWinners']?.[localVarOperationServerIndex]?.url;
+            return (axios, basePath) => createRequestFunction(localVarAxiosArgs, globalAxios, BASE_PATH, configuration)(axios, localVarOperationServerBasePath || basePath);
+        },
         /**
          * 匿名参与抽奖
          * @param {string} name 
@@ -709,6 +776,15 @@ export const LotteryV1alpha1PublicApiFactory = function (configuration?: Configu
         getPublicSettings(options?: RawAxiosRequestConfig): AxiosPromise<void> {
             return localVarFp.getPublicSettings(options).then((request) => request(axios, basePath));
         },
+        /**
+         * 分页查询中奖名单
+         * @param {LotteryV1alpha1PublicApiListLotteryWinnersRequest} requestParameters Request parameters.
+         * @param {*} [options] Override http request option.
+         * @throws {RequiredError}
+         */
+        listLotteryWinners(requestParameters: LotteryV1alpha1PublicApiListLotteryWinnersRequest, options?: RawAxiosRequestConfig): AxiosPromise<ListResult> {
+            return localVarFp.listLotteryWinners(requestParameters.name, requestParameters.page, requestParameters.size, options).then((request) => request(axios, basePath));
+        },
         /**
          * 匿名参与抽奖
          * @param {LotteryV1alpha1PublicApiParticipateLotteryRequest} requestParameters Request parameters.
@@ -829,6 +905,34 @@ export interface LotteryV1alpha1PublicApiGetLotteryStatusRequest {
     readonly token?: string
 }
 
+/**
+ * Request parameters for listLotteryWinners operation in LotteryV1alpha1PublicApi.
+ * @export
+ * @interface LotteryV1alpha1PublicApiListLotteryWinnersRequest
+ */
+export interface LotteryV1alpha1PublicApiListLotteryWinnersRequest {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryV1alpha1PublicApiListLotteryWinners
+     */
+    readonly name: string
+
+    /**
+     * 页码
+     * @type {string}
+     * @memberof LotteryV1alpha1PublicApiListLotteryWinners
+     */
+    readonly page?: string
+
+    /**
+     * 每页数量
+     * @type {string}
+     * @memberof LotteryV1alpha1PublicApiListLotteryWinners
+     */
+    readonly size?: string
+}
+
 /**
  * Request parameters for participateLottery operation in LotteryV1alpha1PublicApi.
  * @export
@@ -1001,6 +1105,17 @@ export class LotteryV1alpha1PublicApi extends BaseAPI {
         return LotteryV1alpha1PublicApiFp(this.configuration).getPublicSettings(options).then((request) => request(this.axios, this.basePath));
     }
 
+    /**
+     * 分页查询中奖名单
+     * @param {LotteryV1alpha1PublicApiListLotteryWinnersRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     * @memberof LotteryV1alpha1PublicApi
+     */
+    public listLotteryWinners(requestParameters: LotteryV1alpha1PublicApiListLotteryWinnersRequest, options?: RawAxiosRequestConfig) {
+        return LotteryV1alpha1PublicApiFp(this.configuration).listLotteryWinners(requestParameters.name, requestParameters.page, requestParameters.size, options).then((request) => request(this.axios, this.basePath));
+    }
+
     /**
      * 匿名参与抽奖
      * @param {LotteryV1alpha1PublicApiParticipateLotteryRequest} requestParameters Request parameters.
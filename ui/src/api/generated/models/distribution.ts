@@ -0,0 +1,60 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+
+/**
+ * 
+ * @export
+ * @interface Distribution
+ */
+export interface Distribution {
+    /**
+     * 
+     * @type {number}
+     * @memberof Distribution
+     */
+    'max'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof Distribution
+     */
+    'mean'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof Distribution
+     */
+    'min'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof Distribution
+     */
+    'p5'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof Distribution
+     */
+    'p50'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof Distribution
+     */
+    'p95'?: number;
+}
+
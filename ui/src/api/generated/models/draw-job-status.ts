@@ -0,0 +1,150 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+// May contain unused imports in some cases
+// @ts-ignore
+import type { DrawRoundSpec } from './draw-round-spec';
+// May contain unused imports in some cases
+// @ts-ignore
+import type { Winner } from './winner';
+
+/**
+ * 
+ * @export
+ * @interface DrawJobStatus
+ */
+export interface DrawJobStatus {
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'attempts'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'drawSeed'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'drawStrategy'?: string;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'error'?: string;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'finishTime'?: string;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'lastCompletedPhase'?: DrawJobStatusLastCompletedPhaseEnum;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'notifiedCount'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'notifiedOthersCount'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'notifyCursor'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'notifyFailedCount'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'participantCount'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'phase'?: DrawJobStatusPhaseEnum;
+    /**
+     * 
+     * @type {DrawRoundSpec}
+     * @memberof DrawJobStatus
+     */
+    'round'?: DrawRoundSpec;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawJobStatus
+     */
+    'startTime'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawJobStatus
+     */
+    'winnerCount'?: number;
+    /**
+     * 
+     * @type {Array<Winner>}
+     * @memberof DrawJobStatus
+     */
+    'winners'?: Array<Winner>;
+}
+
+export const DrawJobStatusLastCompletedPhaseEnum = {
+    Pending: 'PENDING',
+    Loading: 'LOADING',
+    Sampling: 'SAMPLING',
+    Persisting: 'PERSISTING',
+    Notifying: 'NOTIFYING',
+    Succeeded: 'SUCCEEDED',
+    Failed: 'FAILED'
+} as const;
+
+export type DrawJobStatusLastCompletedPhaseEnum = typeof DrawJobStatusLastCompletedPhaseEnum[keyof typeof DrawJobStatusLastCompletedPhaseEnum];
+export const DrawJobStatusPhaseEnum = {
+    Pending: 'PENDING',
+    Loading: 'LOADING',
+    Sampling: 'SAMPLING',
+    Persisting: 'PERSISTING',
+    Notifying: 'NOTIFYING',
+    Succeeded: 'SUCCEEDED',
+    Failed: 'FAILED'
+} as const;
+
+export type DrawJobStatusPhaseEnum = typeof DrawJobStatusPhaseEnum[keyof typeof DrawJobStatusPhaseEnum];
+
+
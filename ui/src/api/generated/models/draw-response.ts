@@ -20,6 +20,12 @@
  * @interface DrawResponse
  */
 export interface DrawResponse {
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawResponse
+     */
+    'jobName'?: string;
     /**
      * 
      * @type {string}
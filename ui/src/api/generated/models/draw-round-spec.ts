@@ -0,0 +1,72 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+
+/**
+ * 
+ * @export
+ * @interface DrawRoundSpec
+ */
+export interface DrawRoundSpec {
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawRoundSpec
+     */
+    'activityName'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawRoundSpec
+     */
+    'candidateCount'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawRoundSpec
+     */
+    'cursor'?: string;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawRoundSpec
+     */
+    'cursorName'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawRoundSpec
+     */
+    'drawFence'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawRoundSpec
+     */
+    'drawnTime'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawRoundSpec
+     */
+    'round'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawRoundSpec
+     */
+    'winnerCount'?: number;
+}
+
@@ -0,0 +1,78 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+
+/**
+ * 
+ * @export
+ * @interface DrawVerification
+ */
+export interface DrawVerification {
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawVerification
+     */
+    'activityName'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawVerification
+     */
+    'candidateCount'?: number;
+    /**
+     * 
+     * @type {boolean}
+     * @memberof DrawVerification
+     */
+    'checksumValid'?: boolean;
+    /**
+     * 
+     * @type {boolean}
+     * @memberof DrawVerification
+     */
+    'replayMatched'?: boolean;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawVerification
+     */
+    'round'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawVerification
+     */
+    'seed'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof DrawVerification
+     */
+    'strategy'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof DrawVerification
+     */
+    'winnerCount'?: number;
+    /**
+     * 
+     * @type {boolean}
+     * @memberof DrawVerification
+     */
+    'winnersInCandidates'?: boolean;
+}
+
@@ -1,6 +1,11 @@
 export * from './add-operation';
 export * from './copy-operation';
+export * from './distribution';
+export * from './draw-job-spec';
+export * from './draw-job-status';
 export * from './draw-response';
+export * from './draw-round-spec';
+export * from './draw-verification';
 export * from './effective-redis-config';
 export * from './halo-redis-config';
 export * from './json-patch-inner';
@@ -9,6 +14,7 @@ export * from './lottery-activity';
 export * from './lottery-activity-list';
 export * from './lottery-activity-spec';
 export * from './lottery-activity-status';
+export * from './lottery-draw-job';
 export * from './lottery-participant';
 export * from './lottery-participant-list';
 export * from './lottery-participant-spec';
@@ -18,11 +24,15 @@ export * from './move-operation';
 export * from './participate-request';
 export * from './plugin-redis-config';
 export * from './prize';
+export * from './prize-outcome';
 export * from './recover-request';
 export * from './redis-config-status';
 export * from './redis-connection-test-result';
 export * from './remove-operation';
 export * from './replace-operation';
 export * from './send-code-request';
+export * from './simulation-options';
+export * from './simulation-result';
+export * from './strategy-info';
 export * from './test-operation';
 export * from './winner';
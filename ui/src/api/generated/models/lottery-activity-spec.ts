@@ -38,6 +38,12 @@ export interface LotteryActivitySpec {
      * @memberof LotteryActivitySpec
      */
     'description'?: string;
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryActivitySpec
+     */
+    'drawStrategy'?: string;
     /**
      * 
      * @type {string}
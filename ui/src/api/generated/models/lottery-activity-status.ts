@@ -23,6 +23,36 @@ import type { Winner } from './winner';
  * @interface LotteryActivityStatus
  */
 export interface LotteryActivityStatus {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryActivityStatus
+     */
+    'drawError'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof LotteryActivityStatus
+     */
+    'drawFence'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof LotteryActivityStatus
+     */
+    'drawRound'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof LotteryActivityStatus
+     */
+    'drawSeed'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryActivityStatus
+     */
+    'drawStrategy'?: string;
     /**
      * 
      * @type {string}
@@ -35,12 +65,24 @@ export interface LotteryActivityStatus {
      * @memberof LotteryActivityStatus
      */
     'participantCount'?: number;
+    /**
+     * 
+     * @type {{ [key: string]: number; }}
+     * @memberof LotteryActivityStatus
+     */
+    'prizeWinnerCounts'?: { [key: string]: number; };
     /**
      * 
      * @type {string}
      * @memberof LotteryActivityStatus
      */
     'state'?: LotteryActivityStatusStateEnum;
+    /**
+     * 
+     * @type {number}
+     * @memberof LotteryActivityStatus
+     */
+    'winnerCount'?: number;
     /**
      * 
      * @type {Array<Winner>}
@@ -0,0 +1,63 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+// May contain unused imports in some cases
+// @ts-ignore
+import type { DrawJobSpec } from './draw-job-spec';
+// May contain unused imports in some cases
+// @ts-ignore
+import type { DrawJobStatus } from './draw-job-status';
+// May contain unused imports in some cases
+// @ts-ignore
+import type { Metadata } from './metadata';
+
+/**
+ * 
+ * @export
+ * @interface LotteryDrawJob
+ */
+export interface LotteryDrawJob {
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryDrawJob
+     */
+    'apiVersion': string;
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryDrawJob
+     */
+    'kind': string;
+    /**
+     * 
+     * @type {Metadata}
+     * @memberof LotteryDrawJob
+     */
+    'metadata': Metadata;
+    /**
+     * 
+     * @type {DrawJobSpec}
+     * @memberof LotteryDrawJob
+     */
+    'spec'?: DrawJobSpec;
+    /**
+     * 
+     * @type {DrawJobStatus}
+     * @memberof LotteryDrawJob
+     */
+    'status'?: DrawJobStatus;
+}
+
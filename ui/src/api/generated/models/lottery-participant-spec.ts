@@ -62,6 +62,12 @@ export interface LotteryParticipantSpec {
      * @memberof LotteryParticipantSpec
      */
     'isWinner'?: boolean;
+    /**
+     * 
+     * @type {string}
+     * @memberof LotteryParticipantSpec
+     */
+    'leaseId'?: string;
     /**
      * 
      * @type {string}
@@ -86,6 +92,12 @@ export interface LotteryParticipantSpec {
      * @memberof LotteryParticipantSpec
      */
     'username'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof LotteryParticipantSpec
+     */
+    'weight'?: number;
     /**
      * 
      * @type {string}
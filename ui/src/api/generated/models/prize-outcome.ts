@@ -0,0 +1,63 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+// May contain unused imports in some cases
+// @ts-ignore
+import type { Distribution } from './distribution';
+
+/**
+ * 
+ * @export
+ * @interface PrizeOutcome
+ */
+export interface PrizeOutcome {
+    /**
+     * 
+     * @type {number}
+     * @memberof PrizeOutcome
+     */
+    'meanAwarded'?: number;
+    /**
+     * 
+     * @type {string}
+     * @memberof PrizeOutcome
+     */
+    'name'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof PrizeOutcome
+     */
+    'probability'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof PrizeOutcome
+     */
+    'quantity'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof PrizeOutcome
+     */
+    'soldOutRuns'?: number;
+    /**
+     * 
+     * @type {Distribution}
+     * @memberof PrizeOutcome
+     */
+    'soldOutSeconds'?: Distribution;
+}
+
@@ -50,6 +50,12 @@ export interface Prize {
      * @memberof Prize
      */
     'quantity'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof Prize
+     */
+    'releasePerHour'?: number;
     /**
      * 
      * @type {number}
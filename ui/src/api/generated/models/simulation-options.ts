@@ -0,0 +1,57 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+// May contain unused imports in some cases
+// @ts-ignore
+import type { Prize } from './prize';
+
+/**
+ * 
+ * @export
+ * @interface SimulationOptions
+ */
+export interface SimulationOptions {
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationOptions
+     */
+    'durationSeconds'?: number;
+    /**
+     * 
+     * @type {Array<Prize>}
+     * @memberof SimulationOptions
+     */
+    'prizes'?: Array<Prize>;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationOptions
+     */
+    'runs'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationOptions
+     */
+    'seed'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationOptions
+     */
+    'spins'?: number;
+}
+
@@ -0,0 +1,90 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+// May contain unused imports in some cases
+// @ts-ignore
+import type { Distribution } from './distribution';
+// May contain unused imports in some cases
+// @ts-ignore
+import type { PrizeOutcome } from './prize-outcome';
+
+/**
+ * 
+ * @export
+ * @interface SimulationResult
+ */
+export interface SimulationResult {
+    /**
+     * 
+     * @type {string}
+     * @memberof SimulationResult
+     */
+    'activityName'?: string;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationResult
+     */
+    'durationSeconds'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationResult
+     */
+    'elapsedMillis'?: number;
+    /**
+     * 
+     * @type {Array<PrizeOutcome>}
+     * @memberof SimulationResult
+     */
+    'prizes'?: Array<PrizeOutcome>;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationResult
+     */
+    'runs'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationResult
+     */
+    'seed'?: number;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationResult
+     */
+    'soldOutRuns'?: number;
+    /**
+     * 
+     * @type {Distribution}
+     * @memberof SimulationResult
+     */
+    'soldOutSeconds'?: Distribution;
+    /**
+     * 
+     * @type {number}
+     * @memberof SimulationResult
+     */
+    'spins'?: number;
+    /**
+     * 
+     * @type {Distribution}
+     * @memberof SimulationResult
+     */
+    'winRate'?: Distribution;
+}
+
@@ -0,0 +1,51 @@
+/* tslint:disable */
+/* eslint-disable */
+/**
+ * Halo
+ * No description provided (generated by Openapi Generator https://github.com/openapitools/openapi-generator)
+ *
+ * The version of the OpenAPI document: 2.22.3
+ * 
+ *
+ * NOTE: This class is auto generated by OpenAPI Generator (https://openapi-generator.tech).
+ * https://openapi-generator.tech
+ * Do not edit the class manually.
+ */
+
+
+
+/**
+ * 
+ * @export
+ * @interface StrategyInfo
+ */
+export interface StrategyInfo {
+    /**
+     * 
+     * @type {Array<string>}
+     * @memberof StrategyInfo
+     */
+    'lotteryTypes'?: Array<StrategyInfoLotteryTypesEnum>;
+    /**
+     * 
+     * @type {string}
+     * @memberof StrategyInfo
+     */
+    'name'?: string;
+    /**
+     * 
+     * @type {boolean}
+     * @memberof StrategyInfo
+     */
+    'reproducible'?: boolean;
+}
+
+export const StrategyInfoLotteryTypesEnum = {
+    Scheduled: 'SCHEDULED',
+    Wheel: 'WHEEL',
+    Draw: 'DRAW'
+} as const;
+
+export type StrategyInfoLotteryTypesEnum = typeof StrategyInfoLotteryTypesEnum[keyof typeof StrategyInfoLotteryTypesEnum];
+
+